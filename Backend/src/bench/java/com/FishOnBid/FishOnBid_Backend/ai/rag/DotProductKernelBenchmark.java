@@ -0,0 +1,93 @@
+package com.FishOnBid.FishOnBid_Backend.ai.rag;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Scoring one block of stored vectors against a query: the SCALAR and SIMD
+ * DotProductKernels over the row-major float[] store, and DOUBLE_COSINE, the
+ * per-document double[] cosine (norms recomputed) they replaced.
+ *
+ * The SIMD kernel exists only in a -Psimd build run with jdk.incubator.vector,
+ * so its setup fails (and JMH moves on) under -Pbench alone:
+ *
+ *   mvn -Psimd,bench -DskipTests verify -Dbench.args="DotProductKernelBenchmark -f 1"
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class DotProductKernelBenchmark {
+
+    private static final int ROWS = 4096;
+
+    @Param({"5", "16", "67", "128", "384"})
+    public int dimension;
+
+    @Param({"DOUBLE_COSINE", "SCALAR", "SIMD"})
+    public String kernel;
+
+    private DotProductKernel dotProduct;
+    private float[] query;
+    private float[] vectors;
+    private double[] doubleQuery;
+    private double[][] rows;
+    private float[] out;
+
+    @Setup
+    public void setUp() {
+        dotProduct = switch (kernel) {
+            case "DOUBLE_COSINE" -> null;
+            case "SCALAR" -> new ScalarDotProductKernel();
+            default -> DotProductKernels.select(true);
+        };
+        if ("SIMD".equals(kernel) && dotProduct instanceof ScalarDotProductKernel) {
+            throw new IllegalStateException("SIMD kernel unavailable: run with -Psimd,bench");
+        }
+
+        Random random = new Random(42);
+        doubleQuery = TopKBenchmark.randomVector(random, dimension);
+        query = toFloats(doubleQuery);
+        rows = new double[ROWS][];
+        vectors = new float[ROWS * dimension];
+        for (int i = 0; i < ROWS; i++) {
+            rows[i] = TopKBenchmark.randomVector(random, dimension);
+            System.arraycopy(toFloats(rows[i]), 0, vectors, i * dimension, dimension);
+        }
+        out = new float[ROWS];
+    }
+
+    @Benchmark
+    public float[] scoreBlock() {
+        if (dotProduct == null) {
+            for (int i = 0; i < ROWS; i++) {
+                out[i] = (float) TopKBenchmark.cosine(doubleQuery, rows[i]);
+            }
+        } else {
+            dotProduct.scores(query, vectors, dimension, 0, ROWS, out);
+        }
+        return out;
+    }
+
+    private static float[] toFloats(double[] vector) {
+        float[] floats = new float[vector.length];
+        for (int d = 0; d < vector.length; d++) {
+            floats[d] = (float) vector[d];
+        }
+        return floats;
+    }
+}
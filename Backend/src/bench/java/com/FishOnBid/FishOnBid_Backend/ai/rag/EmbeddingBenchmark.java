@@ -0,0 +1,102 @@
+package com.FishOnBid.FishOnBid_Backend.ai.rag;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Document embeddings per second for each rag.embedding.mode, on a fixed corpus of
+ * 40 species (adjective x base name, so related names share words) at 10 harbors.
+ * Retrieval precision@K is printed at setup: the share of the exact cosine top K
+ * for a species/harbor/price query that is the queried species.
+ *
+ *   mvn -Pbench -DskipTests verify -Dbench.args="EmbeddingBenchmark -f 1"
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class EmbeddingBenchmark {
+
+    private static final List<String> VARIETIES = List.of("Black", "White", "Silver", "Indian", "Red");
+    private static final List<String> BASE_NAMES = List.of(
+            "Pomfret", "Mackerel", "Sardine", "Seer Fish", "Tuna", "Prawn", "Crab", "Snapper");
+    private static final List<String> HARBORS = List.of(
+            "Kochi", "Chennai", "Mumbai", "Visakhapatnam", "Mangalore",
+            "Kollam", "Tuticorin", "Paradip", "Veraval", "Goa");
+    private static final int DOCUMENTS = 20_000;
+    private static final int QUERIES = 400;
+    private static final int[] PRECISION_AT = {10, 200};
+
+    @Param({"SCALAR", "HASHED_NGRAM"})
+    public RagEmbeddingService.Mode mode;
+
+    private RagEmbeddingService embeddingService;
+    private List<String> species;
+    private long now;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        embeddingService = new RagEmbeddingService();
+        ReflectionTestUtils.setField(embeddingService, "mode", mode);
+        ReflectionTestUtils.setField(embeddingService, "hashedDimensions", 64);
+        species = VARIETIES.stream()
+                .flatMap(variety -> BASE_NAMES.stream().map(base -> variety + " " + base))
+                .toList();
+        now = System.currentTimeMillis();
+
+        Random random = new Random(42);
+        ContiguousVectorStore store = new ContiguousVectorStore(new ScalarDotProductKernel());
+        for (int i = 0; i < DOCUMENTS; i++) {
+            String fish = species.get(random.nextInt(species.size()));
+            String harbor = HARBORS.get(random.nextInt(HARBORS.size()));
+            double price = 200 + random.nextDouble() * 800;
+            double quantity = 1 + random.nextDouble() * 50;
+            long timestamp = now - random.nextInt(30) * 86_400_000L;
+            store.upsert(RagDocument.builder()
+                    .id("doc-" + i)
+                    .fishName(fish)
+                    .location(harbor)
+                    .embedding(embeddingService.generateEmbedding(fish, harbor, price, quantity, timestamp))
+                    .build());
+        }
+
+        StringBuilder report = new StringBuilder(String.format("%n%s (%s):", mode, embeddingService.getModelId()));
+        for (int k : PRECISION_AT) {
+            long hits = 0;
+            Random queries = new Random(7);
+            for (int q = 0; q < QUERIES; q++) {
+                String fish = species.get(queries.nextInt(species.size()));
+                String harbor = HARBORS.get(queries.nextInt(HARBORS.size()));
+                double[] query = embeddingService.generateQueryEmbedding(fish, harbor, 200 + queries.nextDouble() * 800);
+                hits += store.topK(query, k).stream().filter(doc -> fish.equals(doc.getFishName())).count();
+            }
+            report.append(String.format(" precision@%d %.2f", k, hits / (double) (QUERIES * k)));
+        }
+        System.out.println(report);
+    }
+
+    @Benchmark
+    public double[] embedDocument() {
+        int i = next++;
+        String fish = species.get(i % species.size());
+        String harbor = HARBORS.get(i % HARBORS.size());
+        return embeddingService.generateEmbedding(fish, harbor, 200 + (i & 1023), 10 + (i & 31), now);
+    }
+}
@@ -0,0 +1,104 @@
+package com.FishOnBid.FishOnBid_Backend.ai.rag;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * HNSW search (rag.vector.store=HNSW) against the exact contiguous scan on the same
+ * corpus and queries, across efSearch. Recall@10 of the graph against the exact
+ * top 10 and the graph build time are printed at setup, so one run gives the
+ * recall/latency trade-off for picking rag.vector.hnsw.ef-search.
+ *
+ *   mvn -Pbench -DskipTests verify -Dbench.args="HnswRecallBenchmark -f 1"
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class HnswRecallBenchmark {
+
+    private static final int K = 10;
+    private static final int QUERIES = 64;
+
+    @Param({"10000", "100000"})
+    public int documents;
+
+    @Param({"67"})
+    public int dimension;
+
+    @Param({"16", "64", "128"})
+    public int efSearch;
+
+    @Param({"16"})
+    public int m;
+
+    @Param({"200"})
+    public int efConstruction;
+
+    private ContiguousVectorStore exact;
+    private HnswIndex hnsw;
+    private double[][] queries;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        exact = new ContiguousVectorStore(new ScalarDotProductKernel());
+        hnsw = new HnswIndex(m, efConstruction, efSearch);
+        // Near-duplicates of stored rows, like the price queries the store answers
+        queries = new double[QUERIES][];
+        int stride = documents / QUERIES;
+        long buildNanos = 0;
+        for (int i = 0; i < documents; i++) {
+            double[] embedding = TopKBenchmark.randomVector(random, dimension);
+            RagDocument doc = RagDocument.builder().id("doc-" + i).embedding(embedding).build();
+            exact.upsert(doc);
+            long start = System.nanoTime();
+            hnsw.upsert(doc);
+            buildNanos += System.nanoTime() - start;
+            if (i % stride == 0 && i / stride < QUERIES) {
+                double[] query = embedding.clone();
+                for (int d = 0; d < dimension; d++) {
+                    query[d] += random.nextGaussian() * 0.05;
+                }
+                queries[i / stride] = query;
+            }
+        }
+        System.out.printf("%nrecall@%d hnsw vs exact: %.4f, graph build %d ms%n",
+                K, recall(), TimeUnit.NANOSECONDS.toMillis(buildNanos));
+    }
+
+    @Benchmark
+    public List<RagDocument> exactScan() {
+        return exact.topK(queries[next++ & (QUERIES - 1)], K);
+    }
+
+    @Benchmark
+    public List<RagDocument> hnswSearch() {
+        return hnsw.topK(queries[next++ & (QUERIES - 1)], K);
+    }
+
+    private double recall() {
+        long hits = 0;
+        for (double[] query : queries) {
+            List<String> truth = exact.topK(query, K).stream().map(RagDocument::getId).toList();
+            hits += hnsw.topK(query, K).stream().map(RagDocument::getId).filter(truth::contains).count();
+        }
+        return hits / (double) (QUERIES * K);
+    }
+}
@@ -0,0 +1,116 @@
+package com.FishOnBid.FishOnBid_Backend.ai.rag;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Exact float32 scan against the int8 first pass with exact rescoring
+ * (rag.vector.quantization=INT8), on the same corpus and queries, with the float
+ * vectors on the heap or in mapped files (rag.vector.storage). Recall@10 of the
+ * int8 path and the heap bytes each store holds per document are printed at setup.
+ *
+ *   mvn -Pbench -DskipTests verify -Dbench.args="QuantizedScanBenchmark -f 1"
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class QuantizedScanBenchmark {
+
+    private static final int K = 10;
+    private static final int QUERIES = 64;
+
+    @Param({"100000", "1000000"})
+    public int documents;
+
+    @Param({"5", "67"})
+    public int dimension;
+
+    @Param({"4"})
+    public int rescoreFactor;
+
+    @Param({"HEAP", "MAPPED"})
+    public String storage;
+
+    private ContiguousVectorStore exact;
+    private ContiguousVectorStore int8;
+    private double[][] queries;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        exact = new ContiguousVectorStore(new ScalarDotProductKernel(), columns(), null, 0);
+        int8 = new ContiguousVectorStore(new ScalarDotProductKernel(), columns(), new Int8Quantizer(), rescoreFactor);
+        // Near-duplicates of stored rows, like the price queries the store answers
+        queries = new double[QUERIES][];
+        int stride = documents / QUERIES;
+        for (int i = 0; i < documents; i++) {
+            double[] embedding = TopKBenchmark.randomVector(random, dimension);
+            RagDocument doc = RagDocument.builder().id("doc-" + i).embedding(embedding).build();
+            exact.upsert(doc);
+            int8.upsert(doc);
+            if (i % stride == 0 && i / stride < QUERIES) {
+                double[] query = embedding.clone();
+                for (int d = 0; d < dimension; d++) {
+                    query[d] += random.nextGaussian() * 0.05;
+                }
+                queries[i / stride] = query;
+            }
+        }
+        System.out.printf("%nrecall@%d int8 vs exact: %.4f, heap vector bytes/doc exact=%d int8=%d%n",
+                K, recall(), heapBytesPerDoc(exact), heapBytesPerDoc(int8));
+    }
+
+    private VectorColumns columns() {
+        return "MAPPED".equals(storage)
+                ? new BufferVectorColumns(BufferVectorColumns.Mode.MAPPED, Path.of(System.getProperty("java.io.tmpdir"), "rag-bench"))
+                : new HeapVectorColumns();
+    }
+
+    /**
+     * Vector and code bytes the store keeps on the Java heap, per used slot
+     */
+    private long heapBytesPerDoc(ContiguousVectorStore store) {
+        Map<String, Object> stats = store.getStats();
+        long floats = "HEAP".equals(stats.get("storage")) ? ((Number) stats.get("vectorBytes")).longValue() : 0;
+        long codes = stats.get("quantization") instanceof Map<?, ?> q ? ((Number) q.get("codeBytes")).longValue() : 0;
+        return (floats + codes) / ((Number) stats.get("capacity")).longValue();
+    }
+
+    @Benchmark
+    public List<RagDocument> exactScan() {
+        return exact.topK(queries[next++ & (QUERIES - 1)], K);
+    }
+
+    @Benchmark
+    public List<RagDocument> int8Scan() {
+        return int8.topK(queries[next++ & (QUERIES - 1)], K);
+    }
+
+    private double recall() {
+        long hits = 0;
+        for (double[] query : queries) {
+            List<String> truth = exact.topK(query, K).stream().map(RagDocument::getId).toList();
+            hits += int8.topK(query, K).stream().map(RagDocument::getId).filter(truth::contains).count();
+        }
+        return hits / (double) (QUERIES * K);
+    }
+}
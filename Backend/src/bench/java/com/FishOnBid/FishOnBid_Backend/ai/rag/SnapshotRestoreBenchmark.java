@@ -0,0 +1,130 @@
+package com.FishOnBid.FishOnBid_Backend.ai.rag;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Startup cost of the RAG index: restoring the persisted snapshot against
+ * re-indexing the same documents from scratch (embedding included, database time
+ * excluded, so the full rebuild is a lower bound). Each op is one cold restore
+ * into a fresh RagVectorStore.
+ *
+ *   mvn -Pbench -DskipTests verify -Dbench.args="SnapshotRestoreBenchmark -f 1"
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SnapshotRestoreBenchmark {
+
+    private static final String[] FISH = {"Seer Fish", "Pomfret", "Tuna", "Sardine", "Mackerel", "Prawns"};
+    private static final String[] HARBORS = {"Kochi", "Chennai", "Mangalore", "Vizag", "Veraval"};
+
+    @Param({"100000", "1000000"})
+    public int documents;
+
+    private Path snapshot;
+    private List<RagDocument> rows;
+    private RagEmbeddingService embeddingService;
+
+    @Setup
+    public void setUp() throws IOException {
+        Random random = new Random(42);
+        embeddingService = new RagEmbeddingService();
+        ReflectionTestUtils.setField(embeddingService, "mode", RagEmbeddingService.Mode.SCALAR);
+        long now = System.currentTimeMillis();
+        rows = new ArrayList<>(documents);
+        for (int i = 0; i < documents; i++) {
+            rows.add(RagDocument.builder()
+                    .id("auction-" + i)
+                    .fishName(FISH[random.nextInt(FISH.length)])
+                    .location(HARBORS[random.nextInt(HARBORS.length)])
+                    .avgPrice(200 + random.nextInt(800))
+                    .quantityKg(1 + random.nextInt(100))
+                    .timestamp(now - random.nextInt(30) * 86_400_000L)
+                    .build());
+        }
+        snapshot = Files.createTempFile("rag-bench", ".snapshot");
+        RagVectorStore seeded = store();
+        seeded.rebuild(() -> copies(rows));
+        seeded.saveSnapshot(Instant.now());
+        System.out.printf("%nsnapshot: %d documents, %d bytes%n", documents, Files.size(snapshot));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(snapshot);
+    }
+
+    @Benchmark
+    public int restoreSnapshot() {
+        RagVectorStore store = store();
+        store.restoreSnapshot();
+        return store.size();
+    }
+
+    @Benchmark
+    public int fullReindex() {
+        RagVectorStore store = store();
+        store.rebuild(() -> copies(rows));
+        return store.size();
+    }
+
+    private RagVectorStore store() {
+        RagVectorStore store = new RagVectorStore(embeddingService);
+        ReflectionTestUtils.setField(store, "storeType", "IN_MEMORY");
+        ReflectionTestUtils.setField(store, "simdEnabled", false);
+        ReflectionTestUtils.setField(store, "storage", "HEAP");
+        ReflectionTestUtils.setField(store, "quantization", "NONE");
+        ReflectionTestUtils.setField(store, "rescoreFactor", 4);
+        ReflectionTestUtils.setField(store, "partitionBy", PartitionedVectorIndex.PartitionBy.FISH);
+        ReflectionTestUtils.setField(store, "partitionFallback", PartitionedVectorIndex.Fallback.ALL);
+        ReflectionTestUtils.setField(store, "retentionDays", 30L);
+        ReflectionTestUtils.setField(store, "snapshotEnabled", true);
+        ReflectionTestUtils.setField(store, "snapshotPath", snapshot.toString());
+        ReflectionTestUtils.setField(store, "queryCacheEnabled", false);
+        store.init();
+        return store;
+    }
+
+    /**
+     * Fresh documents without embeddings, as the database path hands them over
+     */
+    private static List<RagDocument> copies(List<RagDocument> rows) {
+        List<RagDocument> copies = new ArrayList<>(rows.size());
+        for (RagDocument row : rows) {
+            copies.add(RagDocument.builder()
+                    .id(row.getId())
+                    .fishName(row.getFishName())
+                    .location(row.getLocation())
+                    .avgPrice(row.getAvgPrice())
+                    .quantityKg(row.getQuantityKg())
+                    .timestamp(row.getTimestamp())
+                    .build());
+        }
+        return copies;
+    }
+}
@@ -0,0 +1,117 @@
+package com.FishOnBid.FishOnBid_Backend.ai.rag;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Collectors;
+
+/**
+ * Top-K similarity query: the bounded-heap scan over ContiguousVectorStore against
+ * the score-copy-sort-limit stream it replaced.
+ *
+ *   mvn -Pbench -DskipTests verify -Dbench.args="TopKBenchmark -f 1"
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(java.util.concurrent.TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class TopKBenchmark {
+
+    private static final int K = 10;
+
+    @Param({"10000", "100000", "1000000"})
+    public int documents;
+
+    @Param({"5"})
+    public int dimension;
+
+    private ContiguousVectorStore store;
+    private List<RagDocument> corpus;
+    private double[] query;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        store = new ContiguousVectorStore(new ScalarDotProductKernel());
+        corpus = new ArrayList<>(documents);
+        for (int i = 0; i < documents; i++) {
+            RagDocument doc = document(random, "doc-" + i);
+            store.upsert(doc);
+            corpus.add(doc);
+        }
+        query = randomVector(random, dimension);
+    }
+
+    @Benchmark
+    public List<RagDocument> heapTopK() {
+        return store.topK(query, K);
+    }
+
+    /**
+     * The pre-heap query path: a copied RagDocument per candidate, a full sort, then limit
+     */
+    @Benchmark
+    public List<RagDocument> sortAll() {
+        return corpus.stream()
+                .map(doc -> RagDocument.builder()
+                        .id(doc.getId())
+                        .fishName(doc.getFishName())
+                        .location(doc.getLocation())
+                        .avgPrice(doc.getAvgPrice())
+                        .quantityKg(doc.getQuantityKg())
+                        .timestamp(doc.getTimestamp())
+                        .embedding(doc.getEmbedding())
+                        .similarityScore(cosine(query, doc.getEmbedding()))
+                        .build())
+                .sorted((a, b) -> Double.compare(b.getSimilarityScore(), a.getSimilarityScore()))
+                .limit(K)
+                .collect(Collectors.toList());
+    }
+
+    private RagDocument document(Random random, String id) {
+        return RagDocument.builder()
+                .id(id)
+                .fishName("Fish " + random.nextInt(50))
+                .location("Port " + random.nextInt(20))
+                .avgPrice(200 + random.nextDouble() * 800)
+                .quantityKg(1 + random.nextDouble() * 50)
+                .timestamp(System.currentTimeMillis() - random.nextInt(90) * 86_400_000L)
+                .embedding(randomVector(random, dimension))
+                .build();
+    }
+
+    static double[] randomVector(Random random, int dimension) {
+        double[] vector = new double[dimension];
+        for (int d = 0; d < dimension; d++) {
+            vector[d] = random.nextGaussian();
+        }
+        return vector;
+    }
+
+    static double cosine(double[] a, double[] b) {
+        double dot = 0.0;
+        double normA = 0.0;
+        double normB = 0.0;
+        for (int i = 0; i < a.length; i++) {
+            dot += a[i] * b[i];
+            normA += a[i] * a[i];
+            normB += b[i] * b[i];
+        }
+        double denominator = Math.sqrt(normA) * Math.sqrt(normB);
+        return denominator == 0 ? 0.0 : dot / denominator;
+    }
+}
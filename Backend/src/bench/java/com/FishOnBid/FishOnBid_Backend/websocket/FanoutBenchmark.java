@@ -0,0 +1,126 @@
+package com.FishOnBid.FishOnBid_Backend.websocket;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.converter.MappingJackson2MessageConverter;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.messaging.simp.broker.SimpleBrokerMessageHandler;
+import org.springframework.messaging.simp.stomp.StompEncoder;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.messaging.support.ExecutorSubscribableChannel;
+import org.springframework.messaging.support.MessageBuilder;
+
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-event fan-out cost through the simple broker: one bid event to its auction
+ * topic and /topic/auctions, every subscriber on both. Outbound messages are
+ * STOMP-encoded as StompSubProtocolHandler would before writing to the socket.
+ *
+ * perDestinationConvert is the old path (convertAndSend per destination, Jackson
+ * once each); serializeOnce is StompBroadcaster.broadcast (JSON only).
+ *
+ *   mvn -Pbench -DskipTests verify -Dbench.args="FanoutBenchmark -f 1"
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class FanoutBenchmark {
+
+    private static final String AUCTION_TOPIC = "/topic/auction/1";
+    private static final String AUCTIONS_TOPIC = "/topic/auctions";
+
+    @Param({"1", "1000", "10000"})
+    public int subscribers;
+
+    private SimpleBrokerMessageHandler broker;
+    private SimpMessagingTemplate template;
+    private StompBroadcaster broadcaster;
+    private final StompEncoder encoder = new StompEncoder();
+    private long bytesOut;
+    private long price;
+
+    @Setup
+    public void setUp() {
+        ExecutorSubscribableChannel inbound = new ExecutorSubscribableChannel();
+        ExecutorSubscribableChannel brokerChannel = new ExecutorSubscribableChannel();
+        MessageChannel outbound = (message, timeout) -> {
+            bytesOut += encoder.encode(StompHeaderAccessor.wrap(message).getMessageHeaders(),
+                    (byte[]) message.getPayload()).length;
+            return true;
+        };
+        broker = new SimpleBrokerMessageHandler(inbound, outbound, brokerChannel, List.of("/topic"));
+        broker.start();
+        for (int i = 0; i < subscribers; i++) {
+            subscribe("session-" + i, "sub-0", AUCTION_TOPIC);
+            subscribe("session-" + i, "sub-1", AUCTIONS_TOPIC);
+        }
+
+        template = new SimpMessagingTemplate(brokerChannel);
+        template.setMessageConverter(new MappingJackson2MessageConverter());
+        broadcaster = new StompBroadcaster(template, new ObjectMapper());
+    }
+
+    @TearDown
+    public void tearDown() {
+        broker.stop();
+    }
+
+    @Benchmark
+    public long perDestinationConvert() {
+        Map<String, Object> payload = bid();
+        template.convertAndSend(AUCTION_TOPIC, payload);
+        template.convertAndSend(AUCTIONS_TOPIC, payload);
+        return bytesOut;
+    }
+
+    @Benchmark
+    public long serializeOnce() {
+        broadcaster.broadcast(bid(), AUCTION_TOPIC, AUCTIONS_TOPIC);
+        return bytesOut;
+    }
+
+    private Map<String, Object> bid() {
+        Map<String, Object> payload = new HashMap<>();
+        payload.put("type", "BID_PLACED");
+        payload.put("auctionId", 1L);
+        payload.put("currentPrice", 500.0 + (price++ % 1000));
+        payload.put("previousPrice", 490.0);
+        payload.put("bidder", WebSocketEventHandler.maskEmail("bidder@fishonbid.in"));
+        payload.put("timestamp", Instant.ofEpochMilli(1_700_000_000_000L).toString());
+        payload.put("seq", price);
+        payload.put("baseSeq", price - 1);
+        return payload;
+    }
+
+    private void subscribe(String sessionId, String subscriptionId, String destination) {
+        SimpMessageHeaderAccessor headers = SimpMessageHeaderAccessor.create(SimpMessageType.SUBSCRIBE);
+        headers.setSessionId(sessionId);
+        headers.setSubscriptionId(subscriptionId);
+        headers.setDestination(destination);
+        headers.setSessionAttributes(new HashMap<>());
+        broker.handleMessage(MessageBuilder.createMessage(new byte[0], headers.getMessageHeaders()));
+    }
+}
@@ -0,0 +1,102 @@
+package com.FishOnBid.FishOnBid_Backend.websocket;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.messaging.simp.stomp.StompCommand;
+import org.springframework.messaging.simp.stomp.StompEncoder;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.util.MimeTypeUtils;
+
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JSON (StompBroadcaster.encode) against BinaryFrameCodec for the BID_PLACED
+ * update BidUpdateCoalescer sends, with every field it sets. Payload bytes and
+ * whole STOMP MESSAGE frame bytes per update are printed at setup; the benchmarks
+ * measure encode cost per frame.
+ *
+ *   mvn -Pbench -DskipTests verify -Dbench.args="FrameEncodingBenchmark -f 1"
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class FrameEncodingBenchmark {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private Map<String, Object> update;
+    private long seq;
+
+    @Setup
+    public void setUp() throws JsonProcessingException {
+        update = bidUpdate(1_000);
+        byte[] json = objectMapper.writeValueAsBytes(update);
+        byte[] binary = BinaryFrameCodec.encode(update);
+
+        StompHeaderAccessor jsonHeaders = messageHeaders("/topic/auction/42");
+        jsonHeaders.setContentType(MimeTypeUtils.APPLICATION_JSON);
+        StompHeaderAccessor binaryHeaders = messageHeaders("/topic/bin/auction/42");
+        binaryHeaders.setContentType(BinaryFrameCodec.CONTENT_TYPE);
+        binaryHeaders.setNativeHeader(BinaryFrameCodec.VERSION_HEADER, String.valueOf(BinaryFrameCodec.VERSION));
+        StompEncoder encoder = new StompEncoder();
+        System.out.printf("%nbytes/frame payload json=%d binary=%d, stomp frame json=%d binary=%d%n",
+                json.length, binary.length,
+                encoder.encode(jsonHeaders.getMessageHeaders(), json).length,
+                encoder.encode(binaryHeaders.getMessageHeaders(), binary).length);
+    }
+
+    @Benchmark
+    public byte[] json() throws JsonProcessingException {
+        update.put("seq", ++seq);
+        return objectMapper.writeValueAsBytes(update);
+    }
+
+    @Benchmark
+    public byte[] binary() {
+        update.put("seq", ++seq);
+        return BinaryFrameCodec.encode(update);
+    }
+
+    /**
+     * A coalesced BID_PLACED update, as BidUpdateCoalescer builds it
+     */
+    private static Map<String, Object> bidUpdate(long seq) {
+        Map<String, Object> payload = new LinkedHashMap<>();
+        payload.put("type", "BID_PLACED");
+        payload.put("auctionId", 42L);
+        payload.put("currentPrice", 1_250.0);
+        payload.put("previousPrice", 1_200.0);
+        payload.put("bidder", WebSocketEventHandler.maskEmail("bidder@fishonbid.in"));
+        payload.put("coalescedBids", 3);
+        payload.put("timestamp", Instant.ofEpochMilli(1_700_000_000_000L).toString());
+        payload.put("status", "ACTIVE");
+        payload.put("seq", seq);
+        payload.put("baseSeq", seq - 3);
+        payload.put("viewers", 128);
+        payload.put("uniqueViewers", 97);
+        return payload;
+    }
+
+    private static StompHeaderAccessor messageHeaders(String destination) {
+        StompHeaderAccessor headers = StompHeaderAccessor.create(StompCommand.MESSAGE);
+        headers.setDestination(destination);
+        headers.setSubscriptionId("sub-0");
+        headers.setMessageId("a1b2c3d4-0");
+        return headers;
+    }
+}
@@ -2,8 +2,11 @@ package com.FishOnBid.FishOnBid_Backend.ai.controller;
 
 import com.FishOnBid.FishOnBid_Backend.ai.dto.AiPriceRequestDTO;
 import com.FishOnBid.FishOnBid_Backend.ai.dto.AiPriceResponseDTO;
+import com.FishOnBid.FishOnBid_Backend.ai.rag.RagQueryService;
+import com.FishOnBid.FishOnBid_Backend.ai.rag.RagVectorStore;
 import com.FishOnBid.FishOnBid_Backend.ai.service.AiOrchestratorService;
 import com.FishOnBid.FishOnBid_Backend.ai.service.AiPricingService;
+import com.FishOnBid.FishOnBid_Backend.ai.service.RagService;
 import com.FishOnBid.FishOnBid_Backend.ai.vision.VisionAnalysisRequestDTO;
 import com.FishOnBid.FishOnBid_Backend.ai.vision.VisionAnalysisResponseDTO;
 import com.FishOnBid.FishOnBid_Backend.ai.vision.VisionAnalysisService;
@@ -12,6 +15,7 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.List;
 import java.util.Map;
 
 /**
@@ -28,6 +32,10 @@ public class AiController {
     private final AiPricingService pricingService;
     private final AiOrchestratorService orchestratorService;
     private final VisionAnalysisService visionAnalysisService;
+    private final RagQueryService ragQueryService;
+    private final RagService ragService;
+
+    private static final int MAX_BATCH_SIZE = 1000;
 
     /**
      * Get AI-assisted price suggestion for an auction.
@@ -44,6 +52,35 @@ public class AiController {
         return ResponseEntity.ok(response);
     }
 
+    /**
+     * Similarity-based price suggestions for many items at once (bulk listings,
+     * pricing backtests), answered by one batched vector-store query.
+     *
+     * POST /api/ai/price-suggestion/batch
+     *
+     * Request Body: [{ "fishName": "Pomfret", "location": "Kochi", "quantityKg": 20 }, ...]
+     * Response: { "count": n, "suggestions": [...] } in request order
+     */
+    @PostMapping("/price-suggestion/batch")
+    public ResponseEntity<Map<String, Object>> suggestPriceBatch(
+            @RequestBody List<AiPriceRequestDTO> requests
+    ) {
+        if (requests == null || requests.isEmpty() || requests.size() > MAX_BATCH_SIZE) {
+            return ResponseEntity.badRequest()
+                    .body(Map.of("error", "Batch must contain 1 to " + MAX_BATCH_SIZE + " items"));
+        }
+        log.info("Batch price suggestion requested for {} items", requests.size());
+
+        List<RagVectorStore.ContextQuery> queries = requests.stream()
+                .map(r -> new RagVectorStore.ContextQuery(r.fishName(), r.location(), 0))
+                .toList();
+        List<RagQueryService.PriceSuggestion> suggestions = ragQueryService.getSuggestedPrices(queries);
+        return ResponseEntity.ok(Map.of(
+                "count", suggestions.size(),
+                "suggestions", suggestions
+        ));
+    }
+
     /**
      * Get AI price suggestion with optional image analysis.
      * Combines Vision + RAG for comprehensive pricing.
@@ -129,7 +166,9 @@ public class AiController {
                 "ragEnabled", true,
                 "visionEnabled", visionStatus.get("enabled"),
                 "visionMode", visionStatus.get("mode"),
-                "genAiEnabled", false
+                "genAiEnabled", false,
+                "ragFallback", ragService.getFallbackStats(),
+                "priceCache", pricingService.getCacheStats()
         ));
     }
 }
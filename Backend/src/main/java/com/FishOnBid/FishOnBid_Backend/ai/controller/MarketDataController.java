@@ -1,6 +1,7 @@
 package com.FishOnBid.FishOnBid_Backend.ai.controller;
 
 import com.FishOnBid.FishOnBid_Backend.ai.service.ExternalFisheriesService;
+import com.FishOnBid.FishOnBid_Backend.ai.service.PriceRollupService;
 import com.FishOnBid.FishOnBid_Backend.entity.Auction;
 import com.FishOnBid.FishOnBid_Backend.repository.AuctionRepository;
 import lombok.RequiredArgsConstructor;
@@ -27,6 +28,7 @@ public class MarketDataController {
 
     private final ExternalFisheriesService externalFisheriesService;
     private final AuctionRepository auctionRepository;
+    private final PriceRollupService priceRollupService;
 
     /**
      * GET /api/admin/market/status
@@ -76,6 +78,7 @@ public class MarketDataController {
         status.put("lastSyncTimestamp", lastSync);
         status.put("fishTypes", fishTypes.stream().sorted().toList());
         status.put("locations", locations.stream().sorted().toList());
+        status.put("priceRollups", priceRollupService.getStats());
 
         log.info("Market status requested: {} govt records, {} fish types, {} locations",
                 govtRecords.size(), fishTypes.size(), locations.size());
@@ -0,0 +1,19 @@
+package com.FishOnBid.FishOnBid_Backend.ai.dto;
+
+import com.FishOnBid.FishOnBid_Backend.entity.Auction;
+
+import java.time.Instant;
+
+/**
+ * Narrow projection of a closed auction for RAG indexing.
+ * Selected directly by JPQL, so no entity (or its image LOBs) is ever hydrated.
+ */
+public record RagIndexRowDTO(
+    Long id,
+    String fishName,
+    String location,
+    double currentPrice,
+    Double quantityKg,
+    Instant endTime,
+    Auction.AuctionDataSource dataSource
+) {}
@@ -0,0 +1,193 @@
+package com.FishOnBid.FishOnBid_Backend.ai.rag;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.DoubleBuffer;
+import java.nio.FloatBuffer;
+import java.nio.LongBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Vector columns outside the Java heap, either direct buffers or memory-mapped
+ * scratch files, so the GC never sees per-document arrays however large the
+ * corpus grows.
+ *
+ * A scan copies one block of rows at a time into a small per-thread float[] and
+ * runs the normal kernel on it, so the SIMD and scalar kernels both apply.
+ * Each column is limited to 2 GB (e.g. ~100M five-dimensional vectors).
+ */
+final class BufferVectorColumns implements VectorColumns {
+
+    enum Mode { DIRECT, MAPPED }
+
+    private static final ThreadLocal<float[]> SCRATCH = ThreadLocal.withInitial(() -> new float[0]);
+
+    private final Mode mode;
+    private final Path directory;
+    private final List<Path> files = new ArrayList<>();
+
+    private int dimension;
+    private int slots;
+    private FloatBuffer vectors;
+    private DoubleBuffer prices;
+    private DoubleBuffer quantities;
+    private LongBuffer timestamps;
+
+    /**
+     * @param directory where MAPPED mode creates its scratch files (ignored for DIRECT)
+     */
+    BufferVectorColumns(Mode mode, Path directory) {
+        this.mode = mode;
+        this.directory = directory;
+    }
+
+    @Override
+    public void allocate(int dimension, int slots) {
+        List<Path> previous = List.copyOf(files);
+        files.clear();
+        this.dimension = dimension;
+        this.slots = slots;
+        vectors = buffer((long) slots * Math.max(dimension, 1) * Float.BYTES).asFloatBuffer();
+        prices = buffer((long) slots * Double.BYTES).asDoubleBuffer();
+        quantities = buffer((long) slots * Double.BYTES).asDoubleBuffer();
+        timestamps = buffer((long) slots * Long.BYTES).asLongBuffer();
+        deleteQuietly(previous);
+    }
+
+    @Override
+    public void grow(int newSlots) {
+        FloatBuffer oldVectors = vectors;
+        DoubleBuffer oldPrices = prices;
+        DoubleBuffer oldQuantities = quantities;
+        LongBuffer oldTimestamps = timestamps;
+        int oldSlots = slots;
+
+        allocate(dimension, newSlots);
+        vectors.put(0, oldVectors, 0, oldSlots * dimension);
+        prices.put(0, oldPrices, 0, oldSlots);
+        quantities.put(0, oldQuantities, 0, oldSlots);
+        timestamps.put(0, oldTimestamps, 0, oldSlots);
+    }
+
+    @Override
+    public void writeVector(int slot, float[] unitVector) {
+        vectors.put(slot * dimension, unitVector, 0, dimension);
+    }
+
+    @Override
+    public void readVector(int slot, double[] out) {
+        int base = slot * dimension;
+        for (int d = 0; d < dimension; d++) {
+            out[d] = vectors.get(base + d);
+        }
+    }
+
+    @Override
+    public void writeNumbers(int slot, double price, double quantity, long timestamp) {
+        prices.put(slot, price);
+        quantities.put(slot, quantity);
+        timestamps.put(slot, timestamp);
+    }
+
+    @Override
+    public double price(int slot) {
+        return prices.get(slot);
+    }
+
+    @Override
+    public double quantity(int slot) {
+        return quantities.get(slot);
+    }
+
+    @Override
+    public long timestamp(int slot) {
+        return timestamps.get(slot);
+    }
+
+    @Override
+    public void move(int from, int to) {
+        vectors.put(to * dimension, vectors, from * dimension, dimension);
+        prices.put(to, prices.get(from));
+        quantities.put(to, quantities.get(from));
+        timestamps.put(to, timestamps.get(from));
+    }
+
+    @Override
+    public void scores(DotProductKernel kernel, float[] query, int fromSlot, int toSlot, float[] out) {
+        float[] block = copyBlock(fromSlot, toSlot);
+        kernel.scores(query, block, dimension, 0, toSlot - fromSlot, out);
+    }
+
+    /**
+     * Copies the block once and scores every query against the copy
+     */
+    @Override
+    public void scores(DotProductKernel kernel, float[][] queries, int fromSlot, int toSlot, float[][] out) {
+        float[] block = copyBlock(fromSlot, toSlot);
+        for (int q = 0; q < queries.length; q++) {
+            kernel.scores(queries[q], block, dimension, 0, toSlot - fromSlot, out[q]);
+        }
+    }
+
+    private float[] copyBlock(int fromSlot, int toSlot) {
+        int length = (toSlot - fromSlot) * dimension;
+        float[] block = SCRATCH.get();
+        if (block.length < length) {
+            block = new float[length];
+            SCRATCH.set(block);
+        }
+        vectors.get(fromSlot * dimension, block, 0, length);
+        return block;
+    }
+
+    @Override
+    public long offHeapBytes() {
+        return (long) slots * (Math.max(dimension, 1) * Float.BYTES + 2 * Double.BYTES + Long.BYTES);
+    }
+
+    @Override
+    public String name() {
+        return mode.name();
+    }
+
+    private ByteBuffer buffer(long bytes) {
+        if (bytes > Integer.MAX_VALUE) {
+            throw new IllegalStateException("Vector column of " + bytes + " bytes exceeds the 2 GB buffer limit");
+        }
+        if (mode == Mode.DIRECT) {
+            return ByteBuffer.allocateDirect((int) bytes).order(ByteOrder.nativeOrder());
+        }
+        try {
+            Files.createDirectories(directory);
+            Path file = Files.createTempFile(directory, "vectors-", ".col");
+            file.toFile().deleteOnExit();
+            files.add(file);
+            // The mapping stays valid after the channel is closed
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+                return channel.map(FileChannel.MapMode.READ_WRITE, 0, bytes).order(ByteOrder.nativeOrder());
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to map vector column in " + directory, e);
+        }
+    }
+
+    /**
+     * Remove replaced scratch files; their old mappings are released by the GC
+     */
+    private static void deleteQuietly(List<Path> paths) {
+        for (Path path : paths) {
+            try {
+                Files.deleteIfExists(path);
+            } catch (IOException ignored) {
+                // Still mapped on some platforms; deleteOnExit covers it
+            }
+        }
+    }
+}
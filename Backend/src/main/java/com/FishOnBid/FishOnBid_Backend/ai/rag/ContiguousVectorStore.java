@@ -0,0 +1,624 @@
+package com.FishOnBid.FishOnBid_Backend.ai.rag;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Structure-of-arrays storage for RAG documents.
+ *
+ * All embeddings live in one contiguous float[] (fixed dimension, L2-normalized on
+ * insert) with parallel primitive arrays for price, quantity and timestamp. Each
+ * document gets a dense int slot; the string doc id maps to its slot and back.
+ *
+ * Writes append a new slot and tombstone the old one; compaction squeezes the
+ * tombstones out once they pass a fraction of the used slots. A similarity scan is
+ * therefore one linear pass over memory with no pointer chasing.
+ *
+ * Readers (scans) share a read lock; appends, tombstones and compaction take the
+ * write lock, since compaction moves slots.
+ *
+ * The numeric columns live in a VectorColumns: heap arrays by default, or direct /
+ * memory-mapped buffers (BufferVectorColumns) to keep them off the Java heap.
+ *
+ * With an Int8Quantizer, a scan first scores one-byte codes to pick K * rescoreFactor
+ * candidates, then rescores only those against the float32 vectors, which are
+ * therefore touched for a handful of rows per query instead of every row.
+ *
+ * A batch of queries shares one pass: each block of vectors is scored against every
+ * query while it is still in cache, and large batches split the slot range across
+ * the fork-join pool, merging the per-range heaps at the end.
+ */
+final class ContiguousVectorStore implements VectorIndex {
+
+    private static final int INITIAL_CAPACITY = 1024;
+    private static final double COMPACTION_THRESHOLD = 0.25;
+    private static final int SCAN_BLOCK = 512;
+    private static final int MIN_TRAINING_ROWS = 256;
+    private static final int MIN_CANDIDATES = 32;
+    // Queries scored per vector block; keeps the per-query score buffers in L1/L2
+    private static final int QUERY_TILE = 16;
+    // Slots per fork-join leaf; below queries * slots = PARALLEL_MIN_SCORES a fork costs more than it saves
+    private static final int PARALLEL_LEAF_SLOTS = 16384;
+    private static final long PARALLEL_MIN_SCORES = 1L << 20;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final DotProductKernel kernel;
+    private final VectorColumns columns;
+    private final Int8Quantizer quantizer; // null = exact scan only
+    private final int rescoreFactor;
+
+    private int dimension;
+    private int capacity;
+    private int used;        // slots handed out, including tombstones
+    private int tombstones;
+
+    private String[] fishNames;
+    private String[] locations;
+    private String[] docIds;
+    private boolean[] deleted;
+
+    private final Map<String, Integer> slotByDocId = new HashMap<>();
+
+    private long compactions;
+    private volatile double lastRecall = Double.NaN;
+
+    ContiguousVectorStore(DotProductKernel kernel) {
+        this(kernel, new HeapVectorColumns());
+    }
+
+    ContiguousVectorStore(DotProductKernel kernel, VectorColumns columns) {
+        this(kernel, columns, null, 0);
+    }
+
+    ContiguousVectorStore(DotProductKernel kernel, VectorColumns columns, Int8Quantizer quantizer, int rescoreFactor) {
+        this.kernel = kernel;
+        this.columns = columns;
+        this.quantizer = quantizer;
+        this.rescoreFactor = Math.max(1, rescoreFactor);
+        allocate(0, INITIAL_CAPACITY);
+    }
+
+    /**
+     * Insert or replace a document. Returns false if its embedding does not match
+     * the store dimension.
+     */
+    @Override
+    public boolean upsert(RagDocument doc) {
+        double[] embedding = doc.getEmbedding();
+        if (embedding == null || embedding.length == 0) {
+            return false;
+        }
+
+        lock.writeLock().lock();
+        try {
+            if (dimension == 0 && used == 0) {
+                allocate(embedding.length, capacity);
+            }
+            if (embedding.length != dimension) {
+                return false;
+            }
+
+            Integer previous = slotByDocId.get(doc.getId());
+            if (previous != null) {
+                tombstone(previous);
+            }
+            if (used == capacity) {
+                // Reclaim tombstones before paying for a larger array
+                if (tombstones > used * COMPACTION_THRESHOLD) {
+                    compactLocked();
+                } else {
+                    grow(capacity * 2);
+                }
+            }
+
+            int slot = used++;
+            float[] unit = toUnitVector(embedding);
+            columns.writeVector(slot, unit);
+            columns.writeNumbers(slot, doc.getAvgPrice(), doc.getQuantityKg(), doc.getTimestamp());
+            fishNames[slot] = doc.getFishName();
+            locations[slot] = doc.getLocation();
+            docIds[slot] = doc.getId();
+            deleted[slot] = false;
+            slotByDocId.put(doc.getId(), slot);
+
+            if (quantizer != null) {
+                quantizer.encode(slot, unit);
+                // Retrain each time the corpus doubles, so the cost stays amortized O(1)
+                int live = used - tombstones;
+                if (live >= MIN_TRAINING_ROWS && live >= 2 * quantizer.trainedOn()) {
+                    quantizer.train(columns, used, deleted);
+                }
+            }
+            return true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Tombstone a document by id
+     */
+    @Override
+    public boolean remove(String docId) {
+        lock.writeLock().lock();
+        try {
+            Integer slot = slotByDocId.get(docId);
+            if (slot == null) {
+                return false;
+            }
+            tombstone(slot);
+            return true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Compact if tombstones exceed the threshold; returns whether it ran
+     */
+    @Override
+    public boolean compactIfFragmented() {
+        lock.writeLock().lock();
+        try {
+            if (tombstones == 0 || tombstones <= used * COMPACTION_THRESHOLD) {
+                return false;
+            }
+            compactLocked();
+            return true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Score every live document against the query and keep the best K, then build
+     * result documents for the winners only.
+     */
+    @Override
+    public List<RagDocument> topK(double[] query, int k) {
+        lock.readLock().lock();
+        try {
+            int live = used - tombstones;
+            if (live == 0 || query.length != dimension) {
+                return Collections.emptyList();
+            }
+            TopKHeap heap = search(toUnitVector(query), Math.min(k, live), true);
+
+            int[] winners = new int[heap.size()];
+            float[] scores = new float[heap.size()];
+            int count = heap.drainDescending(winners, scores);
+
+            List<RagDocument> results = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                results.add(materialize(winners[i], scores[i]));
+            }
+            return results;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Exact top-K for every query in one blocked pass over the vectors. The int8
+     * first pass is skipped here: with the scan shared between queries there is no
+     * per-query pass left to shorten.
+     */
+    @Override
+    public List<List<RagDocument>> topKBatch(double[][] queries, int k) {
+        lock.readLock().lock();
+        try {
+            int live = used - tombstones;
+            List<List<RagDocument>> results = new ArrayList<>(queries.length);
+            if (live == 0) {
+                for (int q = 0; q < queries.length; q++) {
+                    results.add(Collections.emptyList());
+                }
+                return results;
+            }
+
+            // Queries of the wrong dimension get an empty result and stay out of the scan
+            float[][] unitQueries = new float[queries.length][];
+            int valid = 0;
+            for (int q = 0; q < queries.length; q++) {
+                if (queries[q] != null && queries[q].length == dimension) {
+                    unitQueries[q] = toUnitVector(queries[q]);
+                    valid++;
+                }
+            }
+            float[][] scanned = new float[valid][];
+            for (int q = 0, v = 0; q < queries.length; q++) {
+                if (unitQueries[q] != null) {
+                    scanned[v++] = unitQueries[q];
+                }
+            }
+
+            int limit = Math.min(k, live);
+            BatchScan scan = new BatchScan(scanned, limit, 0, used);
+            TopKHeap[] heaps = (long) valid * used >= PARALLEL_MIN_SCORES
+                    ? ForkJoinPool.commonPool().invoke(scan)
+                    : scan.compute();
+
+            int[] winners = new int[limit];
+            float[] scores = new float[limit];
+            for (int q = 0, v = 0; q < queries.length; q++) {
+                if (unitQueries[q] == null) {
+                    results.add(Collections.emptyList());
+                    continue;
+                }
+                int count = heaps[v++].drainDescending(winners, scores);
+                List<RagDocument> docs = new ArrayList<>(count);
+                for (int i = 0; i < count; i++) {
+                    docs.add(materialize(winners[i], scores[i]));
+                }
+                results.add(docs);
+            }
+            return results;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Best K slots for the query, through the quantized first pass when it is
+     * trained and the corpus is larger than the candidate set (caller holds the read
+     * lock)
+     */
+    private TopKHeap search(float[] unitQuery, int k, boolean allowQuantized) {
+        int candidates = Math.max(k * rescoreFactor, MIN_CANDIDATES);
+        TopKHeap heap = new TopKHeap(k);
+        if (!allowQuantized || quantizer == null || quantizer.trainedOn() == 0 || used - tombstones <= candidates) {
+            scan(unitQuery, heap);
+            return heap;
+        }
+
+        TopKHeap approximate = new TopKHeap(candidates);
+        quantizedScan(quantizer.prepare(unitQuery), approximate);
+        int[] slots = new int[approximate.size()];
+        float[] ignored = new float[approximate.size()];
+        int count = approximate.drainDescending(slots, ignored);
+
+        float[] exact = new float[1];
+        for (int i = 0; i < count; i++) {
+            columns.scores(kernel, unitQuery, slots[i], slots[i] + 1, exact);
+            heap.offer(slots[i], exact[0]);
+        }
+        return heap;
+    }
+
+    private void quantizedScan(Int8Quantizer.Query prepared, TopKHeap heap) {
+        int[] sums = new int[Int8Quantizer.BLOCK];
+        float[] blockScores = new float[Int8Quantizer.BLOCK];
+        for (int from = 0; from < used; from += Int8Quantizer.BLOCK) {
+            int to = Math.min(used, from + Int8Quantizer.BLOCK);
+            quantizer.scores(prepared, from, to, sums, blockScores);
+            for (int slot = from; slot < to; slot++) {
+                if (!deleted[slot]) {
+                    heap.offer(slot, blockScores[slot - from]);
+                }
+            }
+        }
+    }
+
+    /**
+     * Estimate recall@K of the quantized path against an exact scan, using perturbed
+     * copies of stored vectors as queries. NaN when quantization is off.
+     */
+    @Override
+    public double measureRecall(int k, int sampleQueries) {
+        if (quantizer == null) {
+            return Double.NaN;
+        }
+        lock.readLock().lock();
+        try {
+            int live = used - tombstones;
+            if (live == 0) {
+                return Double.NaN;
+            }
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            int limit = Math.min(k, live);
+            int[] approx = new int[limit];
+            int[] exact = new int[limit];
+            float[] scores = new float[limit];
+            double[] row = new double[dimension];
+            long hits = 0;
+            long expected = 0;
+
+            for (int s = 0; s < sampleQueries; s++) {
+                columns.readVector(randomLiveSlot(random), row);
+                for (int d = 0; d < dimension; d++) {
+                    row[d] += random.nextGaussian() * 0.05;
+                }
+                float[] q = toUnitVector(row);
+                int found = search(q, limit, true).drainDescending(approx, scores);
+                int truth = search(q, limit, false).drainDescending(exact, scores);
+                expected += truth;
+                for (int i = 0; i < truth; i++) {
+                    for (int j = 0; j < found; j++) {
+                        if (exact[i] == approx[j]) {
+                            hits++;
+                            break;
+                        }
+                    }
+                }
+            }
+            lastRecall = expected > 0 ? Math.round(hits * 10000.0 / expected) / 10000.0 : Double.NaN;
+            return lastRecall;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Uniform over live slots by rejection, used / live draws expected (caller holds
+     * the read lock and has checked there is a live slot)
+     */
+    private int randomLiveSlot(ThreadLocalRandom random) {
+        int slot;
+        do {
+            slot = random.nextInt(used);
+        } while (deleted[slot]);
+        return slot;
+    }
+
+    /**
+     * Linear pass over the contiguous vector array in cache-sized blocks: the kernel
+     * scores a whole block, then live slots are offered to the heap (caller holds the
+     * read lock)
+     */
+    private void scan(float[] unitQuery, TopKHeap heap) {
+        float[] blockScores = new float[Math.min(SCAN_BLOCK, used)];
+        for (int from = 0; from < used; from += SCAN_BLOCK) {
+            int to = Math.min(used, from + SCAN_BLOCK);
+            columns.scores(kernel, unitQuery, from, to, blockScores);
+            for (int slot = from; slot < to; slot++) {
+                if (!deleted[slot]) {
+                    heap.offer(slot, blockScores[slot - from]);
+                }
+            }
+        }
+    }
+
+    /**
+     * Blocked scan of slots [fromSlot, toSlot) for a batch of queries: vector block
+     * outer, query tile inner, one heap per query. Splits the range in halves down
+     * to PARALLEL_LEAF_SLOTS when running in the fork-join pool. Forked tasks run
+     * while the calling thread holds the read lock, so the columns cannot change
+     * underneath them.
+     */
+    private final class BatchScan extends RecursiveTask<TopKHeap[]> {
+        private final float[][] queries;
+        private final int k;
+        private final int fromSlot;
+        private final int toSlot;
+
+        BatchScan(float[][] queries, int k, int fromSlot, int toSlot) {
+            this.queries = queries;
+            this.k = k;
+            this.fromSlot = fromSlot;
+            this.toSlot = toSlot;
+        }
+
+        @Override
+        protected TopKHeap[] compute() {
+            if (inForkJoinPool() && toSlot - fromSlot > PARALLEL_LEAF_SLOTS) {
+                int mid = (fromSlot + toSlot) >>> 1;
+                BatchScan left = new BatchScan(queries, k, fromSlot, mid);
+                left.fork();
+                TopKHeap[] right = new BatchScan(queries, k, mid, toSlot).compute();
+                TopKHeap[] merged = left.join();
+                for (int q = 0; q < merged.length; q++) {
+                    merged[q].offerAll(right[q]);
+                }
+                return merged;
+            }
+            return scanRange();
+        }
+
+        private TopKHeap[] scanRange() {
+            TopKHeap[] heaps = new TopKHeap[queries.length];
+            for (int q = 0; q < heaps.length; q++) {
+                heaps[q] = new TopKHeap(k);
+            }
+            float[][][] tiles = new float[(queries.length + QUERY_TILE - 1) / QUERY_TILE][][];
+            for (int t = 0; t < tiles.length; t++) {
+                int first = t * QUERY_TILE;
+                tiles[t] = Arrays.copyOfRange(queries, first, Math.min(queries.length, first + QUERY_TILE));
+            }
+            float[][] tileScores = new float[Math.min(QUERY_TILE, queries.length)][Math.min(SCAN_BLOCK, toSlot - fromSlot)];
+
+            for (int from = fromSlot; from < toSlot; from += SCAN_BLOCK) {
+                int to = Math.min(toSlot, from + SCAN_BLOCK);
+                for (int t = 0; t < tiles.length; t++) {
+                    columns.scores(kernel, tiles[t], from, to, tileScores);
+                    for (int q = 0; q < tiles[t].length; q++) {
+                        TopKHeap heap = heaps[t * QUERY_TILE + q];
+                        float[] blockScores = tileScores[q];
+                        for (int slot = from; slot < to; slot++) {
+                            if (!deleted[slot]) {
+                                heap.offer(slot, blockScores[slot - from]);
+                            }
+                        }
+                    }
+                }
+            }
+            return heaps;
+        }
+    }
+
+    private RagDocument materialize(int slot, float score) {
+        double[] embedding = new double[dimension];
+        columns.readVector(slot, embedding);
+        return RagDocument.builder()
+                .id(docIds[slot])
+                .fishName(fishNames[slot])
+                .location(locations[slot])
+                .avgPrice(columns.price(slot))
+                .quantityKg(columns.quantity(slot))
+                .timestamp(columns.timestamp(slot))
+                .embedding(embedding)
+                .similarityScore(score)
+                .build();
+    }
+
+    @Override
+    public int forEachDocument(DocumentVisitor visitor) {
+        lock.readLock().lock();
+        try {
+            double[] embedding = new double[dimension];
+            int visited = 0;
+            for (int slot = 0; slot < used; slot++) {
+                if (!deleted[slot]) {
+                    columns.readVector(slot, embedding);
+                    visitor.visit(docIds[slot], fishNames[slot], locations[slot], columns.price(slot),
+                            columns.quantity(slot), columns.timestamp(slot), embedding);
+                    visited++;
+                }
+            }
+            return visited;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public void clear() {
+        lock.writeLock().lock();
+        try {
+            slotByDocId.clear();
+            used = 0;
+            tombstones = 0;
+            allocate(0, INITIAL_CAPACITY);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return used - tombstones;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public Map<String, Object> getStats() {
+        lock.readLock().lock();
+        try {
+            return Map.of(
+                    "kernel", kernel.name(),
+                    "storage", columns.name(),
+                    "offHeapBytes", columns.offHeapBytes(),
+                    "quantization", quantizer == null ? "NONE" : Map.of(
+                            "type", "INT8",
+                            "codeBytes", quantizer.bytes(),
+                            "trainedOn", quantizer.trainedOn(),
+                            "trainings", quantizer.trainings(),
+                            "rescoreFactor", rescoreFactor,
+                            "recallAtK", Double.isNaN(lastRecall) ? "not measured" : lastRecall
+                    ),
+                    "dimension", dimension,
+                    "capacity", capacity,
+                    "usedSlots", used,
+                    "tombstones", tombstones,
+                    "compactions", compactions,
+                    "vectorBytes", (long) capacity * dimension * Float.BYTES
+            );
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void tombstone(int slot) {
+        if (!deleted[slot]) {
+            deleted[slot] = true;
+            tombstones++;
+            slotByDocId.remove(docIds[slot]);
+            // Drop references so tombstoned strings can be collected before compaction
+            fishNames[slot] = null;
+            locations[slot] = null;
+        }
+    }
+
+    /**
+     * Slide live slots down over tombstones (caller holds the write lock)
+     */
+    private void compactLocked() {
+        int write = 0;
+        for (int read = 0; read < used; read++) {
+            if (deleted[read]) {
+                continue;
+            }
+            if (write != read) {
+                columns.move(read, write);
+                if (quantizer != null) {
+                    quantizer.move(read, write);
+                }
+                fishNames[write] = fishNames[read];
+                locations[write] = locations[read];
+                docIds[write] = docIds[read];
+                deleted[write] = false;
+                slotByDocId.put(docIds[write], write);
+            }
+            write++;
+        }
+        Arrays.fill(fishNames, write, used, null);
+        Arrays.fill(locations, write, used, null);
+        Arrays.fill(docIds, write, used, null);
+        Arrays.fill(deleted, write, used, false);
+        used = write;
+        tombstones = 0;
+        compactions++;
+        if (quantizer != null && used >= MIN_TRAINING_ROWS) {
+            quantizer.train(columns, used, deleted);
+        }
+    }
+
+    private static float[] toUnitVector(double[] vector) {
+        double sum = 0.0;
+        for (double value : vector) {
+            sum += value * value;
+        }
+        double norm = Math.sqrt(sum);
+        float[] unit = new float[vector.length];
+        for (int d = 0; d < vector.length; d++) {
+            unit[d] = norm == 0 ? 0f : (float) (vector[d] / norm);
+        }
+        return unit;
+    }
+
+    private void allocate(int dim, int slots) {
+        dimension = dim;
+        capacity = slots;
+        columns.allocate(dim, slots);
+        if (quantizer != null) {
+            quantizer.allocate(dim, slots);
+        }
+        fishNames = new String[slots];
+        locations = new String[slots];
+        docIds = new String[slots];
+        deleted = new boolean[slots];
+    }
+
+    private void grow(int slots) {
+        columns.grow(slots);
+        if (quantizer != null) {
+            quantizer.grow(slots);
+        }
+        fishNames = Arrays.copyOf(fishNames, slots);
+        locations = Arrays.copyOf(locations, slots);
+        docIds = Arrays.copyOf(docIds, slots);
+        deleted = Arrays.copyOf(deleted, slots);
+        capacity = slots;
+    }
+}
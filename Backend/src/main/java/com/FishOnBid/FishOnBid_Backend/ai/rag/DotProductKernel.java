@@ -0,0 +1,19 @@
+package com.FishOnBid.FishOnBid_Backend.ai.rag;
+
+/**
+ * Batched dot-product kernel over row-major, pre-normalized vectors.
+ *
+ * Since stored vectors and the query are unit length, cosine similarity is just the
+ * dot product; norms are never recomputed during a scan. Implementations are picked
+ * once at startup by DotProductKernels.select.
+ */
+interface DotProductKernel {
+
+    /**
+     * Score slots [fromSlot, toSlot) of a row-major vector array against the query,
+     * writing score i into out[i - fromSlot]
+     */
+    void scores(float[] query, float[] vectors, int dim, int fromSlot, int toSlot, float[] out);
+
+    String name();
+}
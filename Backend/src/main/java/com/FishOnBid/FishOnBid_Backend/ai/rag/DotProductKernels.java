@@ -0,0 +1,73 @@
+package com.FishOnBid.FishOnBid_Backend.ai.rag;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.Random;
+
+/**
+ * Startup selection between the SIMD and scalar dot-product kernels.
+ */
+@Slf4j
+final class DotProductKernels {
+
+    private static final String SIMD_KERNEL = "com.FishOnBid.FishOnBid_Backend.ai.rag.SimdDotProductKernel";
+
+    private DotProductKernels() {
+    }
+
+    /**
+     * The SIMD kernel when it was built (mvn -Psimd), jdk.incubator.vector is
+     * resolved in the boot layer (JVM started with --add-modules jdk.incubator.vector)
+     * and it agrees with the scalar kernel on a self-check; otherwise the scalar kernel.
+     */
+    static DotProductKernel select(boolean simdEnabled) {
+        DotProductKernel scalar = new ScalarDotProductKernel();
+        if (!simdEnabled) {
+            return scalar;
+        }
+        if (ModuleLayer.boot().findModule("jdk.incubator.vector").isEmpty()) {
+            log.info("jdk.incubator.vector not present (start with --add-modules jdk.incubator.vector), using scalar kernel");
+            return scalar;
+        }
+        try {
+            // Loaded reflectively so the scalar path never links against the incubator module
+            DotProductKernel simd = (DotProductKernel) Class.forName(SIMD_KERNEL)
+                    .getDeclaredConstructor()
+                    .newInstance();
+            return agrees(simd, scalar) ? simd : scalar;
+        } catch (ClassNotFoundException e) {
+            log.info("SIMD kernel not in this build (build with -Psimd), using scalar kernel");
+            return scalar;
+        } catch (ReflectiveOperationException | LinkageError e) {
+            log.warn("SIMD kernel unavailable, using scalar: {}", e.toString());
+            return scalar;
+        }
+    }
+
+    private static boolean agrees(DotProductKernel candidate, DotProductKernel reference) {
+        Random random = new Random(42);
+        for (int dim : new int[]{3, 5, 8, 16, 37, 128}) {
+            int slots = 67;
+            float[] query = new float[dim];
+            float[] vectors = new float[slots * dim];
+            for (int d = 0; d < dim; d++) {
+                query[d] = random.nextFloat() - 0.5f;
+            }
+            for (int i = 0; i < vectors.length; i++) {
+                vectors[i] = random.nextFloat() - 0.5f;
+            }
+            float[] expected = new float[slots];
+            float[] actual = new float[slots];
+            reference.scores(query, vectors, dim, 0, slots, expected);
+            candidate.scores(query, vectors, dim, 0, slots, actual);
+            for (int i = 0; i < slots; i++) {
+                if (Math.abs(expected[i] - actual[i]) > 1e-3f) {
+                    log.warn("{} kernel disagrees with {} at dim={}, using {}",
+                            candidate.name(), reference.name(), dim, reference.name());
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+}
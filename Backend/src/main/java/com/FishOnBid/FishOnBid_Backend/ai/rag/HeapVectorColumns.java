@@ -0,0 +1,90 @@
+package com.FishOnBid.FishOnBid_Backend.ai.rag;
+
+import java.util.Arrays;
+
+/**
+ * Vector columns as primitive heap arrays; the kernel scans the float[] in place.
+ */
+final class HeapVectorColumns implements VectorColumns {
+
+    private int dimension;
+    private float[] vectors = new float[0];
+    private double[] prices = new double[0];
+    private double[] quantities = new double[0];
+    private long[] timestamps = new long[0];
+
+    @Override
+    public void allocate(int dimension, int slots) {
+        this.dimension = dimension;
+        vectors = new float[slots * Math.max(dimension, 1)];
+        prices = new double[slots];
+        quantities = new double[slots];
+        timestamps = new long[slots];
+    }
+
+    @Override
+    public void grow(int slots) {
+        vectors = Arrays.copyOf(vectors, slots * dimension);
+        prices = Arrays.copyOf(prices, slots);
+        quantities = Arrays.copyOf(quantities, slots);
+        timestamps = Arrays.copyOf(timestamps, slots);
+    }
+
+    @Override
+    public void writeVector(int slot, float[] unitVector) {
+        System.arraycopy(unitVector, 0, vectors, slot * dimension, dimension);
+    }
+
+    @Override
+    public void readVector(int slot, double[] out) {
+        int base = slot * dimension;
+        for (int d = 0; d < dimension; d++) {
+            out[d] = vectors[base + d];
+        }
+    }
+
+    @Override
+    public void writeNumbers(int slot, double price, double quantity, long timestamp) {
+        prices[slot] = price;
+        quantities[slot] = quantity;
+        timestamps[slot] = timestamp;
+    }
+
+    @Override
+    public double price(int slot) {
+        return prices[slot];
+    }
+
+    @Override
+    public double quantity(int slot) {
+        return quantities[slot];
+    }
+
+    @Override
+    public long timestamp(int slot) {
+        return timestamps[slot];
+    }
+
+    @Override
+    public void move(int from, int to) {
+        System.arraycopy(vectors, from * dimension, vectors, to * dimension, dimension);
+        prices[to] = prices[from];
+        quantities[to] = quantities[from];
+        timestamps[to] = timestamps[from];
+    }
+
+    @Override
+    public void scores(DotProductKernel kernel, float[] query, int fromSlot, int toSlot, float[] out) {
+        kernel.scores(query, vectors, dimension, fromSlot, toSlot, out);
+    }
+
+    @Override
+    public long offHeapBytes() {
+        return 0;
+    }
+
+    @Override
+    public String name() {
+        return "HEAP";
+    }
+}
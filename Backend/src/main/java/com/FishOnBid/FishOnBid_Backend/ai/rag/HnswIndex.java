@@ -0,0 +1,831 @@
+package com.FishOnBid.FishOnBid_Backend.ai.rag;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-process HNSW (Hierarchical Navigable Small World) approximate nearest-neighbour
+ * index over unit-length float32 vectors.
+ *
+ * - Inserts run concurrently: each node's per-level neighbour list is a copy-on-write
+ *   int[] replaced under that node's monitor, so searches read links lock-free.
+ * - Deletes are tombstones: deleted nodes still route searches but never appear in
+ *   results; the graph is rebuilt from live nodes once tombstones pass 25%.
+ * - Tunables: M (links per node, 2M on layer 0), efConstruction, efSearch.
+ *
+ * A structure read/write lock is held shared by inserts and searches and exclusively
+ * only to grow the node array, clear, or start and swap in a compaction. The compacted
+ * graph is built off to the side while searches and writes carry on; document ids
+ * written meanwhile are journaled and replayed into it at the swap.
+ *
+ * Recall@K and latency against the exact scan: HnswRecallBenchmark.
+ */
+final class HnswIndex implements VectorIndex {
+
+    private static final int INITIAL_CAPACITY = 1024;
+    private static final int MAX_LEVEL = 16;
+    private static final double REBUILD_THRESHOLD = 0.25;
+
+    private final int m;
+    private final int maxConnections0;
+    private final int efConstruction;
+    private final int efSearch;
+    private final double levelMultiplier;
+
+    private final ReentrantReadWriteLock structureLock = new ReentrantReadWriteLock();
+    private final Object entryLock = new Object();
+    private final Object compactionLock = new Object();
+
+    // Per-thread visited set, reused across searches and indexes
+    private static final ThreadLocal<VisitedSet> VISITED = ThreadLocal.withInitial(VisitedSet::new);
+
+    private Map<String, Integer> nodeByDocId = new ConcurrentHashMap<>(); // swapped by compaction
+    private final AtomicInteger nextNode = new AtomicInteger();
+    private final AtomicInteger liveCount = new AtomicInteger();
+    private final AtomicInteger tombstones = new AtomicInteger();
+
+    private Node[] nodes = new Node[INITIAL_CAPACITY]; // guarded by structureLock
+    private volatile int dimension;
+    private volatile Entry entry; // top-level node and its level, published together
+    private volatile int generation;
+    private Queue<String> journal; // doc ids written during a compaction, guarded by structureLock
+
+    private volatile long rebuilds;
+    private volatile double lastRecall = Double.NaN;
+
+    HnswIndex(int m, int efConstruction, int efSearch) {
+        this.m = Math.max(2, m);
+        this.maxConnections0 = this.m * 2;
+        this.efConstruction = Math.max(this.m, efConstruction);
+        this.efSearch = Math.max(1, efSearch);
+        this.levelMultiplier = 1.0 / Math.log(this.m);
+    }
+
+    @Override
+    public boolean upsert(RagDocument doc) {
+        double[] embedding = doc.getEmbedding();
+        if (embedding == null || embedding.length == 0) {
+            return false;
+        }
+        float[] vector = toUnitVector(embedding);
+        RagDocument meta = RagDocument.builder()
+                .id(doc.getId())
+                .fishName(doc.getFishName())
+                .location(doc.getLocation())
+                .avgPrice(doc.getAvgPrice())
+                .quantityKg(doc.getQuantityKg())
+                .timestamp(doc.getTimestamp())
+                .build();
+
+        structureLock.readLock().lock();
+        try {
+            if (!insert(vector, meta)) {
+                return false;
+            }
+            journal(doc.getId());
+            return true;
+        } finally {
+            structureLock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public boolean remove(String docId) {
+        structureLock.readLock().lock();
+        try {
+            Integer id = nodeByDocId.remove(docId);
+            if (id == null) {
+                return false;
+            }
+            tombstone(id);
+            journal(docId);
+            return true;
+        } finally {
+            structureLock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public List<RagDocument> topK(double[] query, int k) {
+        structureLock.readLock().lock();
+        try {
+            Entry top = entry;
+            if (top == null || liveCount.get() == 0 || query.length != dimension) {
+                return Collections.emptyList();
+            }
+            float[] q = toUnitVector(query);
+
+            int[] winners = new int[k];
+            float[] scores = new float[k];
+            int count = search(q, top, k, winners, scores);
+
+            List<RagDocument> results = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                results.add(materialize(nodes[winners[i]], scores[i]));
+            }
+            return results;
+        } finally {
+            structureLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Rebuild the graph from live nodes once tombstones pass the threshold.
+     * The new graph is built without holding the structure lock; the write lock is
+     * taken only to start the journal and to replay it and swap the graphs in.
+     */
+    @Override
+    public boolean compactIfFragmented() {
+        synchronized (compactionLock) {
+            int gen;
+            structureLock.writeLock().lock();
+            try {
+                int used = usedNodes();
+                if (tombstones.get() == 0 || tombstones.get() <= used * REBUILD_THRESHOLD) {
+                    return false;
+                }
+                gen = generation;
+                journal = new ConcurrentLinkedQueue<>();
+            } finally {
+                structureLock.writeLock().unlock();
+            }
+
+            HnswIndex fresh = new HnswIndex(m, efConstruction, efSearch);
+            try {
+                for (Node node : liveNodes()) {
+                    fresh.add(node.vector, node.meta);
+                }
+            } catch (RuntimeException e) {
+                stopJournal();
+                throw e;
+            }
+
+            structureLock.writeLock().lock();
+            try {
+                Queue<String> written = journal;
+                journal = null;
+                if (gen != generation) {
+                    return false; // cleared meanwhile
+                }
+                // Bring the rebuilt graph up to date with writes made during the build
+                Set<String> docIds = new LinkedHashSet<>(written);
+                for (String docId : docIds) {
+                    fresh.remove(docId);
+                    Integer id = nodeByDocId.get(docId);
+                    if (id != null) {
+                        fresh.add(nodes[id].vector, nodes[id].meta);
+                    }
+                }
+                nodes = fresh.nodes;
+                nodeByDocId = fresh.nodeByDocId;
+                nextNode.set(fresh.nextNode.get());
+                liveCount.set(fresh.liveCount.get());
+                tombstones.set(fresh.tombstones.get());
+                entry = fresh.entry;
+                // Ids reserved against the old array are void (see allocateNode)
+                generation++;
+                rebuilds++;
+                return true;
+            } finally {
+                structureLock.writeLock().unlock();
+            }
+        }
+    }
+
+    private List<Node> liveNodes() {
+        structureLock.readLock().lock();
+        try {
+            int used = usedNodes();
+            List<Node> live = new ArrayList<>(liveCount.get());
+            for (int i = 0; i < used; i++) {
+                Node node = nodes[i];
+                if (node != null && !node.deleted) {
+                    live.add(node);
+                }
+            }
+            return live;
+        } finally {
+            structureLock.readLock().unlock();
+        }
+    }
+
+    private void stopJournal() {
+        structureLock.writeLock().lock();
+        try {
+            journal = null;
+        } finally {
+            structureLock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public int forEachDocument(DocumentVisitor visitor) {
+        structureLock.readLock().lock();
+        try {
+            int used = usedNodes();
+            double[] embedding = new double[0];
+            int visited = 0;
+            for (int i = 0; i < used; i++) {
+                Node node = nodes[i];
+                if (node == null || node.deleted) {
+                    continue;
+                }
+                if (embedding.length != node.vector.length) {
+                    embedding = new double[node.vector.length];
+                }
+                for (int d = 0; d < embedding.length; d++) {
+                    embedding[d] = node.vector[d];
+                }
+                RagDocument meta = node.meta;
+                visitor.visit(meta.getId(), meta.getFishName(), meta.getLocation(), meta.getAvgPrice(),
+                        meta.getQuantityKg(), meta.getTimestamp(), embedding);
+                visited++;
+            }
+            return visited;
+        } finally {
+            structureLock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public void clear() {
+        structureLock.writeLock().lock();
+        try {
+            reset();
+        } finally {
+            structureLock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public int size() {
+        return liveCount.get();
+    }
+
+    @Override
+    public Map<String, Object> getStats() {
+        Entry top = entry;
+        return Map.of(
+                "index", "HNSW",
+                "m", m,
+                "efConstruction", efConstruction,
+                "efSearch", efSearch,
+                "nodes", nextNode.get(),
+                "liveNodes", liveCount.get(),
+                "tombstones", tombstones.get(),
+                "maxLevel", top != null ? top.level() : -1,
+                "rebuilds", rebuilds,
+                "recallAtK", Double.isNaN(lastRecall) ? "not measured" : lastRecall
+        );
+    }
+
+    /**
+     * Estimate recall@K against an exact scan, using perturbed copies of stored
+     * vectors as queries. The result is kept for getStats.
+     */
+    @Override
+    public double measureRecall(int k, int sampleQueries) {
+        structureLock.readLock().lock();
+        try {
+            int used = usedNodes();
+            Entry top = entry;
+            if (top == null || liveCount.get() == 0) {
+                return Double.NaN;
+            }
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            int[] approx = new int[k];
+            float[] approxScores = new float[k];
+            int[] exact = new int[k];
+            float[] exactScores = new float[k];
+            long hits = 0;
+            long expected = 0;
+
+            for (int s = 0; s < sampleQueries; s++) {
+                Node sample = randomLiveNode(random, used);
+                double[] noisy = new double[dimension];
+                for (int d = 0; d < dimension; d++) {
+                    noisy[d] = sample.vector[d] + random.nextGaussian() * 0.05;
+                }
+                float[] q = toUnitVector(noisy);
+
+                int found = search(q, top, k, approx, approxScores);
+                int truth = exactSearch(q, used, k, exact, exactScores);
+                expected += truth;
+                for (int i = 0; i < truth; i++) {
+                    for (int j = 0; j < found; j++) {
+                        if (exact[i] == approx[j]) {
+                            hits++;
+                            break;
+                        }
+                    }
+                }
+            }
+            lastRecall = expected > 0 ? Math.round(hits * 10000.0 / expected) / 10000.0 : Double.NaN;
+            return lastRecall;
+        } finally {
+            structureLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Uniform over live nodes by rejection (caller holds the structure read lock and
+     * has checked there is a live node)
+     */
+    private Node randomLiveNode(ThreadLocalRandom random, int used) {
+        Node node;
+        do {
+            node = nodes[random.nextInt(used)];
+        } while (node == null || node.deleted);
+        return node;
+    }
+
+    // ===== Graph construction =====
+
+    /**
+     * Insert an already normalized vector (used to fill a compacted graph)
+     */
+    private void add(float[] vector, RagDocument meta) {
+        structureLock.readLock().lock();
+        try {
+            insert(vector, meta);
+        } finally {
+            structureLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Link a new node and point its document id at it, tombstoning the node it
+     * replaces (caller holds the read lock)
+     */
+    private boolean insert(float[] vector, RagDocument meta) {
+        if (dimension == 0) {
+            synchronized (entryLock) {
+                if (dimension == 0) {
+                    dimension = vector.length;
+                }
+            }
+        }
+        if (vector.length != dimension) {
+            return false;
+        }
+
+        int id = allocateNode();
+        Node node = new Node(vector, randomLevel(), meta);
+        nodes[id] = node;
+        link(id, node);
+
+        liveCount.incrementAndGet();
+        Integer previous = nodeByDocId.put(meta.getId(), id);
+        if (previous != null) {
+            tombstone(previous);
+        }
+        return true;
+    }
+
+    /**
+     * Record a write for the compaction in progress, if any (caller holds the read lock)
+     */
+    private void journal(String docId) {
+        Queue<String> written = journal;
+        if (written != null) {
+            written.add(docId);
+        }
+    }
+
+    /**
+     * Reserve a node id, growing the node array if needed (caller holds the read lock)
+     */
+    private int allocateNode() {
+        while (true) {
+            int gen = generation;
+            int id = nextNode.getAndIncrement();
+            if (id < nodes.length) {
+                return id;
+            }
+            structureLock.readLock().unlock();
+            structureLock.writeLock().lock();
+            try {
+                if (gen == generation && id >= nodes.length) {
+                    nodes = Arrays.copyOf(nodes, Math.max(nodes.length * 2, id + 1));
+                }
+            } finally {
+                structureLock.readLock().lock();
+                structureLock.writeLock().unlock();
+            }
+            // A clear/rebuild in between invalidates the id; take a fresh one
+            if (gen == generation) {
+                return id;
+            }
+        }
+    }
+
+    private void link(int id, Node node) {
+        Entry start;
+        synchronized (entryLock) {
+            if (entry == null) {
+                entry = new Entry(id, node.level);
+                return;
+            }
+            start = entry;
+        }
+        int top = start.level();
+
+        float[] q = node.vector;
+        int current = start.node();
+        for (int level = top; level > node.level; level--) {
+            current = greedyClosest(q, current, level);
+        }
+
+        int[] candidates = new int[efConstruction];
+        float[] candidateScores = new float[efConstruction];
+        for (int level = Math.min(node.level, top); level >= 0; level--) {
+            TopKHeap found = new TopKHeap(efConstruction);
+            searchLayer(q, current, efConstruction, level, found, false);
+            int count = found.drainDescending(candidates, candidateScores);
+            if (count == 0) {
+                continue;
+            }
+
+            int maxConnections = level == 0 ? maxConnections0 : m;
+            int[] neighbours = selectNeighbours(candidates, candidateScores, count, m, id);
+            // Merge: a concurrent insert may already have linked back to this node
+            addLinks(id, neighbours, level, maxConnections);
+            for (int neighbour : neighbours) {
+                addLinks(neighbour, new int[]{id}, level, maxConnections);
+            }
+            current = candidates[0];
+        }
+
+        if (node.level > top) {
+            synchronized (entryLock) {
+                if (node.level > entry.level()) {
+                    entry = new Entry(id, node.level);
+                }
+            }
+        }
+    }
+
+    /**
+     * Merge links into a node's list at one level, pruning with the selection
+     * heuristic when it goes over capacity
+     */
+    private void addLinks(int from, int[] added, int level, int maxConnections) {
+        Node node = nodes[from];
+        synchronized (node) {
+            int[] current = node.links.get(level);
+            int[] merged = Arrays.copyOf(current, current.length + added.length);
+            int size = current.length;
+            for (int candidate : added) {
+                boolean present = candidate == from;
+                for (int i = 0; i < size && !present; i++) {
+                    present = merged[i] == candidate;
+                }
+                if (!present) {
+                    merged[size++] = candidate;
+                }
+            }
+            if (size <= maxConnections) {
+                node.links.set(level, size == merged.length ? merged : Arrays.copyOf(merged, size));
+                return;
+            }
+
+            TopKHeap ranked = new TopKHeap(size);
+            for (int i = 0; i < size; i++) {
+                ranked.offer(merged[i], dot(node.vector, nodes[merged[i]].vector));
+            }
+            int[] ids = new int[size];
+            float[] scores = new float[size];
+            int count = ranked.drainDescending(ids, scores);
+            node.links.set(level, selectNeighbours(ids, scores, count, maxConnections, from));
+        }
+    }
+
+    /**
+     * HNSW neighbour-selection heuristic: keep a candidate only if it is closer to the
+     * base than to any already selected neighbour, so links spread across clusters;
+     * then top up with the closest discarded candidates. Input is sorted best-first.
+     */
+    private int[] selectNeighbours(int[] ids, float[] scores, int count, int max, int self) {
+        int[] selected = new int[Math.min(max, count)];
+        boolean[] taken = new boolean[count];
+        int size = 0;
+
+        for (int i = 0; i < count && size < selected.length; i++) {
+            int candidate = ids[i];
+            if (candidate == self || nodes[candidate].deleted) {
+                taken[i] = true;
+                continue;
+            }
+            boolean diverse = true;
+            for (int j = 0; j < size; j++) {
+                if (dot(nodes[candidate].vector, nodes[selected[j]].vector) > scores[i]) {
+                    diverse = false;
+                    break;
+                }
+            }
+            if (diverse) {
+                selected[size++] = candidate;
+                taken[i] = true;
+            }
+        }
+        for (int i = 0; i < count && size < selected.length; i++) {
+            if (!taken[i]) {
+                selected[size++] = ids[i];
+            }
+        }
+        return size == selected.length ? selected : Arrays.copyOf(selected, size);
+    }
+
+    // ===== Search =====
+
+    private int search(float[] q, Entry start, int k, int[] outIds, float[] outScores) {
+        int current = start.node();
+        for (int level = start.level(); level > 0; level--) {
+            current = greedyClosest(q, current, level);
+        }
+        int ef = Math.max(efSearch, k);
+        TopKHeap results = new TopKHeap(ef);
+        searchLayer(q, current, ef, 0, results, true);
+
+        int[] ids = new int[results.size()];
+        float[] scores = new float[results.size()];
+        int count = results.drainDescending(ids, scores);
+        int n = Math.min(k, count);
+        System.arraycopy(ids, 0, outIds, 0, n);
+        System.arraycopy(scores, 0, outScores, 0, n);
+        return n;
+    }
+
+    private int greedyClosest(float[] q, int entry, int level) {
+        TopKHeap best = new TopKHeap(1);
+        searchLayer(q, entry, 1, level, best, false);
+        int[] id = new int[1];
+        float[] score = new float[1];
+        return best.drainDescending(id, score) > 0 ? id[0] : entry;
+    }
+
+    /**
+     * Beam search on one layer. Tombstoned nodes are traversed but only added to
+     * results when liveOnly is false.
+     */
+    private void searchLayer(float[] q, int entry, int ef, int level, TopKHeap results, boolean liveOnly) {
+        VisitedSet visited = VISITED.get().begin(nodes.length);
+        CandidateQueue candidates = new CandidateQueue(ef * 2);
+
+        Node entryNode = nodes[entry];
+        float entryScore = dot(q, entryNode.vector);
+        visited.add(entry);
+        candidates.push(entry, entryScore);
+        if (!liveOnly || !entryNode.deleted) {
+            results.offer(entry, entryScore);
+        }
+
+        while (!candidates.isEmpty()) {
+            if (results.size() >= ef && candidates.peekScore() < results.threshold()) {
+                break;
+            }
+            int current = candidates.pop();
+            int[] neighbours = nodes[current].links.get(level);
+            for (int neighbour : neighbours) {
+                if (!visited.add(neighbour)) {
+                    continue;
+                }
+                Node node = nodes[neighbour];
+                float score = dot(q, node.vector);
+                if (results.size() < ef || score > results.threshold()) {
+                    candidates.push(neighbour, score);
+                    if (!liveOnly || !node.deleted) {
+                        results.offer(neighbour, score);
+                    }
+                }
+            }
+        }
+    }
+
+    private int exactSearch(float[] q, int used, int k, int[] outIds, float[] outScores) {
+        // used is bounded by nodes.length (see usedNodes)
+        TopKHeap heap = new TopKHeap(k);
+        for (int i = 0; i < used; i++) {
+            Node node = nodes[i];
+            if (node != null && !node.deleted) {
+                heap.offer(i, dot(q, node.vector));
+            }
+        }
+        return heap.drainDescending(outIds, outScores);
+    }
+
+    // ===== Helpers =====
+
+    private void tombstone(int id) {
+        Node node = nodes[id];
+        if (node != null && !node.deleted) {
+            node.deleted = true;
+            liveCount.decrementAndGet();
+            tombstones.incrementAndGet();
+        }
+    }
+
+    /**
+     * Ids handed out so far, bounded by the array (an id may be reserved by an insert
+     * still waiting to grow the array)
+     */
+    private int usedNodes() {
+        return Math.min(nextNode.get(), nodes.length);
+    }
+
+    private void reset() {
+        nodes = new Node[INITIAL_CAPACITY];
+        nodeByDocId.clear();
+        nextNode.set(0);
+        liveCount.set(0);
+        tombstones.set(0);
+        entry = null;
+        dimension = 0;
+        generation++;
+    }
+
+    private int randomLevel() {
+        double u = 1.0 - ThreadLocalRandom.current().nextDouble(); // (0, 1]
+        return Math.min(MAX_LEVEL, (int) (-Math.log(u) * levelMultiplier));
+    }
+
+    private static RagDocument materialize(Node node, float score) {
+        double[] embedding = new double[node.vector.length];
+        for (int d = 0; d < embedding.length; d++) {
+            embedding[d] = node.vector[d];
+        }
+        return RagDocument.builder()
+                .id(node.meta.getId())
+                .fishName(node.meta.getFishName())
+                .location(node.meta.getLocation())
+                .avgPrice(node.meta.getAvgPrice())
+                .quantityKg(node.meta.getQuantityKg())
+                .timestamp(node.meta.getTimestamp())
+                .embedding(embedding)
+                .similarityScore(score)
+                .build();
+    }
+
+    private static float dot(float[] a, float[] b) {
+        float sum = 0f;
+        for (int i = 0; i < a.length; i++) {
+            sum += a[i] * b[i];
+        }
+        return sum;
+    }
+
+    private static float[] toUnitVector(double[] vector) {
+        double sum = 0.0;
+        for (double value : vector) {
+            sum += value * value;
+        }
+        double norm = Math.sqrt(sum);
+        float[] unit = new float[vector.length];
+        for (int d = 0; d < vector.length; d++) {
+            unit[d] = norm == 0 ? 0f : (float) (vector[d] / norm);
+        }
+        return unit;
+    }
+
+    private record Entry(int node, int level) {}
+
+    private static final class Node {
+        private static final int[] NO_LINKS = new int[0];
+
+        final float[] vector;
+        final int level;
+        final RagDocument meta;
+        final AtomicReferenceArray<int[]> links; // per level, copy-on-write
+        volatile boolean deleted;
+
+        Node(float[] vector, int level, RagDocument meta) {
+            this.vector = vector;
+            this.level = level;
+            this.meta = meta;
+            this.links = new AtomicReferenceArray<>(level + 1);
+            for (int l = 0; l <= level; l++) {
+                links.set(l, NO_LINKS);
+            }
+        }
+    }
+
+    /**
+     * Unbounded max-heap of (id, score) used as the search frontier
+     */
+    private static final class CandidateQueue {
+        private int[] ids;
+        private float[] scores;
+        private int size;
+
+        CandidateQueue(int capacity) {
+            ids = new int[Math.max(16, capacity)];
+            scores = new float[ids.length];
+        }
+
+        boolean isEmpty() {
+            return size == 0;
+        }
+
+        float peekScore() {
+            return scores[0];
+        }
+
+        void push(int id, float score) {
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size * 2);
+                scores = Arrays.copyOf(scores, size * 2);
+            }
+            int i = size++;
+            while (i > 0) {
+                int parent = (i - 1) >>> 1;
+                if (scores[parent] >= score) {
+                    break;
+                }
+                ids[i] = ids[parent];
+                scores[i] = scores[parent];
+                i = parent;
+            }
+            ids[i] = id;
+            scores[i] = score;
+        }
+
+        int pop() {
+            int top = ids[0];
+            size--;
+            if (size > 0) {
+                int id = ids[size];
+                float score = scores[size];
+                int i = 0;
+                int half = size >>> 1;
+                while (i < half) {
+                    int child = 2 * i + 1;
+                    if (child + 1 < size && scores[child + 1] > scores[child]) {
+                        child++;
+                    }
+                    if (score >= scores[child]) {
+                        break;
+                    }
+                    ids[i] = ids[child];
+                    scores[i] = scores[child];
+                    i = child;
+                }
+                ids[i] = id;
+                scores[i] = score;
+            }
+            return top;
+        }
+    }
+
+    /**
+     * Bitset of visited node ids, one bit per node slot, several times cheaper per
+     * probe than hashing. Each thread keeps one and reuses it: a search clears only
+     * the words the previous search touched, so it costs O(visited) rather than
+     * O(nodes). searchLayer never nests, so one set per thread is enough.
+     */
+    private static final class VisitedSet {
+        private long[] bits = new long[0];
+        private int[] touched = new int[64];
+        private int touchedCount;
+
+        VisitedSet begin(int nodes) {
+            for (int i = 0; i < touchedCount; i++) {
+                bits[touched[i]] = 0L;
+            }
+            touchedCount = 0;
+            int words = (nodes >>> 6) + 1;
+            if (bits.length < words) {
+                bits = new long[Math.max(words, bits.length * 2)];
+            }
+            return this;
+        }
+
+        boolean add(int id) {
+            int word = id >>> 6;
+            long mask = 1L << id;
+            long current = bits[word];
+            if ((current & mask) != 0) {
+                return false;
+            }
+            if (current == 0L) {
+                if (touchedCount == touched.length) {
+                    touched = Arrays.copyOf(touched, touchedCount * 2);
+                }
+                touched[touchedCount++] = word;
+            }
+            bits[word] = current | mask;
+            return true;
+        }
+    }
+}
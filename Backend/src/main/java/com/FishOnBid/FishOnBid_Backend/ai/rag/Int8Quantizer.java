@@ -0,0 +1,202 @@
+package com.FishOnBid.FishOnBid_Backend.ai.rag;
+
+import java.util.Arrays;
+
+/**
+ * Scalar int8 quantization of the stored unit vectors, one byte per dimension.
+ *
+ * Each dimension d maps [min_d, max_d] (learned from the corpus) onto codes 0..255,
+ * so value ~ min_d + scale_d * code. A dot product against the query then splits
+ * into a per-query constant plus a sum over codes:
+ *   q.v ~ sum(q_d * min_d) + sum((q_d * scale_d) * code_d)
+ * which is what the first pass computes. The folded query weights are themselves
+ * rounded to ints so the inner loop is a pure integer multiply-add. Values outside
+ * the trained range are clamped until the next training run; exact rescoring hides
+ * both errors.
+ *
+ * Codes are stored transposed in blocks of BLOCK slots: within a block all slots'
+ * codes for dimension 0 come first, then dimension 1, and so on. The scan then runs
+ * its inner loop over consecutive slots of one dimension, which the JIT vectorizes
+ * at any dimension, instead of over the few dimensions of one row.
+ *
+ * Not thread-safe; ContiguousVectorStore calls it under its own lock.
+ */
+final class Int8Quantizer {
+
+    // Slots per transposed block; scores() ranges must not cross a block boundary
+    static final int BLOCK = 512;
+    private static final int BLOCK_SHIFT = 9;
+
+    private int dimension;
+    private float[] min = new float[0];
+    private float[] scale = new float[0];
+    private byte[] codes = new byte[0];
+    private int trainedOn;
+    private long trainings;
+
+    void allocate(int dimension, int slots) {
+        this.dimension = dimension;
+        codes = new byte[codeBytes(slots)];
+        // Unit vectors lie in [-1, 1] until the corpus says otherwise
+        min = new float[dimension];
+        scale = new float[dimension];
+        Arrays.fill(min, -1f);
+        Arrays.fill(scale, 2f / 255f);
+        trainedOn = 0;
+    }
+
+    void grow(int slots) {
+        // Blocks are self-contained, so appending blocks keeps existing codes in place
+        codes = Arrays.copyOf(codes, codeBytes(slots));
+    }
+
+    void encode(int slot, float[] unitVector) {
+        int index = blockStart(slot) + (slot & (BLOCK - 1));
+        for (int d = 0; d < dimension; d++, index += BLOCK) {
+            float code = scale[d] == 0f ? 0f : (unitVector[d] - min[d]) / scale[d];
+            codes[index] = (byte) Math.round(Math.max(0f, Math.min(255f, code)));
+        }
+    }
+
+    void move(int from, int to) {
+        int read = blockStart(from) + (from & (BLOCK - 1));
+        int write = blockStart(to) + (to & (BLOCK - 1));
+        for (int d = 0; d < dimension; d++, read += BLOCK, write += BLOCK) {
+            codes[write] = codes[read];
+        }
+    }
+
+    private int blockStart(int slot) {
+        return (slot >>> BLOCK_SHIFT) * BLOCK * dimension;
+    }
+
+    private int codeBytes(int slots) {
+        int blocks = (slots + BLOCK - 1) >>> BLOCK_SHIFT;
+        return blocks * BLOCK * Math.max(dimension, 1);
+    }
+
+    /**
+     * Relearn per-dimension ranges from the live rows and re-encode every row
+     */
+    void train(VectorColumns columns, int used, boolean[] deleted) {
+        float[] lo = new float[dimension];
+        float[] hi = new float[dimension];
+        Arrays.fill(lo, Float.POSITIVE_INFINITY);
+        Arrays.fill(hi, Float.NEGATIVE_INFINITY);
+        double[] row = new double[dimension];
+        int live = 0;
+        for (int slot = 0; slot < used; slot++) {
+            if (deleted[slot]) {
+                continue;
+            }
+            columns.readVector(slot, row);
+            for (int d = 0; d < dimension; d++) {
+                lo[d] = Math.min(lo[d], (float) row[d]);
+                hi[d] = Math.max(hi[d], (float) row[d]);
+            }
+            live++;
+        }
+        if (live == 0) {
+            return;
+        }
+        for (int d = 0; d < dimension; d++) {
+            min[d] = lo[d];
+            scale[d] = (hi[d] - lo[d]) / 255f;
+        }
+
+        float[] unit = new float[dimension];
+        for (int slot = 0; slot < used; slot++) {
+            columns.readVector(slot, row);
+            for (int d = 0; d < dimension; d++) {
+                unit[d] = (float) row[d];
+            }
+            encode(slot, unit);
+        }
+        trainedOn = live;
+        trainings++;
+    }
+
+    /**
+     * Live rows seen by the last training run (0 = still on the default range)
+     */
+    int trainedOn() {
+        return trainedOn;
+    }
+
+    /**
+     * Query with the quantization parameters folded in: score = bias + unit * sum(weights[d] * code_d)
+     */
+    record Query(int[] weights, float unit, float bias) {}
+
+    /**
+     * Fold the quantization parameters into the query and round the per-dimension
+     * weights to ints, sized so a full row sum cannot overflow
+     */
+    Query prepare(float[] query) {
+        float[] folded = new float[dimension];
+        float bias = 0f;
+        float largest = 0f;
+        for (int d = 0; d < dimension; d++) {
+            folded[d] = query[d] * scale[d];
+            bias += query[d] * min[d];
+            largest = Math.max(largest, Math.abs(folded[d]));
+        }
+        int[] weights = new int[dimension];
+        if (largest == 0f) {
+            return new Query(weights, 0f, bias);
+        }
+        int limit = (int) Math.min(Short.MAX_VALUE, Integer.MAX_VALUE / (255L * Math.max(dimension, 1)));
+        float unit = largest / limit;
+        for (int d = 0; d < dimension; d++) {
+            weights[d] = Math.round(folded[d] / unit);
+        }
+        return new Query(weights, unit, bias);
+    }
+
+    /**
+     * Approximate scores for slots [fromSlot, toSlot), which must lie in one block,
+     * into out[i - fromSlot]; sums is caller-owned scratch of at least BLOCK ints
+     */
+    void scores(Query query, int fromSlot, int toSlot, int[] sums, float[] out) {
+        int[] weights = query.weights();
+        int count = toSlot - fromSlot;
+        int base = blockStart(fromSlot) + (fromSlot & (BLOCK - 1));
+        Arrays.fill(sums, 0, count, 0);
+        // Four dimensions per pass, so each partial sum is loaded and stored once per four
+        int d = 0;
+        for (; d + 4 <= dimension; d += 4, base += 4 * BLOCK) {
+            int w0 = weights[d];
+            int w1 = weights[d + 1];
+            int w2 = weights[d + 2];
+            int w3 = weights[d + 3];
+            int b1 = base + BLOCK;
+            int b2 = b1 + BLOCK;
+            int b3 = b2 + BLOCK;
+            for (int i = 0; i < count; i++) {
+                sums[i] += w0 * (codes[base + i] & 0xFF)
+                        + w1 * (codes[b1 + i] & 0xFF)
+                        + w2 * (codes[b2 + i] & 0xFF)
+                        + w3 * (codes[b3 + i] & 0xFF);
+            }
+        }
+        for (; d < dimension; d++, base += BLOCK) {
+            int weight = weights[d];
+            for (int i = 0; i < count; i++) {
+                sums[i] += weight * (codes[base + i] & 0xFF);
+            }
+        }
+        float bias = query.bias();
+        float unit = query.unit();
+        for (int i = 0; i < count; i++) {
+            out[i] = bias + unit * sums[i];
+        }
+    }
+
+    long bytes() {
+        return codes.length;
+    }
+
+    long trainings() {
+        return trainings;
+    }
+}
@@ -0,0 +1,384 @@
+package com.FishOnBid.FishOnBid_Backend.ai.rag;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Vector index split into one sub-index per normalized fish name (optionally per
+ * fish and location).
+ *
+ * The fish name is only one hashed dimension of the embedding, so an unfiltered scan
+ * scores every species. Routing a context query to its own partition is an exact
+ * pre-filter: only documents for that fish (and harbor) are scored. When the exact
+ * partition holds fewer than K documents the query widens to the fallback scope;
+ * queries spanning several partitions search them in parallel on the fork-join pool
+ * and merge the per-partition top-K lists. A batch of queries is grouped by
+ * partition so each partition is scanned once for all the queries routed to it.
+ * A partition is created on its first document and dropped with its last one.
+ */
+final class PartitionedVectorIndex implements VectorIndex {
+
+    /**
+     * How documents are split
+     */
+    enum PartitionBy { NONE, FISH, FISH_LOCATION }
+
+    /**
+     * How far a context query widens when its partition has too few documents
+     */
+    enum Fallback { NONE, FISH, ALL }
+
+    // Below this many documents a fork costs more than scanning the partitions in turn
+    private static final int PARALLEL_MIN_DOCUMENTS = 8192;
+
+    private final Supplier<VectorIndex> indexFactory;
+    private final PartitionBy partitionBy;
+    private final Fallback fallback;
+
+    private final Map<String, Partition> partitions = new ConcurrentHashMap<>();
+    private final Map<String, String> partitionByDocId = new ConcurrentHashMap<>();
+
+    private final LongAdder exactQueries = new LongAdder();
+    private final LongAdder fallbackQueries = new LongAdder();
+    private final LongAdder parallelQueries = new LongAdder();
+    private final LongAdder searches = new LongAdder();
+    private final LongAdder partitionsSearched = new LongAdder();
+    private final LongAdder documentsScanned = new LongAdder();
+    private final LongAdder batchSearches = new LongAdder();
+
+    PartitionedVectorIndex(Supplier<VectorIndex> indexFactory, PartitionBy partitionBy, Fallback fallback) {
+        this.indexFactory = indexFactory;
+        this.partitionBy = partitionBy;
+        this.fallback = fallback;
+    }
+
+    @Override
+    public boolean upsert(RagDocument doc) {
+        String fish = normalizeFish(doc.getFishName());
+        String location = normalizeLocation(doc.getLocation());
+        String key = keyOf(fish, location);
+
+        // A re-indexed document may have moved partition (e.g. corrected fish name)
+        String previous = partitionByDocId.put(doc.getId(), key);
+        if (previous != null && !previous.equals(key)) {
+            removeFrom(previous, doc.getId());
+        }
+        boolean[] inserted = new boolean[1];
+        partitions.compute(key, (k, partition) -> {
+            Partition target = partition != null ? partition : new Partition(fish, location, indexFactory.get());
+            inserted[0] = target.index().upsert(doc);
+            return target.index().size() > 0 ? target : null;
+        });
+        return inserted[0];
+    }
+
+    @Override
+    public boolean remove(String docId) {
+        String key = partitionByDocId.remove(docId);
+        return key != null && removeFrom(key, docId);
+    }
+
+    /**
+     * Remove a document from its partition and drop the partition once it is empty.
+     * Writes to one partition run inside compute() on its key, so an upsert cannot
+     * land in a partition that is being dropped.
+     */
+    private boolean removeFrom(String key, String docId) {
+        boolean[] removed = new boolean[1];
+        partitions.computeIfPresent(key, (k, partition) -> {
+            removed[0] = partition.index().remove(docId);
+            return partition.index().size() > 0 ? partition : null;
+        });
+        return removed[0];
+    }
+
+    /**
+     * Unfiltered query over every partition
+     */
+    @Override
+    public List<RagDocument> topK(double[] query, int k) {
+        return search(query, k, new ArrayList<>(partitions.values()));
+    }
+
+    /**
+     * Query routed by fish name and location: the exact partition first, widened to
+     * the fallback scope if it holds fewer than K documents.
+     */
+    List<RagDocument> topK(double[] query, int k, String fishName, String location) {
+        return search(query, k, scopeFor(fishName, location, k));
+    }
+
+    /**
+     * Unfiltered batch over every partition
+     */
+    @Override
+    public List<List<RagDocument>> topKBatch(double[][] queries, int k) {
+        List<List<Partition>> scopes = new ArrayList<>(queries.length);
+        List<Partition> all = new ArrayList<>(partitions.values());
+        for (int q = 0; q < queries.length; q++) {
+            scopes.add(all);
+        }
+        return searchBatch(queries, k, scopes);
+    }
+
+    /**
+     * Routed batch: each query gets the scope topK(query, k, fish, location) would
+     * use, then every partition is searched once for all the queries that include it.
+     */
+    List<List<RagDocument>> topKBatch(double[][] queries, int k, String[] fishNames, String[] locations) {
+        List<List<Partition>> scopes = new ArrayList<>(queries.length);
+        for (int q = 0; q < queries.length; q++) {
+            scopes.add(scopeFor(fishNames[q], locations[q], k));
+        }
+        return searchBatch(queries, k, scopes);
+    }
+
+    private List<Partition> scopeFor(String fishName, String location, int k) {
+        String fish = normalizeFish(fishName);
+        String loc = normalizeLocation(location);
+
+        List<Partition> scope = matching(fish, loc, partitionBy == PartitionBy.FISH_LOCATION && !loc.isEmpty());
+        if (documentCount(scope) >= k || fallback == Fallback.NONE) {
+            exactQueries.increment();
+            return scope;
+        }
+
+        // Widen one step at a time: same fish at other harbors, then every partition
+        fallbackQueries.increment();
+        if (partitionBy == PartitionBy.FISH_LOCATION) {
+            scope = matching(fish, loc, false);
+        }
+        if (fallback == Fallback.ALL && documentCount(scope) < k) {
+            scope = new ArrayList<>(partitions.values());
+        }
+        return scope;
+    }
+
+    private List<Partition> matching(String fish, String location, boolean matchLocation) {
+        if (partitionBy == PartitionBy.NONE) {
+            return new ArrayList<>(partitions.values());
+        }
+        List<Partition> scope = new ArrayList<>();
+        for (Partition partition : partitions.values()) {
+            if (partition.fish().equals(fish) && (!matchLocation || partition.location().equals(location))) {
+                scope.add(partition);
+            }
+        }
+        return scope;
+    }
+
+    private List<RagDocument> search(double[] query, int k, List<Partition> scope) {
+        int documents = documentCount(scope);
+        searches.increment();
+        partitionsSearched.add(scope.size());
+        documentsScanned.add(documents);
+
+        if (scope.isEmpty()) {
+            return Collections.emptyList();
+        }
+        if (scope.size() == 1) {
+            return scope.get(0).index().topK(query, k);
+        }
+        if (documents < PARALLEL_MIN_DOCUMENTS) {
+            return new PartitionSearch(query, k, scope).compute();
+        }
+        parallelQueries.increment();
+        return ForkJoinPool.commonPool().invoke(new PartitionSearch(query, k, scope));
+    }
+
+    /**
+     * Group the queries by partition, run one batched pass per partition (each
+     * parallelized inside the partition) and merge the per-partition lists per query
+     */
+    private List<List<RagDocument>> searchBatch(double[][] queries, int k, List<List<Partition>> scopes) {
+        Map<Partition, List<Integer>> queriesByPartition = new LinkedHashMap<>();
+        for (int q = 0; q < queries.length; q++) {
+            List<Partition> scope = scopes.get(q);
+            searches.increment();
+            partitionsSearched.add(scope.size());
+            documentsScanned.add(documentCount(scope));
+            for (Partition partition : scope) {
+                queriesByPartition.computeIfAbsent(partition, p -> new ArrayList<>()).add(q);
+            }
+        }
+        batchSearches.increment();
+
+        List<List<RagDocument>> candidates = new ArrayList<>(queries.length);
+        for (int q = 0; q < queries.length; q++) {
+            candidates.add(new ArrayList<>());
+        }
+        queriesByPartition.forEach((partition, members) -> {
+            double[][] group = new double[members.size()][];
+            for (int i = 0; i < group.length; i++) {
+                group[i] = queries[members.get(i)];
+            }
+            List<List<RagDocument>> found = partition.index().topKBatch(group, k);
+            for (int i = 0; i < group.length; i++) {
+                candidates.get(members.get(i)).addAll(found.get(i));
+            }
+        });
+
+        for (int q = 0; q < queries.length; q++) {
+            List<RagDocument> merged = candidates.get(q);
+            if (scopes.get(q).size() > 1) {
+                merged.sort(Comparator.comparingDouble(RagDocument::getSimilarityScore).reversed());
+                if (merged.size() > k) {
+                    candidates.set(q, new ArrayList<>(merged.subList(0, k)));
+                }
+            }
+        }
+        return candidates;
+    }
+
+    @Override
+    public boolean compactIfFragmented() {
+        boolean compacted = false;
+        for (Partition partition : partitions.values()) {
+            compacted |= partition.index().compactIfFragmented();
+        }
+        return compacted;
+    }
+
+    /**
+     * Visits partition by partition, each under its own backend's view
+     */
+    @Override
+    public int forEachDocument(DocumentVisitor visitor) {
+        int visited = 0;
+        for (Partition partition : partitions.values()) {
+            visited += partition.index().forEachDocument(visitor);
+        }
+        return visited;
+    }
+
+    @Override
+    public void clear() {
+        partitions.clear();
+        partitionByDocId.clear();
+    }
+
+    @Override
+    public int size() {
+        return documentCount(partitions.values());
+    }
+
+    /**
+     * The partition holding the most documents, or null when empty
+     */
+    VectorIndex largestPartition() {
+        VectorIndex largest = null;
+        for (Partition partition : partitions.values()) {
+            if (largest == null || partition.index().size() > largest.size()) {
+                largest = partition.index();
+            }
+        }
+        return largest;
+    }
+
+    @Override
+    public Map<String, Object> getStats() {
+        VectorIndex largest = largestPartition();
+        long queries = searches.sum();
+        return Map.of(
+                "partitionBy", partitionBy.name(),
+                "fallback", fallback.name(),
+                "partitions", partitions.size(),
+                "largestPartition", largest != null ? largest.getStats() : Map.of(),
+                "exactQueries", exactQueries.sum(),
+                "fallbackQueries", fallbackQueries.sum(),
+                "parallelQueries", parallelQueries.sum(),
+                "batchSearches", batchSearches.sum(),
+                "avgPartitionsPerQuery", queries > 0 ? (double) partitionsSearched.sum() / queries : 0.0,
+                "avgDocumentsScanned", queries > 0 ? documentsScanned.sum() / queries : 0
+        );
+    }
+
+    private String keyOf(String fish, String location) {
+        return switch (partitionBy) {
+            case NONE -> "";
+            case FISH -> fish;
+            case FISH_LOCATION -> fish + '|' + location;
+        };
+    }
+
+    private static int documentCount(Iterable<Partition> scope) {
+        int count = 0;
+        for (Partition partition : scope) {
+            count += partition.index().size();
+        }
+        return count;
+    }
+
+    /**
+     * Lower-case, trimmed, single-spaced fish name
+     */
+    static String normalizeFish(String fishName) {
+        return fishName == null ? "" : fishName.trim().replaceAll("\\s+", " ").toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Like normalizeFish, with a trailing harbor/market suffix dropped so that
+     * "Kochi" and "Kochi Harbor" land in the same partition
+     */
+    static String normalizeLocation(String location) {
+        String normalized = normalizeFish(location);
+        for (String suffix : new String[]{" harbor", " harbour", " market"}) {
+            if (normalized.endsWith(suffix)) {
+                return normalized.substring(0, normalized.length() - suffix.length());
+            }
+        }
+        return normalized;
+    }
+
+    private record Partition(String fish, String location, VectorIndex index) {}
+
+    /**
+     * Splits the partition list in halves until one remains, then merges the
+     * per-partition top-K lists
+     */
+    private static final class PartitionSearch extends RecursiveTask<List<RagDocument>> {
+        private final double[] query;
+        private final int k;
+        private final List<Partition> scope;
+
+        PartitionSearch(double[] query, int k, List<Partition> scope) {
+            this.query = query;
+            this.k = k;
+            this.scope = scope;
+        }
+
+        @Override
+        protected List<RagDocument> compute() {
+            if (scope.size() == 1) {
+                return scope.get(0).index().topK(query, k);
+            }
+            int mid = scope.size() / 2;
+            PartitionSearch left = new PartitionSearch(query, k, scope.subList(0, mid));
+            PartitionSearch right = new PartitionSearch(query, k, scope.subList(mid, scope.size()));
+            if (inForkJoinPool()) {
+                left.fork();
+                List<RagDocument> rightResults = right.compute();
+                return merge(left.join(), rightResults);
+            }
+            return merge(left.compute(), right.compute());
+        }
+
+        private List<RagDocument> merge(List<RagDocument> a, List<RagDocument> b) {
+            List<RagDocument> merged = new ArrayList<>(a.size() + b.size());
+            merged.addAll(a);
+            merged.addAll(b);
+            merged.sort(Comparator.comparingDouble(RagDocument::getSimilarityScore).reversed());
+            return merged.size() > k ? new ArrayList<>(merged.subList(0, k)) : merged;
+        }
+    }
+}
@@ -1,24 +1,65 @@
 package com.FishOnBid.FishOnBid_Backend.ai.rag;
 
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
+import jakarta.annotation.PostConstruct;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
 /**
  * Embedding Service for RAG.
  * Converts auction data into normalized vector embeddings.
  * 
  * Current: Simple deterministic embeddings
  * Future: OpenAI/Cohere embeddings API
+ *
+ * Feature Flags:
+ * - rag.embedding.mode=SCALAR (default): fish name and location are one hashed
+ *   scalar dimension each, 5 dimensions in total
+ * - rag.embedding.mode=HASHED_NGRAM: fish name and location are spread over
+ *   rag.embedding.hashed.dimensions (64) signed-hash buckets of their character
+ *   trigrams and words, followed by the price, quantity and recency dimensions.
+ *   Related names (e.g. "Black Pomfret" / "White Pomfret") share buckets while
+ *   unrelated ones are near-orthogonal instead of numerically adjacent.
  */
 @Service
 @Slf4j
 public class RagEmbeddingService {
 
+    // Bump when the embedding layout changes so persisted index snapshots are rebuilt
+    private static final String MODEL_ID = "deterministic-5d-v1";
+    private static final String HASHED_MODEL_ID = "hashed-ngram-%dd-v1";
+
+    public enum Mode { SCALAR, HASHED_NGRAM }
+
+    // Hashed mode: relative weight of the location term vector to the fish term vector
+    private static final double LOCATION_WEIGHT = 0.5;
+    private static final int NGRAM = 3;
+    // Fish/location vocabulary is small; the bound only guards against junk input
+    private static final int MAX_CACHED_TERMS = 10_000;
+
+    @Value("${rag.embedding.mode:SCALAR}")
+    private Mode mode;
+
+    @Value("${rag.embedding.hashed.dimensions:64}")
+    private int hashedDimensions;
+
+    // Unit term vectors by namespace + normalized term, built once per distinct term
+    private final Map<String, double[]> termVectors = new ConcurrentHashMap<>();
+
     // Normalization constants
     private static final double MAX_PRICE = 5000.0;
     private static final double MAX_QUANTITY = 500.0;
     private static final long MAX_AGE_MS = 30L * 24 * 60 * 60 * 1000; // 30 days
 
+    @PostConstruct
+    public void init() {
+        log.info("RAG embedding mode={}, model={}", mode, getModelId());
+    }
+
     /**
      * Generate embedding vector for auction data.
      * 
@@ -36,6 +77,10 @@ public class RagEmbeddingService {
             double quantityKg,
             long timestamp
     ) {
+        if (mode == Mode.HASHED_NGRAM) {
+            return generateHashedEmbedding(fishName, location, avgPrice, quantityKg, timestamp);
+        }
+
         // Create 5-dimensional embedding
         double[] embedding = new double[5];
 
@@ -51,7 +96,8 @@ public class RagEmbeddingService {
         // Dimension 3: Quantity (normalized 0-1)
         embedding[3] = Math.min(1.0, quantityKg / MAX_QUANTITY);
 
-        // Dimension 4: Recency (1 = now, 0 = 30+ days old)
+        // Dimension 4: Recency (1 = now, 0 = 30+ days old), as of embedding time; stored
+        // vectors keep it until the next full rebuild (see RagQueryService)
         long age = System.currentTimeMillis() - timestamp;
         embedding[4] = Math.max(0, 1.0 - (double) age / MAX_AGE_MS);
 
@@ -66,6 +112,105 @@ public class RagEmbeddingService {
         return generateEmbedding(fishName, location, targetPrice, 50.0, System.currentTimeMillis());
     }
 
+    /**
+     * Identifier of the embedding layout, stamped into persisted index snapshots
+     */
+    public String getModelId() {
+        return mode == Mode.HASHED_NGRAM ? String.format(HASHED_MODEL_ID, hashedDimensions) : MODEL_ID;
+    }
+
+    /**
+     * Embedding mode and term-vector cache size, for status endpoints
+     */
+    public Map<String, Object> getStats() {
+        return Map.of(
+                "mode", mode.name(),
+                "modelId", getModelId(),
+                "dimensions", mode == Mode.HASHED_NGRAM ? hashedDimensions + 3 : 5,
+                "cachedTerms", termVectors.size()
+        );
+    }
+
+    /**
+     * Hashed mode: fish and location term vectors added into one hashed space,
+     * then the same price/quantity/recency features as the scalar mode
+     */
+    private double[] generateHashedEmbedding(
+            String fishName,
+            String location,
+            double avgPrice,
+            double quantityKg,
+            long timestamp
+    ) {
+        int d = hashedDimensions;
+        double[] embedding = new double[d + 3];
+
+        double[] fish = termVector("f:", fishName);
+        double[] place = termVector("l:", location);
+        for (int i = 0; i < d; i++) {
+            embedding[i] = fish[i] + LOCATION_WEIGHT * place[i];
+        }
+
+        embedding[d] = Math.min(1.0, avgPrice / MAX_PRICE);
+        embedding[d + 1] = Math.min(1.0, quantityKg / MAX_QUANTITY);
+        long age = System.currentTimeMillis() - timestamp;
+        embedding[d + 2] = Math.max(0, 1.0 - (double) age / MAX_AGE_MS);
+
+        return normalize(embedding);
+    }
+
+    /**
+     * Cached unit vector of a term: signed hashing trick over its character trigrams
+     * (with word-boundary markers) and whole words. The namespace keeps fish and
+     * location features from colliding systematically.
+     */
+    private double[] termVector(String namespace, String term) {
+        // Keyed by the raw term so the hot path skips normalization; spelling variants
+        // just get their own (identical) entries
+        String key = namespace + (term == null ? "" : term);
+        double[] cached = termVectors.get(key);
+        if (cached != null) {
+            return cached;
+        }
+        String normalized = term == null ? "" : term.trim().replaceAll("\\s+", " ").toLowerCase(Locale.ROOT);
+
+        double[] vector = new double[hashedDimensions];
+        if (!normalized.isEmpty()) {
+            for (String word : normalized.split(" ")) {
+                addFeature(vector, namespace + "w:" + word);
+                String padded = "^" + word + "$";
+                for (int i = 0; i + NGRAM <= padded.length(); i++) {
+                    addFeature(vector, namespace + padded.substring(i, i + NGRAM));
+                }
+            }
+        }
+        vector = normalize(vector);
+
+        if (termVectors.size() < MAX_CACHED_TERMS) {
+            termVectors.putIfAbsent(key, vector);
+        }
+        return vector;
+    }
+
+    private void addFeature(double[] vector, String feature) {
+        int hash = mix(feature.hashCode());
+        int bucket = Math.floorMod(hash, hashedDimensions);
+        // Sign from a bit the bucket index does not use, so collisions cancel on average
+        vector[bucket] += (hash & 0x40000000) != 0 ? 1.0 : -1.0;
+    }
+
+    /**
+     * Murmur3 finalizer: spreads String.hashCode so nearby n-grams scatter over buckets
+     */
+    private static int mix(int h) {
+        h ^= h >>> 16;
+        h *= 0x85ebca6b;
+        h ^= h >>> 13;
+        h *= 0xc2b2ae35;
+        h ^= h >>> 16;
+        return h;
+    }
+
     /**
      * Normalize string to hash value between 0-1
      */
@@ -0,0 +1,122 @@
+package com.FishOnBid.FishOnBid_Backend.ai.rag;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Bounded LRU cache of context-query results in front of the vector store.
+ *
+ * Keys are the normalized fish name and location, the target price rounded to a
+ * bucket, and K. Each entry remembers the index epoch it was computed at; any
+ * index write bumps the epoch, so an entry from an older epoch is treated as a
+ * miss and overwritten in place rather than left to squat on capacity.
+ */
+final class RagQueryCache {
+
+    record Key(String fish, String location, long priceBucket, int topK) {}
+
+    private record Entry(long epoch, List<RagDocument> results) {}
+
+    private final int maxEntries;
+    private final double bucketWidth;
+
+    // Access-ordered, guarded by `this`
+    private final LinkedHashMap<Key, Entry> entries;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder staleMisses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    RagQueryCache(int maxEntries, double bucketWidth) {
+        this.maxEntries = maxEntries;
+        this.bucketWidth = bucketWidth > 0 ? bucketWidth : 1;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, Entry> eldest) {
+                if (size() > RagQueryCache.this.maxEntries) {
+                    evictions.increment();
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    Key keyFor(String fishName, String location, double targetPrice, int topK) {
+        return new Key(
+                PartitionedVectorIndex.normalizeFish(fishName),
+                PartitionedVectorIndex.normalizeFish(location),
+                Math.round(targetPrice / bucketWidth),
+                topK);
+    }
+
+    /**
+     * Representative price of a key's bucket; cached queries are run at this price
+     * so a result does not depend on which request in the bucket came first
+     */
+    double bucketPrice(Key key) {
+        return key.priceBucket() * bucketWidth;
+    }
+
+    /**
+     * Cached results for the key at the given epoch, or null
+     */
+    List<RagDocument> get(Key key, long epoch) {
+        Entry entry;
+        synchronized (this) {
+            entry = entries.get(key);
+        }
+        if (entry == null) {
+            misses.increment();
+            return null;
+        }
+        if (entry.epoch() != epoch) {
+            staleMisses.increment();
+            return null;
+        }
+        hits.increment();
+        return entry.results();
+    }
+
+    /**
+     * Store results computed at the given epoch; returns the unmodifiable copy that
+     * is cached, which callers can hand out as well
+     */
+    List<RagDocument> put(Key key, long epoch, List<RagDocument> results) {
+        List<RagDocument> cached = List.copyOf(results);
+        synchronized (this) {
+            Entry existing = entries.get(key);
+            // Never let a slow query from an older epoch overwrite a newer result
+            if (existing == null || existing.epoch() <= epoch) {
+                entries.put(key, new Entry(epoch, cached));
+            }
+        }
+        return cached;
+    }
+
+    synchronized void clear() {
+        entries.clear();
+    }
+
+    Map<String, Object> getStats() {
+        long hitCount = hits.sum();
+        long lookups = hitCount + misses.sum() + staleMisses.sum();
+        int size;
+        synchronized (this) {
+            size = entries.size();
+        }
+        return Map.of(
+                "size", size,
+                "maxEntries", maxEntries,
+                "priceBucket", bucketWidth,
+                "hits", hitCount,
+                "misses", misses.sum(),
+                "staleMisses", staleMisses.sum(),
+                "evictions", evictions.sum(),
+                "hitRatio", lookups > 0 ? Math.round(hitCount * 10000.0 / lookups) / 10000.0 : 0.0
+        );
+    }
+}
@@ -1,20 +1,32 @@
 package com.FishOnBid.FishOnBid_Backend.ai.rag;
 
+import com.FishOnBid.FishOnBid_Backend.ai.dto.RagIndexRowDTO;
 import com.FishOnBid.FishOnBid_Backend.entity.Auction;
+import com.FishOnBid.FishOnBid_Backend.events.AuctionClosedEvent;
+import com.FishOnBid.FishOnBid_Backend.events.MarketDataImportedEvent;
 import com.FishOnBid.FishOnBid_Backend.repository.AuctionRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import jakarta.annotation.PostConstruct;
+import java.time.Duration;
 import java.time.Instant;
-import java.time.ZoneOffset;
 import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
-import java.util.UUID;
-import java.util.stream.Collectors;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 /**
  * RAG Query Service - Main interface for semantic auction search.
@@ -23,47 +35,208 @@ import java.util.stream.Collectors;
  * 1. Index completed auctions into vector store
  * 2. Execute semantic queries for price suggestions
  * 3. Maintain freshness of indexed data
+ *
+ * Closed auctions (AuctionClosedEvent, after commit) and imported government
+ * records (MarketDataImportedEvent) are indexed as they happen, keyed by auction
+ * id so re-delivery just replaces the document. A full rebuild from the last 30
+ * days runs nightly as a reconciliation, swapped in atomically by RagVectorStore.
+ * At startup the persisted index snapshot is restored instead when present, and
+ * only auctions closed since its watermark are indexed. Either runs in the
+ * background once the application is ready; auctions that close before it swaps
+ * in are picked up by its database read.
+ *
+ * Bulk loads (rebuild, catch-up) stream a narrow projection of closed auctions
+ * from a read-only cursor and embed/index it in chunks of INDEX_CHUNK_SIZE, so
+ * memory stays bounded whatever the table size and no image LOBs are loaded.
+ *
+ * The recency dimension of a document embedding is computed when the document is
+ * embedded, so it drifts until the next full rebuild re-embeds it: by up to a day
+ * with the nightly rebuild, and by the snapshot's age plus that after a restore,
+ * since snapshots keep the stored vectors. A restore from a snapshot older than
+ * rag.index.snapshot.max-age-hours is therefore followed by a full rebuild, which
+ * is swapped in behind the restored index.
+ *
+ * Feature Flags:
+ * - rag.index.rebuild-cron=0 30 3 * * * (default): nightly full rebuild, after the
+ *   2 AM government data sync
+ * - rag.index.snapshot.max-age-hours=24 (default): snapshot age past which the
+ *   startup restore is followed by a full rebuild
  */
 @Service
 @Slf4j
 @RequiredArgsConstructor
 public class RagQueryService {
 
+    private static final String DOCUMENT_ID_PREFIX = "auction-";
+    private static final Duration CATCH_UP_OVERLAP = Duration.ofHours(1);
+    private static final int INDEX_CHUNK_SIZE = 500;
+
     private final RagVectorStore vectorStore;
     private final RagEmbeddingService embeddingService;
     private final AuctionRepository auctionRepository;
+    private final PlatformTransactionManager transactionManager;
+
+    @Value("${rag.index.snapshot.max-age-hours:24}")
+    private long snapshotMaxAgeHours;
+
+    // Streaming queries need an open transaction; init runs outside any proxy
+    private TransactionTemplate readOnlyTransaction;
+
+    // How the index was brought up at boot, for getStatus
+    private volatile String startupMode = "PENDING";
+    private volatile long startupMillis;
 
     @PostConstruct
     public void init() {
-        log.info("RAG Query Service starting, indexing historical data...");
-        indexCompletedAuctions();
+        readOnlyTransaction = new TransactionTemplate(transactionManager);
+        readOnlyTransaction.setReadOnly(true);
+    }
+
+    /**
+     * Bring the index up on a virtual thread once the application is ready, so
+     * startup does not wait on it. Until the restore or rebuild is swapped in,
+     * queries see an empty store and return no matches.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadOnStartup() {
+        Thread.ofVirtual().name("rag-index-load").start(this::loadIndex);
+    }
+
+    void loadIndex() {
+        log.info("RAG Query Service loading the index...");
+        long start = System.currentTimeMillis();
+        try {
+            // Warm start: restore the persisted snapshot and index only what closed since
+            Instant watermark = vectorStore.restoreSnapshot();
+            if (watermark != null) {
+                int caughtUp = catchUpSince(watermark);
+                startupMode = "SNAPSHOT";
+                log.info("RAG index ready from snapshot in {}ms ({} auctions caught up)",
+                        System.currentTimeMillis() - start, caughtUp);
+                Duration age = Duration.between(watermark, Instant.now());
+                if (age.compareTo(Duration.ofHours(snapshotMaxAgeHours)) > 0) {
+                    // Serve the restored index meanwhile; the rebuild refreshes the recency dimension
+                    log.info("RAG snapshot is {}h old, rebuilding to refresh document recency", age.toHours());
+                    indexCompletedAuctions();
+                    startupMode = "SNAPSHOT_THEN_REBUILD";
+                }
+            } else {
+                indexCompletedAuctions();
+                startupMode = "FULL_REBUILD";
+                log.info("RAG index ready from full rebuild in {}ms", System.currentTimeMillis() - start);
+            }
+        } catch (Exception e) {
+            startupMode = "FAILED";
+            log.error("RAG index load failed, waiting for the nightly rebuild: {}", e.getMessage(), e);
+        }
+        startupMillis = System.currentTimeMillis() - start;
+    }
+
+    /**
+     * Index auctions that completed after a snapshot watermark. The window reaches
+     * back a little further because an auction can be closed after its end time;
+     * re-indexing the overlap is harmless since documents are keyed by auction id.
+     */
+    private int catchUpSince(Instant watermark) {
+        Instant retentionStart = Instant.now().minus(30, ChronoUnit.DAYS);
+        Instant from = watermark.minus(CATCH_UP_OVERLAP);
+        return streamCompletedSince(from.isAfter(retentionStart) ? from : retentionStart,
+                chunk -> chunk.forEach(vectorStore::addDocument));
     }
 
     /**
-     * Index all completed auctions into the vector store
+     * Rebuild the vector store from completed auctions of the last 30 days and
+     * persist a snapshot of the result.
+     * Queries keep hitting the previous index until the new one is swapped in.
      */
     public void indexCompletedAuctions() {
-        Instant thirtyDaysAgo = Instant.now().minus(30, ChronoUnit.DAYS);
-        
-        List<Auction> completedAuctions = auctionRepository.findAll().stream()
-                .filter(a -> !a.isActive())
-                .filter(a -> a.getEndTime() != null && a.getEndTime().isAfter(thirtyDaysAgo))
-                .collect(Collectors.toList());
+        Instant watermark = Instant.now();
+        vectorStore.rebuildFrom(sink -> {
+            Instant thirtyDaysAgo = Instant.now().minus(30, ChronoUnit.DAYS);
+            int indexed = streamCompletedSince(thirtyDaysAgo, sink);
+            log.info("Indexed {} completed auctions into vector store", indexed);
+        });
+        vectorStore.saveSnapshot(watermark);
+    }
+
+    /**
+     * Stream auctions closed since a date from a read-only cursor, converting rows
+     * to documents and handing them to the sink in chunks. Returns the row count.
+     */
+    private int streamCompletedSince(Instant fromDate, Consumer<List<RagDocument>> sink) {
+        Integer rows = readOnlyTransaction.execute(status -> {
+            int count = 0;
+            List<RagDocument> chunk = new ArrayList<>(INDEX_CHUNK_SIZE);
+            try (Stream<RagIndexRowDTO> stream = auctionRepository.streamCompletedSince(fromDate)) {
+                Iterator<RagIndexRowDTO> it = stream.iterator();
+                while (it.hasNext()) {
+                    chunk.add(rowToDocument(it.next()));
+                    if (chunk.size() == INDEX_CHUNK_SIZE) {
+                        sink.accept(chunk);
+                        count += chunk.size();
+                        chunk = new ArrayList<>(INDEX_CHUNK_SIZE);
+                    }
+                }
+            }
+            if (!chunk.isEmpty()) {
+                sink.accept(chunk);
+                count += chunk.size();
+            }
+            return count;
+        });
+        return rows != null ? rows : 0;
+    }
+
+    /**
+     * Index an auction once its close has committed
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void handleAuctionClosed(AuctionClosedEvent event) {
+        try {
+            auctionRepository.findById(event.getAuctionId())
+                    .filter(auction -> !auction.isActive())
+                    .ifPresent(auction -> vectorStore.addDocument(auctionToDocument(auction)));
+        } catch (Exception e) {
+            log.warn("Failed to index closed auction {}: {}", event.getAuctionId(), e.getMessage());
+        }
+    }
 
-        List<RagDocument> documents = completedAuctions.stream()
-                .map(this::auctionToDocument)
-                .collect(Collectors.toList());
+    /**
+     * Index a batch of imported government records
+     */
+    @EventListener
+    public void handleMarketDataImported(MarketDataImportedEvent event) {
+        try {
+            List<Auction> imported = auctionRepository.findAllById(event.getAuctionIds());
+            imported.forEach(auction -> vectorStore.addDocument(auctionToDocument(auction)));
+            log.info("Indexed {} imported records from {}", imported.size(), event.getSource());
+        } catch (Exception e) {
+            log.warn("Failed to index imported records from {}: {}", event.getSource(), e.getMessage());
+        }
+    }
 
-        vectorStore.addDocuments(documents);
-        log.info("Indexed {} completed auctions into vector store", documents.size());
+    /**
+     * Convert a streamed projection row to a RAG document, keyed by auction id
+     */
+    private RagDocument rowToDocument(RagIndexRowDTO row) {
+        return RagDocument.builder()
+                .id(DOCUMENT_ID_PREFIX + row.id())
+                .fishName(row.fishName())
+                .location(row.location())
+                .avgPrice(row.currentPrice())
+                .quantityKg(row.quantityKg() != null ? row.quantityKg() : 0)
+                .timestamp(row.endTime() != null
+                        ? row.endTime().toEpochMilli()
+                        : System.currentTimeMillis())
+                .build();
     }
 
     /**
-     * Convert Auction entity to RAG document
+     * Convert Auction entity to RAG document, keyed by auction id
      */
     private RagDocument auctionToDocument(Auction auction) {
         return RagDocument.builder()
-                .id(UUID.randomUUID().toString())
+                .id(DOCUMENT_ID_PREFIX + auction.getId())
                 .fishName(auction.getFishName())
                 .location(auction.getLocation())
                 .avgPrice(auction.getCurrentPrice())
@@ -97,8 +270,30 @@ public class RagQueryService {
      * Get suggested price based on semantic similarity
      */
     public PriceSuggestion getSuggestedPrice(String fishName, String location) {
-        List<RagDocument> similar = findSimilarAuctions(fishName, location, 0, 10);
-        
+        return toSuggestion(fishName, findSimilarAuctions(fishName, location, 0, 10));
+    }
+
+    /**
+     * Suggested prices for many (fish, location) pairs, e.g. a bulk listing or a
+     * pricing backtest. All lookups run as one batched vector-store query, so each
+     * partition is scanned once rather than once per item.
+     *
+     * @param requests fish name and location per item (price is ignored, as in getSuggestedPrice)
+     * @return one suggestion per request, in order
+     */
+    public List<PriceSuggestion> getSuggestedPrices(List<RagVectorStore.ContextQuery> requests) {
+        List<List<RagDocument>> similar = vectorStore.queryBatchByContext(requests, 10);
+        List<PriceSuggestion> suggestions = new ArrayList<>(requests.size());
+        for (int i = 0; i < requests.size(); i++) {
+            suggestions.add(toSuggestion(requests.get(i).fishName(), similar.get(i)));
+        }
+        return suggestions;
+    }
+
+    /**
+     * Similarity-weighted average of the retrieved auctions
+     */
+    private PriceSuggestion toSuggestion(String fishName, List<RagDocument> similar) {
         if (similar.isEmpty()) {
             log.warn("No similar auctions found for: {}", fishName);
             return new PriceSuggestion(0, 0, 0, "No historical data available");
@@ -129,12 +324,12 @@ public class RagQueryService {
     }
 
     /**
-     * Scheduled task to refresh index every hour
+     * Nightly reconciliation: rebuild off to the side and swap in. Day-to-day
+     * freshness comes from the event listeners above.
      */
-    @Scheduled(fixedRate = 3600000) // Every hour
+    @Scheduled(cron = "${rag.index.rebuild-cron:0 30 3 * * *}")
     public void refreshIndex() {
         log.info("Refreshing RAG vector store index...");
-        vectorStore.clear();
         indexCompletedAuctions();
     }
 
@@ -144,7 +339,10 @@ public class RagQueryService {
     public Map<String, Object> getStatus() {
         return Map.of(
                 "vectorStoreStats", vectorStore.getStats(),
+                "embedding", embeddingService.getStats(),
                 "indexedDocuments", vectorStore.size(),
+                "startupMode", startupMode,
+                "startupMillis", startupMillis,
                 "available", true
         );
     }
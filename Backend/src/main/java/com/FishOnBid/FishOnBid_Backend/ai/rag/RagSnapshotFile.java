@@ -0,0 +1,264 @@
+package com.FishOnBid.FishOnBid_Backend.ai.rag;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Versioned binary snapshot of the RAG vector store, read back through a memory
+ * mapping so startup does not touch the database or re-embed anything.
+ *
+ * Layout (big-endian, version 1), columns rather than records:
+ *   int    magic ("FBRG")
+ *   int    version (1)
+ *   string embedding model id
+ *   long   watermark (epoch millis; documents closed after it need catching up)
+ *   int    dimension
+ *   int    count
+ *   float  vectors[count * dimension]
+ *   double prices[count], quantities[count]
+ *   long   timestamps[count]
+ *   string ids[count], fishNames[count], locations[count]
+ * Strings are an int byte length (-1 for null) followed by UTF-8 bytes.
+ *
+ * Files are written to a temp file and moved into place, so a crash mid-write
+ * leaves the previous snapshot intact. Writing streams from the index's storage;
+ * a contiguous backend holds its read lock for its part of the pass, so its
+ * writes wait on the (buffered) file writes.
+ *
+ * Reading decodes rows straight from the mapping in chunks, so a restore holds one
+ * chunk of documents on the heap rather than the whole file decoded twice over.
+ */
+final class RagSnapshotFile {
+
+    private static final int MAGIC = 0x46425247; // "FBRG"
+    private static final int VERSION = 1;
+
+    private RagSnapshotFile() {
+    }
+
+    /**
+     * Write the index's live documents in one pass over the backend's storage,
+     * returning how many were written. Vectors go straight into the file and every
+     * other column into a side file appended after them, so nothing is collected on
+     * the heap; dimension and count are filled into the header at the end.
+     */
+    static int write(Path path, String embeddingModel, Instant watermark, VectorIndex index) throws IOException {
+        Path parent = path.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        Path temp = path.resolveSibling(path.getFileName() + ".tmp");
+        List<ColumnFile> columns = new ArrayList<>();
+        int[] shape = new int[2]; // dimension, count
+        int shapeAt;
+        try {
+            try (OutputStream file = Files.newOutputStream(temp);
+                 DataOutputStream out = new DataOutputStream(new BufferedOutputStream(file, 1 << 16))) {
+                out.writeInt(MAGIC);
+                out.writeInt(VERSION);
+                writeString(out, embeddingModel);
+                out.writeLong(watermark.toEpochMilli());
+                shapeAt = out.size();
+                out.writeInt(0);
+                out.writeInt(0);
+
+                // In file order after the vectors
+                for (String name : List.of("prices", "quantities", "timestamps", "ids", "fishNames", "locations")) {
+                    columns.add(new ColumnFile(path.resolveSibling(path.getFileName() + ".tmp." + name)));
+                }
+                DataOutputStream prices = columns.get(0).out;
+                DataOutputStream quantities = columns.get(1).out;
+                DataOutputStream timestamps = columns.get(2).out;
+                DataOutputStream ids = columns.get(3).out;
+                DataOutputStream fishNames = columns.get(4).out;
+                DataOutputStream locations = columns.get(5).out;
+                try {
+                    index.forEachDocument((id, fishName, location, price, quantity, timestamp, embedding) -> {
+                        try {
+                            if (shape[1] == 0) {
+                                shape[0] = embedding.length;
+                            } else if (embedding.length != shape[0]) {
+                                throw new IOException("Mixed embedding dimensions " + shape[0] + " and " + embedding.length);
+                            }
+                            for (double value : embedding) {
+                                out.writeFloat((float) value);
+                            }
+                            prices.writeDouble(price);
+                            quantities.writeDouble(quantity);
+                            timestamps.writeLong(timestamp);
+                            writeString(ids, id);
+                            writeString(fishNames, fishName);
+                            writeString(locations, location);
+                            shape[1]++;
+                        } catch (IOException e) {
+                            throw new UncheckedIOException(e);
+                        }
+                    });
+                } catch (UncheckedIOException e) {
+                    throw e.getCause();
+                }
+                for (ColumnFile column : columns) {
+                    column.appendTo(out);
+                }
+            }
+            try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.WRITE)) {
+                channel.write(ByteBuffer.allocate(2 * Integer.BYTES).putInt(shape[0]).putInt(shape[1]).flip(), shapeAt);
+            }
+            Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            return shape[1];
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(temp);
+            throw e;
+        } finally {
+            for (ColumnFile column : columns) {
+                column.delete();
+            }
+        }
+    }
+
+    /**
+     * Map a snapshot and hand its documents to the sink in chunks of up to chunkSize,
+     * returning the watermark they are current up to. The whole file is validated
+     * before the first chunk, so it throws IOException without calling the sink if
+     * the file is missing, truncated, from another format version or built with a
+     * different embedding model.
+     */
+    static Instant read(Path path, String embeddingModel, int chunkSize, Consumer<List<RagDocument>> sink)
+            throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            MappedByteBuffer buf = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            Instant watermark;
+            int dimension;
+            int count;
+            int vectorsAt;
+            ByteBuffer ids;
+            ByteBuffer fishNames;
+            ByteBuffer locations;
+            try {
+                if (buf.getInt() != MAGIC) {
+                    throw new IOException("Not a RAG snapshot: " + path);
+                }
+                int version = buf.getInt();
+                if (version != VERSION) {
+                    throw new IOException("Unsupported snapshot version " + version);
+                }
+                String model = readString(buf);
+                if (!embeddingModel.equals(model)) {
+                    throw new IOException("Snapshot built with embedding model " + model + ", expected " + embeddingModel);
+                }
+                watermark = Instant.ofEpochMilli(buf.getLong());
+                dimension = buf.getInt();
+                count = buf.getInt();
+
+                // Locate each column; skipping the strings also checks the file is complete
+                vectorsAt = buf.position();
+                buf.position(Math.addExact(vectorsAt,
+                        Math.multiplyExact(count, dimension * Float.BYTES + 2 * Double.BYTES + Long.BYTES)));
+                ids = buf.slice();
+                fishNames = skipStrings(buf, count);
+                locations = skipStrings(buf, count);
+                skipStrings(buf, count);
+            } catch (RuntimeException e) {
+                // BufferUnderflowException, IllegalArgumentException, ... on a truncated file
+                throw new IOException("Corrupt RAG snapshot: " + path, e);
+            }
+
+            int pricesAt = vectorsAt + count * dimension * Float.BYTES;
+            int quantitiesAt = pricesAt + count * Double.BYTES;
+            int timestampsAt = quantitiesAt + count * Double.BYTES;
+            for (int from = 0; from < count; from += chunkSize) {
+                int to = Math.min(count, from + chunkSize);
+                List<RagDocument> chunk = new ArrayList<>(to - from);
+                for (int i = from; i < to; i++) {
+                    double[] embedding = new double[dimension];
+                    int base = vectorsAt + i * dimension * Float.BYTES;
+                    for (int d = 0; d < dimension; d++) {
+                        embedding[d] = buf.getFloat(base + d * Float.BYTES);
+                    }
+                    chunk.add(RagDocument.builder()
+                            .id(readString(ids))
+                            .fishName(readString(fishNames))
+                            .location(readString(locations))
+                            .avgPrice(buf.getDouble(pricesAt + i * Double.BYTES))
+                            .quantityKg(buf.getDouble(quantitiesAt + i * Double.BYTES))
+                            .timestamp(buf.getLong(timestampsAt + i * Long.BYTES))
+                            .embedding(embedding)
+                            .build());
+                }
+                sink.accept(chunk);
+            }
+            return watermark;
+        }
+    }
+
+    /**
+     * One column buffered in a side file while the vectors are being written
+     */
+    private static final class ColumnFile {
+        private final Path path;
+        private final DataOutputStream out;
+
+        ColumnFile(Path path) throws IOException {
+            this.path = path;
+            this.out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(path), 1 << 16));
+        }
+
+        void appendTo(OutputStream target) throws IOException {
+            out.close();
+            Files.copy(path, target);
+        }
+
+        void delete() throws IOException {
+            out.close();
+            Files.deleteIfExists(path);
+        }
+    }
+
+    /**
+     * Advance past count strings, returning a view that starts after them
+     */
+    private static ByteBuffer skipStrings(ByteBuffer buf, int count) {
+        for (int i = 0; i < count; i++) {
+            int length = buf.getInt();
+            if (length > 0) {
+                buf.position(buf.position() + length);
+            }
+        }
+        return buf.slice();
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        if (value == null) {
+            out.writeInt(-1);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(ByteBuffer buf) {
+        int length = buf.getInt();
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        buf.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
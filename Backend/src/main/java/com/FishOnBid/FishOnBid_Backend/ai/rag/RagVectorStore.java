@@ -3,45 +3,219 @@ package com.FishOnBid.FishOnBid_Backend.ai.rag;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
 import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.stream.Collectors;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
 
 /**
  * In-Memory Vector Store for RAG.
  * 
  * Feature Flags:
- * - rag.vector.store=IN_MEMORY (default)
+ * - rag.vector.store=IN_MEMORY (default): exact linear scan
+ * - rag.vector.store=HNSW: approximate nearest-neighbour graph (see HnswIndex)
  * - rag.vector.store=PINECONE (future)
+ * - rag.vector.hnsw.m=16, rag.vector.hnsw.ef-construction=200,
+ *   rag.vector.hnsw.ef-search=64 (defaults): HNSW graph degree and beam widths
+ * - rag.vector.partition.by=FISH (default) | FISH_LOCATION | NONE: one index per
+ *   normalized fish name (and harbor), so context queries only score their partition
+ * - rag.vector.partition.fallback=ALL (default) | FISH | NONE: where a context query
+ *   widens when its partition has fewer than K documents
+ * - rag.vector.simd=true (default): use the Vector API kernel when it was built
+ *   (mvn -Psimd) and the JVM runs with --add-modules jdk.incubator.vector, scalar
+ *   kernel otherwise
+ * - rag.vector.storage=HEAP (default) | OFF_HEAP | MAPPED: where the exact store
+ *   keeps vectors and numeric metadata; OFF_HEAP uses direct buffers, MAPPED uses
+ *   memory-mapped scratch files under rag.vector.storage.dir (data/rag-vectors)
+ * - rag.vector.quantization=NONE (default) | INT8: exact store scans int8 codes
+ *   first and rescores the best K * rag.vector.quantization.rescore-factor (4)
+ *   candidates at float32. The codes are kept in addition to the float vectors,
+ *   so use it with storage=MAPPED: the heap then holds 1 byte per dimension and
+ *   only rescored rows are read from the mapped floats (QuantizedScanBenchmark)
+ * - rag.index.retention-days=30 (default): documents are bucketed into one time
+ *   segment per day and whole segments are evicted once they age out
+ * - rag.index.snapshot.enabled=true (default): persist the index to a binary
+ *   snapshot (see RagSnapshotFile) every 15 minutes when changed and on shutdown
+ * - rag.index.snapshot.path=data/rag-index.snapshot (default)
+ * - rag.query.cache.enabled=true (default): LRU cache of context-query results
+ *   (see RagQueryCache), invalidated by every index write through the index epoch
+ * - rag.query.cache.max-entries=1024, rag.query.cache.price-bucket=50 (defaults):
+ *   cache size and the width of the target-price buckets it keys on
  * 
- * Implements cosine similarity for semantic search.
+ * Implements cosine similarity for semantic search over a structure-of-arrays
+ * layout (see ContiguousVectorStore): one contiguous float32 vector array scanned
+ * linearly into a bounded top-K heap. Documents are split into partitions by fish
+ * (see PartitionedVectorIndex) so a context query scores only its own species.
+ *
+ * Batches of context queries (queryBatchByContext) share one pass per partition.
+ * Context queries go through a result cache keyed on the index epoch, which every
+ * write bumps, so cached results are never older than the index.
+ *
+ * Documents are written incrementally. A full rebuild loads into a fresh snapshot
+ * off to the side (receiving concurrent writes as well) and swaps it in with one
+ * volatile write, so queries never see an empty or partial index.
  */
 @Service
 @Slf4j
 @RequiredArgsConstructor
 public class RagVectorStore {
 
+    private static final long DAY_MILLIS = 24L * 60 * 60 * 1000;
+    // Documents decoded from the snapshot file per chunk on restore
+    private static final int SNAPSHOT_CHUNK = 4096;
+
     private final RagEmbeddingService embeddingService;
 
     @Value("${rag.vector.store:IN_MEMORY}")
     private String storeType;
 
-    // In-memory storage
-    private final Map<String, RagDocument> documents = new ConcurrentHashMap<>();
+    @Value("${rag.vector.simd:true}")
+    private boolean simdEnabled;
+
+    @Value("${rag.vector.hnsw.m:16}")
+    private int hnswM;
+
+    @Value("${rag.vector.hnsw.ef-construction:200}")
+    private int hnswEfConstruction;
+
+    @Value("${rag.vector.hnsw.ef-search:64}")
+    private int hnswEfSearch;
+
+    @Value("${rag.vector.storage:HEAP}")
+    private String storage;
+
+    @Value("${rag.vector.storage.dir:data/rag-vectors}")
+    private String storageDir;
+
+    @Value("${rag.vector.quantization:NONE}")
+    private String quantization;
+
+    @Value("${rag.vector.quantization.rescore-factor:4}")
+    private int rescoreFactor;
+
+    @Value("${rag.vector.partition.by:FISH}")
+    private PartitionedVectorIndex.PartitionBy partitionBy;
+
+    @Value("${rag.vector.partition.fallback:ALL}")
+    private PartitionedVectorIndex.Fallback partitionFallback;
+
+    @Value("${rag.index.retention-days:30}")
+    private long retentionDays;
+
+    @Value("${rag.index.snapshot.enabled:true}")
+    private boolean snapshotEnabled;
+
+    @Value("${rag.index.snapshot.path:data/rag-index.snapshot}")
+    private String snapshotPath;
+
+    @Value("${rag.query.cache.enabled:true}")
+    private boolean queryCacheEnabled;
+
+    @Value("${rag.query.cache.max-entries:1024}")
+    private int queryCacheMaxEntries;
+
+    @Value("${rag.query.cache.price-bucket:50}")
+    private double queryCachePriceBucket;
+
+    // Per-partition exact contiguous scan by default, HNSW graph when rag.vector.store=HNSW
+    private Supplier<VectorIndex> indexFactory;
+
+    // Live snapshot; a rebuild fills `rebuilding` and then swaps it in
+    private volatile IndexSnapshot current;
+    private volatile IndexSnapshot rebuilding;
+    private final Object rebuildLock = new Object();
+
+    private final AtomicLong snapshotSwaps = new AtomicLong();
+
+    // Bumped on every change to query results; cached results carry the epoch they saw
+    private final AtomicLong epoch = new AtomicLong();
+    private RagQueryCache queryCache; // null when rag.query.cache.enabled=false
+    private final AtomicLong evictedDocuments = new AtomicLong();
+
+    // Persisted snapshot bookkeeping
+    private final AtomicBoolean dirty = new AtomicBoolean();
+    private volatile Instant lastPersistedAt;
+    private volatile long lastPersistMillis;
+
+    // Query cost counters (exposed through getStats)
+    private final AtomicLong queryCount = new AtomicLong();
+    private final AtomicLong queryNanos = new AtomicLong();
+    private final AtomicLong batchCount = new AtomicLong();
+    private final AtomicLong batchQueryCount = new AtomicLong();
+    private final AtomicLong batchNanos = new AtomicLong();
 
     @PostConstruct
     public void init() {
-        log.info("RAG Vector Store initialized: mode={}", storeType);
+        if ("HNSW".equalsIgnoreCase(storeType)) {
+            indexFactory = () -> new HnswIndex(hnswM, hnswEfConstruction, hnswEfSearch);
+            log.info("RAG Vector Store initialized: mode=HNSW, m={}, efConstruction={}, efSearch={}, partitionBy={}",
+                    hnswM, hnswEfConstruction, hnswEfSearch, partitionBy);
+        } else {
+            DotProductKernel kernel = DotProductKernels.select(simdEnabled);
+            boolean int8 = "INT8".equalsIgnoreCase(quantization);
+            indexFactory = () -> new ContiguousVectorStore(
+                    kernel, newColumns(), int8 ? new Int8Quantizer() : null, rescoreFactor);
+            log.info("RAG Vector Store initialized: mode={}, kernel={}, storage={}, quantization={}, partitionBy={}",
+                    storeType, kernel.name(), storage, int8 ? "INT8" : "NONE", partitionBy);
+        }
+        current = newSnapshot();
+        if (queryCacheEnabled) {
+            queryCache = new RagQueryCache(queryCacheMaxEntries, queryCachePriceBucket);
+        }
+    }
+
+    private VectorColumns newColumns() {
+        return switch (storage.toUpperCase(Locale.ROOT)) {
+            case "OFF_HEAP" -> new BufferVectorColumns(BufferVectorColumns.Mode.DIRECT, null);
+            case "MAPPED" -> new BufferVectorColumns(BufferVectorColumns.Mode.MAPPED, Path.of(storageDir));
+            default -> new HeapVectorColumns();
+        };
+    }
+
+    private IndexSnapshot newSnapshot() {
+        return new IndexSnapshot(new PartitionedVectorIndex(indexFactory, partitionBy, partitionFallback));
     }
 
     /**
-     * Add a new document to the vector store
+     * Add or replace a document (idempotent per document id)
      */
     public void addDocument(RagDocument doc) {
-        // Generate embedding if not present
+        embedIfMissing(doc);
+
+        // Read `rebuilding` before `current`: a rebuild publishes current before clearing
+        // rebuilding, so a write racing the swap still reaches the new snapshot
+        IndexSnapshot pending = rebuilding;
+        IndexSnapshot live = current;
+        if (pending != null && pending != live) {
+            pending.upsert(doc);
+        }
+        if (!live.upsert(doc)) {
+            log.warn("Skipped document with incompatible embedding: id={}", doc.getId());
+            return;
+        }
+        epoch.incrementAndGet();
+        dirty.set(true);
+        log.debug("Added document to vector store: id={}, fishName={}", doc.getId(), doc.getFishName());
+    }
+
+    /**
+     * Generate the embedding if not present
+     */
+    private void embedIfMissing(RagDocument doc) {
         if (doc.getEmbedding() == null) {
             double[] embedding = embeddingService.generateEmbedding(
                     doc.getFishName(),
@@ -52,9 +226,6 @@ public class RagVectorStore {
             );
             doc.setEmbedding(embedding);
         }
-
-        documents.put(doc.getId(), doc);
-        log.debug("Added document to vector store: id={}, fishName={}", doc.getId(), doc.getFishName());
     }
 
     /**
@@ -66,84 +237,340 @@ public class RagVectorStore {
     }
 
     /**
-     * Query for similar documents using cosine similarity
+     * Query for similar documents using cosine similarity.
+     *
+     * Scores go straight into a bounded top-K heap of primitive (index, score)
+     * pairs, so the scan is O(n log K) with no per-candidate allocation; result
+     * copies are built only for the K winners.
      * 
      * @param queryEmbedding Query vector
      * @param topK Number of results to return
      * @return List of similar documents with scores
      */
     public List<RagDocument> querySimilar(double[] queryEmbedding, int topK) {
-        if (documents.isEmpty()) {
+        PartitionedVectorIndex documents = current.index;
+        return timedQuery(documents, queryEmbedding, topK, () -> documents.topK(queryEmbedding, topK));
+    }
+
+    private List<RagDocument> timedQuery(PartitionedVectorIndex documents, double[] queryEmbedding, int topK,
+                                         Supplier<List<RagDocument>> query) {
+        if (documents.size() == 0) {
             log.warn("Vector store is empty, returning empty results");
             return Collections.emptyList();
         }
+        if (queryEmbedding == null || topK <= 0) {
+            return Collections.emptyList();
+        }
+
+        long start = System.nanoTime();
+        List<RagDocument> results = query.get();
+
+        queryCount.incrementAndGet();
+        queryNanos.addAndGet(System.nanoTime() - start);
+        return results;
+    }
+
+    /**
+     * Remove a document (tombstoned until the next compaction or graph rebuild)
+     */
+    public boolean removeDocument(String id) {
+        IndexSnapshot pending = rebuilding;
+        IndexSnapshot live = current;
+        if (pending != null && pending != live) {
+            pending.remove(id);
+        }
+        dirty.set(true);
+        boolean removed = live.remove(id);
+        epoch.incrementAndGet();
+        return removed;
+    }
+
+    /**
+     * Replace the whole index with the documents from a loader. The new snapshot is
+     * built off to the side (also receiving concurrent addDocument/removeDocument
+     * calls) and swapped in atomically once complete.
+     */
+    public void rebuild(Supplier<List<RagDocument>> loader) {
+        rebuildFrom(sink -> sink.accept(loader.get()));
+    }
+
+    /**
+     * Like rebuild, for sources that produce documents in chunks (e.g. rows streamed
+     * from a database cursor). Each chunk handed to the sink is embedded and indexed
+     * before the source reads the next one, so only one chunk is held at a time.
+     */
+    public void rebuildFrom(Consumer<Consumer<List<RagDocument>>> source) {
+        synchronized (rebuildLock) {
+            long start = System.currentTimeMillis();
+            IndexSnapshot next = newSnapshot();
+            rebuilding = next;
+            try {
+                source.accept(chunk -> chunk.forEach(doc -> {
+                    embedIfMissing(doc);
+                    next.upsert(doc);
+                }));
+                current = next;
+                epoch.incrementAndGet();
+                snapshotSwaps.incrementAndGet();
+                log.info("Vector store rebuilt and swapped in: {} documents in {}ms",
+                        next.index.size(), System.currentTimeMillis() - start);
+            } finally {
+                rebuilding = null;
+            }
+        }
+    }
+
+    /**
+     * Load the persisted snapshot, if there is a usable one, and swap it in.
+     * Returns its watermark (documents closed after it still need indexing), or null
+     * when the caller has to rebuild from the database.
+     *
+     * The file is streamed into the rebuild chunk by chunk, so only one chunk of
+     * decoded documents is live at a time. The rows are still copied into the
+     * partitioned index rather than served from the mapping: the file is one flat
+     * column while the index is split by fish and day (SnapshotRestoreBenchmark).
+     */
+    public Instant restoreSnapshot() {
+        if (!snapshotEnabled) {
+            return null;
+        }
+        Path path = Path.of(snapshotPath);
+        if (!Files.exists(path)) {
+            log.info("No RAG index snapshot at {}", path.toAbsolutePath());
+            return null;
+        }
+        long start = System.currentTimeMillis();
+        Instant[] watermark = new Instant[1];
+        try {
+            rebuildFrom(sink -> {
+                try {
+                    watermark[0] = RagSnapshotFile.read(path, embeddingService.getModelId(), SNAPSHOT_CHUNK, sink);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            log.warn("Ignoring RAG index snapshot {}: {}", path.toAbsolutePath(), e.getCause().getMessage());
+            return null;
+        }
+        log.info("Restored {} documents from RAG index snapshot in {}ms (watermark {})",
+                size(), System.currentTimeMillis() - start, watermark[0]);
+        return watermark[0];
+    }
+
+    /**
+     * Write the current index to the snapshot file, stamped with the given watermark.
+     * Rows are streamed from the partitions' storage into the file, so no copy of
+     * the index is built on the heap.
+     */
+    public void saveSnapshot(Instant watermark) {
+        if (!snapshotEnabled) {
+            return;
+        }
+        long start = System.currentTimeMillis();
+        // Cleared first so writes that race the export mark the store dirty again
+        dirty.set(false);
+        try {
+            int written = RagSnapshotFile.write(Path.of(snapshotPath), embeddingService.getModelId(), watermark,
+                    current.index);
+            lastPersistedAt = watermark;
+            lastPersistMillis = System.currentTimeMillis() - start;
+            log.info("Persisted RAG index snapshot: {} documents in {}ms", written, lastPersistMillis);
+        } catch (IOException e) {
+            dirty.set(true);
+            log.warn("Failed to persist RAG index snapshot to {}: {}", snapshotPath, e.getMessage());
+        }
+    }
+
+    /**
+     * Persist the index if it changed since the last snapshot
+     */
+    @Scheduled(fixedRate = 900000, initialDelay = 900000) // Every 15 minutes
+    public void persistIfChanged() {
+        if (dirty.get()) {
+            saveSnapshot(Instant.now());
+        }
+    }
+
+    @PreDestroy
+    public void persistOnShutdown() {
+        persistIfChanged();
+    }
+
+    /**
+     * Drop whole day segments older than the retention window
+     */
+    @Scheduled(fixedRate = 3600000) // Hourly
+    public void evictExpired() {
+        long cutoffDay = Instant.now().minus(retentionDays, ChronoUnit.DAYS).toEpochMilli() / DAY_MILLIS;
+        int evicted = current.evictBefore(cutoffDay);
+        if (evicted > 0) {
+            epoch.incrementAndGet();
+            dirty.set(true);
+            evictedDocuments.addAndGet(evicted);
+            log.info("Evicted {} expired documents from vector store", evicted);
+        }
+    }
+
+    /**
+     * Squeeze tombstoned slots out of the vector arrays (or rebuild the HNSW graph)
+     * when they pile up
+     */
+    @Scheduled(fixedRate = 600000) // Every 10 minutes
+    public void compact() {
+        PartitionedVectorIndex documents = current.index;
+        if (documents.compactIfFragmented()) {
+            log.info("Vector store compacted: {}", documents.getStats());
+        }
+    }
 
-        return documents.values().stream()
-                .map(doc -> {
-                    double score = cosineSimilarity(queryEmbedding, doc.getEmbedding());
-                    RagDocument copy = RagDocument.builder()
-                            .id(doc.getId())
-                            .fishName(doc.getFishName())
-                            .location(doc.getLocation())
-                            .avgPrice(doc.getAvgPrice())
-                            .quantityKg(doc.getQuantityKg())
-                            .timestamp(doc.getTimestamp())
-                            .embedding(doc.getEmbedding())
-                            .similarityScore(score)
-                            .build();
-                    return copy;
-                })
-                .sorted((a, b) -> Double.compare(b.getSimilarityScore(), a.getSimilarityScore()))
-                .limit(topK)
-                .collect(Collectors.toList());
+    /**
+     * Sample recall@10 of the approximate path (HNSW graph or int8 first pass)
+     * against an exact scan on the largest partition; the result shows up in getStats
+     */
+    @Scheduled(fixedRate = 3600000, initialDelay = 300000) // Hourly
+    public void sampleRecall() {
+        VectorIndex largest = current.index.largestPartition();
+        if (largest == null) {
+            return;
+        }
+        double recall = largest.measureRecall(10, 50);
+        if (!Double.isNaN(recall)) {
+            log.info("Vector store recall@10: {}", recall);
+        }
     }
 
     /**
-     * Query by fish name and location
+     * Query by fish name and location, routed to the matching partition(s).
+     * With the query cache on, the query runs for its normalized key (bucketed
+     * price) and repeats are served from the cache until the index changes.
      */
     public List<RagDocument> queryByContext(String fishName, String location, double targetPrice, int topK) {
+        if (queryCache == null) {
+            return searchByContext(fishName, location, targetPrice, topK);
+        }
+        // Read the epoch before the index, so a write racing the search leaves the entry stale
+        long seen = epoch.get();
+        RagQueryCache.Key key = queryCache.keyFor(fishName, location, targetPrice, topK);
+        List<RagDocument> cached = queryCache.get(key, seen);
+        if (cached != null) {
+            log.debug("RAG query cache hit: {}", key);
+            return cached;
+        }
+        List<RagDocument> results = searchByContext(key.fish(), key.location(), queryCache.bucketPrice(key), topK);
+        return queryCache.put(key, seen, results);
+    }
+
+    private List<RagDocument> searchByContext(String fishName, String location, double targetPrice, int topK) {
         double[] queryEmbedding = embeddingService.generateQueryEmbedding(fishName, location, targetPrice);
         
         log.info("RAG query: fishName={}, location={}, targetPrice={}", fishName, location, targetPrice);
         
-        List<RagDocument> results = querySimilar(queryEmbedding, topK);
+        PartitionedVectorIndex documents = current.index;
+        List<RagDocument> results = timedQuery(documents, queryEmbedding, topK,
+                () -> documents.topK(queryEmbedding, topK, fishName, location));
         
         log.info("RAG query returned {} results", results.size());
         return results;
     }
 
     /**
-     * Calculate cosine similarity between two vectors
+     * One context query of a batch
      */
-    private double cosineSimilarity(double[] a, double[] b) {
-        if (a == null || b == null || a.length != b.length) {
-            return 0.0;
+    public record ContextQuery(String fishName, String location, double targetPrice) {}
+
+    /**
+     * Run many context queries together. Queries routed to the same partition share
+     * one blocked pass over its vectors (see ContiguousVectorStore.topKBatch) instead
+     * of scanning it once each. Result i answers queries.get(i).
+     */
+    public List<List<RagDocument>> queryBatchByContext(List<ContextQuery> queries, int topK) {
+        long seen = epoch.get();
+        PartitionedVectorIndex documents = current.index;
+        List<List<RagDocument>> results = new ArrayList<>(Collections.nCopies(queries.size(), Collections.<RagDocument>emptyList()));
+        if (queries.isEmpty() || documents.size() == 0 || topK <= 0) {
+            return results;
         }
 
-        double dotProduct = 0.0;
-        double normA = 0.0;
-        double normB = 0.0;
+        // Serve what the cache already has; only the misses go into the batched scan
+        List<Integer> pending = new ArrayList<>();
+        List<RagQueryCache.Key> keys = new ArrayList<>(Collections.nCopies(queries.size(), (RagQueryCache.Key) null));
+        for (int i = 0; i < queries.size(); i++) {
+            ContextQuery query = queries.get(i);
+            if (queryCache != null) {
+                RagQueryCache.Key key = queryCache.keyFor(query.fishName(), query.location(), query.targetPrice(), topK);
+                List<RagDocument> cached = queryCache.get(key, seen);
+                if (cached != null) {
+                    results.set(i, cached);
+                    continue;
+                }
+                keys.set(i, key);
+            }
+            pending.add(i);
+        }
+        if (pending.isEmpty()) {
+            return results;
+        }
 
-        for (int i = 0; i < a.length; i++) {
-            dotProduct += a[i] * b[i];
-            normA += a[i] * a[i];
-            normB += b[i] * b[i];
+        int m = pending.size();
+        double[][] embeddings = new double[m][];
+        String[] fishNames = new String[m];
+        String[] locations = new String[m];
+        for (int j = 0; j < m; j++) {
+            int i = pending.get(j);
+            RagQueryCache.Key key = keys.get(i);
+            ContextQuery query = key == null
+                    ? queries.get(i)
+                    : new ContextQuery(key.fish(), key.location(), queryCache.bucketPrice(key));
+            embeddings[j] = embeddingService.generateQueryEmbedding(query.fishName(), query.location(), query.targetPrice());
+            fishNames[j] = query.fishName();
+            locations[j] = query.location();
         }
 
-        double denominator = Math.sqrt(normA) * Math.sqrt(normB);
-        if (denominator == 0) return 0.0;
+        long start = System.nanoTime();
+        List<List<RagDocument>> found = documents.topKBatch(embeddings, topK, fishNames, locations);
+        long elapsed = System.nanoTime() - start;
 
-        return dotProduct / denominator;
+        for (int j = 0; j < m; j++) {
+            int i = pending.get(j);
+            RagQueryCache.Key key = keys.get(i);
+            results.set(i, key == null ? found.get(j) : queryCache.put(key, seen, found.get(j)));
+        }
+        batchCount.incrementAndGet();
+        batchQueryCount.addAndGet(m);
+        batchNanos.addAndGet(elapsed);
+        log.info("RAG batch query: {} of {} queries scanned in {}ms", m, queries.size(), elapsed / 1_000_000);
+        return results;
     }
 
     /**
      * Get store statistics
      */
     public Map<String, Object> getStats() {
+        long queries = queryCount.get();
+        IndexSnapshot snapshot = current;
         return Map.of(
                 "storeType", storeType,
-                "documentCount", documents.size(),
-                "available", true
+                "documentCount", snapshot.index.size(),
+                "available", true,
+                "queries", queries,
+                "avgQueryMicros", queries > 0 ? queryNanos.get() / queries / 1000 : 0,
+                "batch", Map.of(
+                        "batches", batchCount.get(),
+                        "queries", batchQueryCount.get(),
+                        "avgMicrosPerQuery", batchQueryCount.get() > 0 ? batchNanos.get() / batchQueryCount.get() / 1000 : 0
+                ),
+                "queryCache", queryCache != null ? queryCache.getStats() : "disabled",
+                "lifecycle", Map.of(
+                        "epoch", epoch.get(),
+                        "timeSegments", snapshot.segmentCount(),
+                        "evictedDocuments", evictedDocuments.get(),
+                        "snapshotSwaps", snapshotSwaps.get(),
+                        "rebuilding", rebuilding != null,
+                        "lastPersisted", lastPersistedAt != null ? lastPersistedAt.toString() : "never",
+                        "lastPersistMillis", lastPersistMillis
+                ),
+                "partitioning", snapshot.index.getStats()
         );
     }
 
@@ -151,7 +578,11 @@ public class RagVectorStore {
      * Clear all documents (for testing)
      */
     public void clear() {
-        documents.clear();
+        current = newSnapshot();
+        epoch.incrementAndGet();
+        if (queryCache != null) {
+            queryCache.clear();
+        }
         log.info("Vector store cleared");
     }
 
@@ -159,6 +590,66 @@ public class RagVectorStore {
      * Get document count
      */
     public int size() {
-        return documents.size();
+        return current.index.size();
+    }
+
+    /**
+     * One generation of the index plus its day segments (docIds bucketed by the day
+     * of their timestamp), so expiry drops whole days without scanning documents
+     */
+    private static final class IndexSnapshot {
+        private final PartitionedVectorIndex index;
+        private final ConcurrentSkipListMap<Long, Set<String>> docIdsByDay = new ConcurrentSkipListMap<>();
+        private final Map<String, Long> dayByDocId = new ConcurrentHashMap<>();
+
+        IndexSnapshot(PartitionedVectorIndex index) {
+            this.index = index;
+        }
+
+        boolean upsert(RagDocument doc) {
+            if (!index.upsert(doc)) {
+                return false;
+            }
+            long day = doc.getTimestamp() / DAY_MILLIS;
+            Long previous = dayByDocId.put(doc.getId(), day);
+            if (previous != null && previous != day) {
+                Set<String> old = docIdsByDay.get(previous);
+                if (old != null) {
+                    old.remove(doc.getId());
+                }
+            }
+            docIdsByDay.computeIfAbsent(day, d -> ConcurrentHashMap.newKeySet()).add(doc.getId());
+            return true;
+        }
+
+        boolean remove(String docId) {
+            Long day = dayByDocId.remove(docId);
+            if (day != null) {
+                Set<String> segment = docIdsByDay.get(day);
+                if (segment != null) {
+                    segment.remove(docId);
+                }
+            }
+            return index.remove(docId);
+        }
+
+        int evictBefore(long cutoffDay) {
+            int evicted = 0;
+            Map.Entry<Long, Set<String>> segment;
+            while ((segment = docIdsByDay.firstEntry()) != null && segment.getKey() < cutoffDay) {
+                docIdsByDay.remove(segment.getKey());
+                for (String docId : segment.getValue()) {
+                    dayByDocId.remove(docId);
+                    if (index.remove(docId)) {
+                        evicted++;
+                    }
+                }
+            }
+            return evicted;
+        }
+
+        int segmentCount() {
+            return docIdsByDay.size();
+        }
     }
 }
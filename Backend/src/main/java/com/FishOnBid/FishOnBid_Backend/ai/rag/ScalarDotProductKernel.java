@@ -0,0 +1,45 @@
+package com.FishOnBid.FishOnBid_Backend.ai.rag;
+
+/**
+ * Portable kernel: four candidates per iteration so the loads of independent rows
+ * overlap, with a single-row tail.
+ */
+final class ScalarDotProductKernel implements DotProductKernel {
+
+    @Override
+    public void scores(float[] query, float[] vectors, int dim, int fromSlot, int toSlot, float[] out) {
+        int slot = fromSlot;
+        for (; slot + 4 <= toSlot; slot += 4) {
+            int b0 = slot * dim;
+            int b1 = b0 + dim;
+            int b2 = b1 + dim;
+            int b3 = b2 + dim;
+            float s0 = 0f, s1 = 0f, s2 = 0f, s3 = 0f;
+            for (int d = 0; d < dim; d++) {
+                float q = query[d];
+                s0 += q * vectors[b0 + d];
+                s1 += q * vectors[b1 + d];
+                s2 += q * vectors[b2 + d];
+                s3 += q * vectors[b3 + d];
+            }
+            int o = slot - fromSlot;
+            out[o] = s0;
+            out[o + 1] = s1;
+            out[o + 2] = s2;
+            out[o + 3] = s3;
+        }
+        for (; slot < toSlot; slot++) {
+            int base = slot * dim;
+            float s = 0f;
+            for (int d = 0; d < dim; d++) {
+                s += query[d] * vectors[base + d];
+            }
+            out[slot - fromSlot] = s;
+        }
+    }
+
+    @Override
+    public String name() {
+        return "SCALAR";
+    }
+}
@@ -0,0 +1,114 @@
+package com.FishOnBid.FishOnBid_Backend.ai.rag;
+
+/**
+ * Bounded min-heap over primitive (index, score) pairs.
+ *
+ * Keeps the K highest scores seen so far in O(n log K) time without boxing or
+ * per-candidate allocation; the root is the weakest of the current winners, so most
+ * candidates are rejected with a single comparison.
+ */
+final class TopKHeap {
+
+    private final int[] indices;
+    private final float[] scores;
+    private int size;
+
+    TopKHeap(int capacity) {
+        this.indices = new int[capacity];
+        this.scores = new float[capacity];
+    }
+
+    /**
+     * Offer a candidate; it is kept only if it beats the current weakest winner
+     */
+    void offer(int index, float score) {
+        if (indices.length == 0) {
+            return;
+        }
+        if (size < indices.length) {
+            indices[size] = index;
+            scores[size] = score;
+            siftUp(size++);
+        } else if (score > scores[0]) {
+            indices[0] = index;
+            scores[0] = score;
+            siftDown(0);
+        }
+    }
+
+    /**
+     * Offer every entry of another heap (e.g. one built over a different slot range)
+     */
+    void offerAll(TopKHeap other) {
+        for (int i = 0; i < other.size; i++) {
+            offer(other.indices[i], other.scores[i]);
+        }
+    }
+
+    /**
+     * Minimum score a candidate must beat to enter a full heap
+     */
+    float threshold() {
+        return size < indices.length ? Float.NEGATIVE_INFINITY : scores[0];
+    }
+
+    int size() {
+        return size;
+    }
+
+    /**
+     * Drain the heap into parallel arrays ordered by descending score.
+     * The heap is empty afterwards.
+     */
+    int drainDescending(int[] outIndices, float[] outScores) {
+        int count = size;
+        for (int i = count - 1; i >= 0; i--) {
+            outIndices[i] = indices[0];
+            outScores[i] = scores[0];
+            size--;
+            if (size > 0) {
+                indices[0] = indices[size];
+                scores[0] = scores[size];
+                siftDown(0);
+            }
+        }
+        return count;
+    }
+
+    private void siftUp(int i) {
+        int index = indices[i];
+        float score = scores[i];
+        while (i > 0) {
+            int parent = (i - 1) >>> 1;
+            if (scores[parent] <= score) {
+                break;
+            }
+            indices[i] = indices[parent];
+            scores[i] = scores[parent];
+            i = parent;
+        }
+        indices[i] = index;
+        scores[i] = score;
+    }
+
+    private void siftDown(int i) {
+        int index = indices[i];
+        float score = scores[i];
+        int half = size >>> 1;
+        while (i < half) {
+            int child = 2 * i + 1;
+            int right = child + 1;
+            if (right < size && scores[right] < scores[child]) {
+                child = right;
+            }
+            if (score <= scores[child]) {
+                break;
+            }
+            indices[i] = indices[child];
+            scores[i] = scores[child];
+            i = child;
+        }
+        indices[i] = index;
+        scores[i] = score;
+    }
+}
@@ -0,0 +1,60 @@
+package com.FishOnBid.FishOnBid_Backend.ai.rag;
+
+/**
+ * Numeric columns of a ContiguousVectorStore: the row-major unit vectors plus
+ * price, quantity and timestamp per slot. Either plain heap arrays or off-heap
+ * buffers; the store owns slot bookkeeping and locking.
+ */
+interface VectorColumns {
+
+    /**
+     * Drop all contents and size the columns for the given dimension and slot count
+     */
+    void allocate(int dimension, int slots);
+
+    /**
+     * Grow to the given slot count, keeping contents
+     */
+    void grow(int slots);
+
+    void writeVector(int slot, float[] unitVector);
+
+    void readVector(int slot, double[] out);
+
+    void writeNumbers(int slot, double price, double quantity, long timestamp);
+
+    double price(int slot);
+
+    double quantity(int slot);
+
+    long timestamp(int slot);
+
+    /**
+     * Copy one slot over another (used by compaction)
+     */
+    void move(int from, int to);
+
+    /**
+     * Score slots [fromSlot, toSlot) against the query, writing score i into
+     * out[i - fromSlot]
+     */
+    void scores(DotProductKernel kernel, float[] query, int fromSlot, int toSlot, float[] out);
+
+    /**
+     * Score slots [fromSlot, toSlot) against several queries, writing query q's
+     * scores into out[q]; the block is visited once per query while it is still in
+     * cache
+     */
+    default void scores(DotProductKernel kernel, float[][] queries, int fromSlot, int toSlot, float[][] out) {
+        for (int q = 0; q < queries.length; q++) {
+            scores(kernel, queries[q], fromSlot, toSlot, out[q]);
+        }
+    }
+
+    /**
+     * Bytes held outside the Java heap
+     */
+    long offHeapBytes();
+
+    String name();
+}
@@ -0,0 +1,94 @@
+package com.FishOnBid.FishOnBid_Backend.ai.rag;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Storage/search backend behind RagVectorStore, selected by rag.vector.store.
+ */
+interface VectorIndex {
+
+    /**
+     * Insert or replace a document; returns false if its embedding is unusable
+     */
+    boolean upsert(RagDocument doc);
+
+    /**
+     * Tombstone a document by id
+     */
+    boolean remove(String docId);
+
+    /**
+     * Best K live documents by cosine similarity, highest first
+     */
+    List<RagDocument> topK(double[] query, int k);
+
+    /**
+     * topK for several queries at once, result i belonging to queries[i]. Backends
+     * that can share one pass over their vectors between the queries override this.
+     */
+    default List<List<RagDocument>> topKBatch(double[][] queries, int k) {
+        List<List<RagDocument>> results = new ArrayList<>(queries.length);
+        for (double[] query : queries) {
+            results.add(topK(query, k));
+        }
+        return results;
+    }
+
+    /**
+     * Reclaim tombstones if they pass the backend's threshold; returns whether it ran
+     */
+    boolean compactIfFragmented();
+
+    /**
+     * One live document as the backend stores it. The embedding is unit length and
+     * the array is reused between calls, so copy it to keep it.
+     */
+    @FunctionalInterface
+    interface DocumentVisitor {
+        void visit(String id, String fishName, String location, double price, double quantity, long timestamp,
+                   double[] embedding);
+    }
+
+    /**
+     * Hand every live document to the visitor straight from the backend's storage,
+     * returning the count; documents written meanwhile may or may not be visited.
+     * Persisting a snapshot streams through this without building documents.
+     */
+    int forEachDocument(DocumentVisitor visitor);
+
+    /**
+     * Copies of all live documents with their unit-length embeddings. This holds a
+     * second copy of the index on the heap, so it is only meant for small indexes
+     * and tests.
+     */
+    default List<RagDocument> exportDocuments() {
+        List<RagDocument> documents = new ArrayList<>(size());
+        forEachDocument((id, fishName, location, price, quantity, timestamp, embedding) ->
+                documents.add(RagDocument.builder()
+                        .id(id)
+                        .fishName(fishName)
+                        .location(location)
+                        .avgPrice(price)
+                        .quantityKg(quantity)
+                        .timestamp(timestamp)
+                        .embedding(embedding.clone())
+                        .build()));
+        return documents;
+    }
+
+    /**
+     * Sample recall@K of the approximate search path against an exact scan, for
+     * backends that have one; NaN otherwise
+     */
+    default double measureRecall(int k, int sampleQueries) {
+        return Double.NaN;
+    }
+
+    void clear();
+
+    int size();
+
+    Map<String, Object> getStats();
+}
@@ -4,10 +4,17 @@ import com.FishOnBid.FishOnBid_Backend.ai.dto.AiExplanationDTO;
 import com.FishOnBid.FishOnBid_Backend.ai.dto.AiPriceRequestDTO;
 import com.FishOnBid.FishOnBid_Backend.ai.dto.AiPriceResponseDTO;
 import com.FishOnBid.FishOnBid_Backend.ai.dto.RagDataDTO;
+import com.FishOnBid.FishOnBid_Backend.events.AuctionClosedEvent;
+import com.FishOnBid.FishOnBid_Backend.events.MarketDataImportedEvent;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
 
+import jakarta.annotation.PostConstruct;
 import java.util.LinkedHashMap;
 import java.util.Map;
 
@@ -15,6 +22,19 @@ import java.util.Map;
  * AI Pricing Service implementing RAG-based price suggestions.
  * Uses historical auction data to generate intelligent price recommendations
  * with structured, farmer-facing AI explanations.
+ *
+ * The RAG retrieval for a (fish, location) is cached; the external price lookup,
+ * quantity and freshness adjustments and the explanation run per request, so
+ * cached and uncached calls return the same price. A closed auction or an
+ * imported government record drops the cached RAG retrievals for its fish at every
+ * location, since a location request can widen to the fish's nationwide history;
+ * imported generic "Fish" records feed every species' govt baseline and clear the
+ * whole cache.
+ *
+ * Feature Flags:
+ * - ai.pricing.cache.enabled=true (default): cache RAG retrievals
+ * - ai.pricing.cache.ttl-seconds=300 (default): expiry when no event touches the fish
+ * - ai.pricing.cache.max-entries=2048 (default): LRU bound
  */
 @Service
 @RequiredArgsConstructor
@@ -30,6 +50,23 @@ public class AiPricingService {
     private static final double CONFIDENCE_RANGE_PERCENT = 0.10;
     private static final int DEFAULT_LOOKBACK_DAYS = 90; // Increased from 7 to 90 days for historical data
     private static final double EXTERNAL_DATA_WEIGHT = 0.30;
+    private static final String GENERIC_FISH = "Fish";
+
+    @Value("${ai.pricing.cache.enabled:true}")
+    private boolean cacheEnabled;
+
+    @Value("${ai.pricing.cache.ttl-seconds:300}")
+    private long cacheTtlSeconds;
+
+    @Value("${ai.pricing.cache.max-entries:2048}")
+    private int cacheMaxEntries;
+
+    private RagDataCache ragDataCache;
+
+    @PostConstruct
+    public void init() {
+        ragDataCache = new RagDataCache(cacheMaxEntries, cacheTtlSeconds);
+    }
 
     /**
      * Generate AI-assisted price suggestion using RAG and External Insights.
@@ -41,19 +78,7 @@ public class AiPricingService {
         long startTime = System.currentTimeMillis();
 
         // Step 1: Retrieve historical data (RAG with Dynamic Trust)
-        RagDataDTO ragData;
-        if (request.location() != null && !request.location().isBlank()) {
-            ragData = ragService.fetchHistoricalDataByLocation(
-                    request.fishName(),
-                    request.location(),
-                    DEFAULT_LOOKBACK_DAYS
-            );
-        } else {
-            ragData = ragService.fetchHistoricalData(
-                    request.fishName(),
-                    DEFAULT_LOOKBACK_DAYS
-            );
-        }
+        RagDataDTO ragData = cacheEnabled ? cachedHistoricalData(request) : fetchHistoricalData(request);
 
         // Step 2: Fetch external market pulse
         Double externalPrice = externalDataService.getExternalMarketPrice(request.fishName());
@@ -74,6 +99,65 @@ public class AiPricingService {
         return response;
     }
 
+    private RagDataDTO cachedHistoricalData(AiPriceRequestDTO request) {
+        RagDataCache.Key key = ragDataCache.keyFor(request.fishName(), request.location());
+        RagDataDTO cached = ragDataCache.get(key);
+        if (cached != null) {
+            log.info("AI_RAG_CACHE_HIT: fishName={}, location={}", request.fishName(), request.location());
+            return cached;
+        }
+        RagDataCache.Stamp stamp = ragDataCache.stamp(key);
+        RagDataDTO ragData = fetchHistoricalData(request);
+        ragDataCache.put(key, stamp, ragData);
+        return ragData;
+    }
+
+    private RagDataDTO fetchHistoricalData(AiPriceRequestDTO request) {
+        if (request.location() != null && !request.location().isBlank()) {
+            return ragService.fetchHistoricalDataByLocation(
+                    request.fishName(),
+                    request.location(),
+                    DEFAULT_LOOKBACK_DAYS
+            );
+        }
+        return ragService.fetchHistoricalData(
+                request.fishName(),
+                DEFAULT_LOOKBACK_DAYS
+        );
+    }
+
+    /**
+     * Drop cached RAG retrievals for the fish once the close has committed
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void handleAuctionClosed(AuctionClosedEvent event) {
+        if (cacheEnabled && event.getFishName() != null) {
+            ragDataCache.invalidateFish(event.getFishName());
+        }
+    }
+
+    /**
+     * Drop cached RAG retrievals for the fish in an imported government batch
+     */
+    @EventListener
+    public void handleMarketDataImported(MarketDataImportedEvent event) {
+        if (!cacheEnabled) {
+            return;
+        }
+        if (event.getFishNames().stream().anyMatch(GENERIC_FISH::equalsIgnoreCase)) {
+            ragDataCache.invalidateAll();
+        } else {
+            event.getFishNames().forEach(ragDataCache::invalidateFish);
+        }
+    }
+
+    public Map<String, Object> getCacheStats() {
+        return Map.of(
+                "enabled", cacheEnabled,
+                "ragData", ragDataCache.getStats()
+        );
+    }
+
     /**
      * Generate hybrid price with structured explanation breakdown.
      */
@@ -2,6 +2,7 @@ package com.FishOnBid.FishOnBid_Backend.ai.service;
 
 import com.FishOnBid.FishOnBid_Backend.ai.dto.GovtFishResponseDTO;
 import com.FishOnBid.FishOnBid_Backend.entity.Auction;
+import com.FishOnBid.FishOnBid_Backend.events.EventPublisher;
 import com.FishOnBid.FishOnBid_Backend.repository.AuctionRepository;
 import io.github.resilience4j.circuitbreaker.CircuitBreaker;
 import io.github.resilience4j.circuitbreaker.CircuitBreakerConfig;
@@ -40,6 +41,7 @@ import java.util.concurrent.atomic.AtomicReference;
 public class ExternalFisheriesService {
 
     private final AuctionRepository auctionRepository;
+    private final EventPublisher eventPublisher;
     private final WebClient webClient;
     private final CircuitBreaker circuitBreaker;
 
@@ -76,8 +78,10 @@ public class ExternalFisheriesService {
             "Tripura", "Odisha", "Maharashtra", "Karnataka", "Goa"
     );
 
-    public ExternalFisheriesService(AuctionRepository auctionRepository, WebClient.Builder webClientBuilder) {
+    public ExternalFisheriesService(AuctionRepository auctionRepository, EventPublisher eventPublisher,
+                                    WebClient.Builder webClientBuilder) {
         this.auctionRepository = auctionRepository;
+        this.eventPublisher = eventPublisher;
         this.webClient = webClientBuilder.build();
 
         // Configure Circuit Breaker (Priority 5)
@@ -285,12 +289,15 @@ public class ExternalFisheriesService {
         log.info("[Strategy 4/{}] Fetched {} records.", source, response.getRecords().size());
         AtomicInteger savedCount = new AtomicInteger(0);
         AtomicInteger skippedCount = new AtomicInteger(0);
+        List<Long> savedIds = new ArrayList<>();
+        Set<String> savedFish = new HashSet<>();
 
         response.getRecords().forEach(record -> {
             try {
                 Auction auction = mapToAuction(record, isPascalCase);
                 if (auction != null) {
-                    auctionRepository.save(auction);
+                    savedIds.add(auctionRepository.save(auction).getId());
+                    savedFish.add(auction.getFishName());
                     savedCount.incrementAndGet();
                 }  else {
                     skippedCount.incrementAndGet();
@@ -307,6 +314,10 @@ public class ExternalFisheriesService {
                     source, savedCount.get(), skippedCount.get());
         }
 
+        // Lets the RAG index pick up the new records without a full reindex
+        if (!savedIds.isEmpty()) {
+            eventPublisher.publishMarketDataImported(source, savedIds, savedFish);
+        }
         return savedCount.get();
     }
 
@@ -0,0 +1,332 @@
+package com.FishOnBid.FishOnBid_Backend.ai.service;
+
+import com.FishOnBid.FishOnBid_Backend.ai.dto.RagIndexRowDTO;
+import com.FishOnBid.FishOnBid_Backend.entity.Auction;
+import com.FishOnBid.FishOnBid_Backend.events.AuctionClosedEvent;
+import com.FishOnBid.FishOnBid_Backend.events.MarketDataImportedEvent;
+import com.FishOnBid.FishOnBid_Backend.repository.AuctionRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import jakarta.annotation.PostConstruct;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+
+/**
+ * Daily price rollups of closed auctions for the RAG trust formula.
+ *
+ * Keeps count, price sum/min/max and quantity sum per (fish, location, day,
+ * dataSource), so RagService weights a few dozen day buckets instead of loading
+ * thousands of raw rows per request. Days are UTC days of the auction end time.
+ *
+ * Filled from the database in the background once the application is ready
+ * (streamed projection, last retention-days), updated when auctions close and
+ * when government records are imported, and rebuilt nightly as a reconciliation. A rebuild fills a fresh state off to the
+ * side (receiving concurrent updates too) and swaps it in, like RagVectorStore.
+ *
+ * Feature Flags:
+ * - rag.rollup.enabled=true (default): RagService reads rollups; false falls back
+ *   to the raw auction queries
+ * - rag.rollup.retention-days=90 (default): window loaded and kept
+ * - rag.rollup.rebuild-cron=0 45 3 * * * (default): nightly full rebuild
+ */
+@Service
+@Slf4j
+@RequiredArgsConstructor
+public class PriceRollupService {
+
+    private final AuctionRepository auctionRepository;
+    private final PlatformTransactionManager transactionManager;
+
+    @Value("${rag.rollup.enabled:true}")
+    private boolean enabled;
+
+    @Value("${rag.rollup.retention-days:90}")
+    private int retentionDays;
+
+    private TransactionTemplate readOnlyTransaction;
+
+    // Live state; a rebuild fills `rebuilding` and then swaps it in
+    private volatile RollupState current = new RollupState();
+    private volatile RollupState rebuilding;
+    private volatile boolean ready;
+    private volatile Instant lastRebuild;
+    private volatile long lastRebuildMillis;
+
+    /**
+     * Aggregates of one (fish, location, day, dataSource) bucket
+     */
+    public record DailyRollup(
+            String fishName,
+            String location,
+            long epochDay,
+            Auction.AuctionDataSource dataSource,
+            int count,
+            double sumPrice,
+            double minPrice,
+            double maxPrice,
+            double sumQuantityKg
+    ) {
+        /**
+         * Single-row bucket, for aggregating raw auctions the same way
+         */
+        public static DailyRollup of(Auction auction, long epochDay) {
+            double quantity = auction.getQuantityKg() != null ? auction.getQuantityKg() : 0;
+            return new DailyRollup(auction.getFishName(), auction.getLocation(), epochDay, auction.getDataSource(),
+                    1, auction.getCurrentPrice(), auction.getCurrentPrice(), auction.getCurrentPrice(), quantity);
+        }
+
+        /**
+         * This bucket cut down to at most `records` rows at its average price and
+         * quantity, for record caps that end part-way through a day
+         */
+        public DailyRollup limit(int records) {
+            if (records >= count) {
+                return this;
+            }
+            double share = records / (double) count;
+            return new DailyRollup(fishName, location, epochDay, dataSource,
+                    records, sumPrice * share, minPrice, maxPrice, sumQuantityKg * share);
+        }
+    }
+
+    @PostConstruct
+    public void init() {
+        readOnlyTransaction = new TransactionTemplate(transactionManager);
+        readOnlyTransaction.setReadOnly(true);
+    }
+
+    /**
+     * First load on a virtual thread once the application is up, so startup does
+     * not wait on the scan; until it lands covers() is false and RagService reads
+     * the raw auctions
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadOnStartup() {
+        if (enabled) {
+            Thread.ofVirtual().name("price-rollup-load").start(this::rebuild);
+        }
+    }
+
+    /**
+     * Whether rollups are enabled and cover the requested lookback
+     */
+    public boolean covers(int daysBack) {
+        return enabled && ready && daysBack <= retentionDays;
+    }
+
+    /**
+     * Buckets for a fish (optionally one location) from fromDay on, newest first.
+     * Fish and location match case-insensitively, like the MySQL collation the raw
+     * queries rely on.
+     */
+    public List<DailyRollup> find(String fishName, String location, long fromDay) {
+        Map<BucketKey, Bucket> buckets = current.byFish.get(normalize(fishName));
+        if (buckets == null) {
+            return List.of();
+        }
+        String loc = location != null ? normalize(location) : null;
+        List<DailyRollup> result = new ArrayList<>();
+        buckets.forEach((key, bucket) -> {
+            if (key.epochDay() >= fromDay && (loc == null || key.location().equals(loc))) {
+                result.add(bucket.snapshot(key));
+            }
+        });
+        result.sort(Comparator.comparingLong(DailyRollup::epochDay).reversed());
+        return result;
+    }
+
+    /**
+     * Reload the retention window from the database and swap it in
+     */
+    public synchronized void rebuild() {
+        long start = System.currentTimeMillis();
+        RollupState next = new RollupState();
+        rebuilding = next;
+        try {
+            Instant from = Instant.now().minus(retentionDays, ChronoUnit.DAYS);
+            Integer rows = readOnlyTransaction.execute(status -> {
+                int count = 0;
+                try (Stream<RagIndexRowDTO> stream = auctionRepository.streamCompletedSince(from)) {
+                    for (RagIndexRowDTO row : (Iterable<RagIndexRowDTO>) stream::iterator) {
+                        if (next.add(row.id(), row.fishName(), row.location(), row.endTime(),
+                                row.dataSource(), row.currentPrice(), row.quantityKg())) {
+                            count++;
+                        }
+                    }
+                }
+                return count;
+            });
+            current = next;
+            ready = true;
+            lastRebuild = Instant.now();
+            lastRebuildMillis = System.currentTimeMillis() - start;
+            log.info("Price rollups rebuilt: {} auctions into {} buckets in {}ms",
+                    rows, next.bucketCount(), lastRebuildMillis);
+        } catch (Exception e) {
+            log.warn("Price rollup rebuild failed, keeping previous state: {}", e.getMessage());
+        } finally {
+            rebuilding = null;
+        }
+    }
+
+    @Scheduled(cron = "${rag.rollup.rebuild-cron:0 45 3 * * *}")
+    public void nightlyRebuild() {
+        if (enabled) {
+            rebuild();
+        }
+    }
+
+    /**
+     * Roll up an auction once its close has committed. Runs first, so caches built
+     * on the rollups (AiPricingService) invalidate only after the new data is in.
+     */
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void handleAuctionClosed(AuctionClosedEvent event) {
+        if (!enabled) {
+            return;
+        }
+        try {
+            auctionRepository.findById(event.getAuctionId()).ifPresent(this::add);
+        } catch (Exception e) {
+            log.warn("Failed to roll up closed auction {}: {}", event.getAuctionId(), e.getMessage());
+        }
+    }
+
+    /**
+     * Roll up a batch of imported government records
+     */
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    @EventListener
+    public void handleMarketDataImported(MarketDataImportedEvent event) {
+        if (!enabled) {
+            return;
+        }
+        try {
+            auctionRepository.findAllById(event.getAuctionIds()).forEach(this::add);
+        } catch (Exception e) {
+            log.warn("Failed to roll up imported records from {}: {}", event.getSource(), e.getMessage());
+        }
+    }
+
+    private void add(Auction auction) {
+        if (auction.isActive()) {
+            return;
+        }
+        // Read `rebuilding` before `current`, as in RagVectorStore.addDocument
+        RollupState pending = rebuilding;
+        RollupState live = current;
+        if (pending != null && pending != live) {
+            pending.add(auction.getId(), auction.getFishName(), auction.getLocation(), auction.getEndTime(),
+                    auction.getDataSource(), auction.getCurrentPrice(), auction.getQuantityKg());
+        }
+        live.add(auction.getId(), auction.getFishName(), auction.getLocation(), auction.getEndTime(),
+                auction.getDataSource(), auction.getCurrentPrice(), auction.getQuantityKg());
+    }
+
+    public Map<String, Object> getStats() {
+        RollupState state = current;
+        return Map.of(
+                "enabled", enabled,
+                "ready", ready,
+                "retentionDays", retentionDays,
+                "fishTypes", state.byFish.size(),
+                "buckets", state.bucketCount(),
+                "auctions", state.rolledUp.size(),
+                "lastRebuild", lastRebuild != null ? lastRebuild.toString() : "never",
+                "lastRebuildMillis", lastRebuildMillis
+        );
+    }
+
+    static long epochDay(Instant instant) {
+        return LocalDate.ofInstant(instant, ZoneOffset.UTC).toEpochDay();
+    }
+
+    private static String normalize(String value) {
+        return value == null ? "" : value.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private record BucketKey(String location, long epochDay, Auction.AuctionDataSource dataSource) {}
+
+    /**
+     * Running aggregates; the first-seen spellings are kept for display
+     */
+    private static final class Bucket {
+        private final String fishName;
+        private final String location;
+        private int count;
+        private double sumPrice;
+        private double minPrice = Double.MAX_VALUE;
+        private double maxPrice = -Double.MAX_VALUE;
+        private double sumQuantityKg;
+
+        Bucket(String fishName, String location) {
+            this.fishName = fishName;
+            this.location = location;
+        }
+
+        synchronized void add(double price, Double quantityKg) {
+            count++;
+            sumPrice += price;
+            minPrice = Math.min(minPrice, price);
+            maxPrice = Math.max(maxPrice, price);
+            sumQuantityKg += quantityKg != null ? quantityKg : 0;
+        }
+
+        synchronized DailyRollup snapshot(BucketKey key) {
+            return new DailyRollup(fishName, location, key.epochDay(), key.dataSource(),
+                    count, sumPrice, minPrice, maxPrice, sumQuantityKg);
+        }
+    }
+
+    /**
+     * One generation of rollups: buckets per normalized fish name, plus the auction
+     * ids already counted so re-delivered events are not counted twice
+     */
+    private static final class RollupState {
+        private final Map<String, Map<BucketKey, Bucket>> byFish = new ConcurrentHashMap<>();
+        private final Set<Long> rolledUp = ConcurrentHashMap.newKeySet();
+
+        boolean add(Long id, String fishName, String location, Instant endTime,
+                    Auction.AuctionDataSource dataSource, double price, Double quantityKg) {
+            if (endTime == null || (id != null && !rolledUp.add(id))) {
+                return false;
+            }
+            BucketKey key = new BucketKey(normalize(location), epochDay(endTime), dataSource);
+            byFish.computeIfAbsent(normalize(fishName), f -> new ConcurrentHashMap<>())
+                    .computeIfAbsent(key, k -> new Bucket(fishName, location))
+                    .add(price, quantityKg);
+            return true;
+        }
+
+        int bucketCount() {
+            int buckets = 0;
+            for (Map<BucketKey, Bucket> fish : byFish.values()) {
+                buckets += fish.size();
+            }
+            return buckets;
+        }
+    }
+}
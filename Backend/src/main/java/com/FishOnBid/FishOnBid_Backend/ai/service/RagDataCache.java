@@ -0,0 +1,146 @@
+package com.FishOnBid.FishOnBid_Backend.ai.service;
+
+import com.FishOnBid.FishOnBid_Backend.ai.dto.RagDataDTO;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Bounded LRU cache, with a TTL, of RagService retrievals per (fish, location):
+ * the request-independent part of a price suggestion.
+ *
+ * Invalidation is per fish: each fish has a generation that an invalidation
+ * bumps, and a retrieval fetched before the bump is dropped instead of stored, so
+ * a slow request cannot put back what an event just removed.
+ */
+final class RagDataCache {
+
+    /**
+     * Fish and location as requested; RagService sees the same strings, so
+     * spellings are not merged here
+     */
+    record Key(String fish, String location) {}
+
+    /**
+     * Generations seen before fetching; a put only lands if they are unchanged
+     */
+    record Stamp(long global, long fish) {}
+
+    private record Entry(RagDataDTO ragData, long createdNanos) {}
+
+    private final int maxEntries;
+    private final long ttlNanos;
+
+    // Access-ordered; it and the generations are guarded by `this`
+    private final LinkedHashMap<Key, Entry> entries;
+    private final Map<String, Long> fishGenerations = new HashMap<>();
+    private long globalGeneration;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder expired = new LongAdder();
+    private final LongAdder invalidations = new LongAdder();
+    private final LongAdder invalidationEvents = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    RagDataCache(int maxEntries, long ttlSeconds) {
+        this.maxEntries = maxEntries;
+        this.ttlNanos = TimeUnit.SECONDS.toNanos(ttlSeconds);
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, Entry> eldest) {
+                if (size() > RagDataCache.this.maxEntries) {
+                    evictions.increment();
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    Key keyFor(String fishName, String location) {
+        return new Key(fishName, location != null && !location.isBlank() ? location : "");
+    }
+
+    /**
+     * Cached retrieval for the key, or null if absent or past its TTL
+     */
+    RagDataDTO get(Key key) {
+        Entry entry;
+        synchronized (this) {
+            entry = entries.get(key);
+            if (entry != null && System.nanoTime() - entry.createdNanos() > ttlNanos) {
+                entries.remove(key);
+                expired.increment();
+                return null;
+            }
+        }
+        if (entry == null) {
+            misses.increment();
+            return null;
+        }
+        hits.increment();
+        return entry.ragData();
+    }
+
+    synchronized Stamp stamp(Key key) {
+        return new Stamp(globalGeneration, fishGenerations.getOrDefault(normalize(key.fish()), 0L));
+    }
+
+    /**
+     * Store a retrieval unless its fish was invalidated since the stamp was taken
+     */
+    synchronized void put(Key key, Stamp stamp, RagDataDTO ragData) {
+        if (stamp.equals(stamp(key))) {
+            entries.put(key, new Entry(ragData, System.nanoTime()));
+        }
+    }
+
+    /**
+     * Drop every retrieval for a fish (any spelling case), at any location
+     */
+    synchronized void invalidateFish(String fishName) {
+        String fish = normalize(fishName);
+        fishGenerations.merge(fish, 1L, Long::sum);
+        int before = entries.size();
+        entries.keySet().removeIf(key -> normalize(key.fish()).equals(fish));
+        invalidations.add(before - entries.size());
+        invalidationEvents.increment();
+    }
+
+    synchronized void invalidateAll() {
+        globalGeneration++;
+        invalidations.add(entries.size());
+        invalidationEvents.increment();
+        entries.clear();
+    }
+
+    private static String normalize(String value) {
+        return value == null ? "" : value.trim().toLowerCase(Locale.ROOT);
+    }
+
+    Map<String, Object> getStats() {
+        long hitCount = hits.sum();
+        long lookups = hitCount + misses.sum() + expired.sum();
+        int size;
+        synchronized (this) {
+            size = entries.size();
+        }
+        return Map.of(
+                "size", size,
+                "maxEntries", maxEntries,
+                "ttlSeconds", TimeUnit.NANOSECONDS.toSeconds(ttlNanos),
+                "hits", hitCount,
+                "misses", misses.sum(),
+                "expired", expired.sum(),
+                "invalidations", invalidations.sum(),
+                "invalidationEvents", invalidationEvents.sum(),
+                "evictions", evictions.sum(),
+                "hitRatio", lookups > 0 ? Math.round(hitCount * 10000.0 / lookups) / 10000.0 : 0.0
+        );
+    }
+}
@@ -5,19 +5,49 @@ import com.FishOnBid.FishOnBid_Backend.entity.Auction;
 import com.FishOnBid.FishOnBid_Backend.repository.AuctionRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import java.time.Instant;
 import java.time.LocalDate;
 import java.time.ZoneId;
 import java.time.format.DateTimeFormatter;
 import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
 
 /**
  * RAG (Retrieval-Augmented Generation) Service.
  * Retrieves and aggregates historical auction data for AI pricing.
  * Implements Dynamic Trust Formula: TrustScore = BaseWeight × RecencyDecay × DataVolumeFactor
+ *
+ * Reads daily rollups (PriceRollupService) when they cover the lookback, so the
+ * weighting runs over day buckets rather than raw rows; otherwise falls back to
+ * the raw auction queries. Both paths aggregate through the same bucket formula.
+ *
+ * Feature Flags:
+ * - rag.fallback.concurrent=true (default): on the raw path, start the next location
+ *   fallback tier (local, generic Fish at the location, nationwide Fish, global) on
+ *   a virtual thread while the current one runs; false runs them one after another
+ *   on demand
+ * - rag.fallback.speculative-permits=4 (default): speculative tier queries in flight
+ *   across all requests. Each holds a pooled JDBC connection, so keep it well under
+ *   spring.datasource.hikari.maximum-pool-size (10); without a permit the tier runs
+ *   on demand instead
  */
 @Service
 @RequiredArgsConstructor
@@ -25,11 +55,41 @@ import java.util.List;
 public class RagService {
 
     private final AuctionRepository auctionRepository;
+    private final PriceRollupService rollupService;
 
     // Time-decay parameter (λ): higher = faster decay
     private static final double RECENCY_DECAY_LAMBDA = 0.05;
     // Minimum sample size for full confidence
     private static final double DATA_VOLUME_THRESHOLD = 50.0;
+    // Cap on nationwide generic govt records used as a baseline
+    private static final int NATIONWIDE_BASELINE_RECORDS = 20;
+
+    /**
+     * Fallback chain of fetchHistoricalDataByLocation, in the order it is consulted
+     */
+    enum Tier { LOCAL, GENERIC_LOCAL, NATIONWIDE, GLOBAL }
+
+    @Value("${rag.fallback.concurrent:true}")
+    private boolean concurrentFallback;
+
+    @Value("${rag.fallback.speculative-permits:4}")
+    private int speculativePermits;
+
+    private Semaphore speculativeSlots;
+    private final LongAdder speculationsSkipped = new LongAdder();
+
+    private final ExecutorService tierExecutor = Executors.newVirtualThreadPerTaskExecutor();
+    private final Map<Tier, LatencyStats> tierStats = new EnumMap<>(Map.of(
+            Tier.LOCAL, new LatencyStats(),
+            Tier.GENERIC_LOCAL, new LatencyStats(),
+            Tier.NATIONWIDE, new LatencyStats(),
+            Tier.GLOBAL, new LatencyStats()));
+    private final LatencyStats locationFetches = new LatencyStats();
+
+    @PostConstruct
+    public void init() {
+        speculativeSlots = new Semaphore(Math.max(0, speculativePermits));
+    }
 
     /**
      * Fetch historical auction statistics with dynamic trust weighting.
@@ -37,15 +97,20 @@ public class RagService {
     public RagDataDTO fetchHistoricalData(String fishName, int daysBack) {
         log.info("RAG_FETCH_START: fishName={}, daysBack={}", fishName, daysBack);
 
-        Instant fromDate = Instant.now().minus(daysBack, ChronoUnit.DAYS);
-        List<Auction> auctions = auctionRepository.findRecentAuctions(fishName, fromDate);
+        List<PriceRollupService.DailyRollup> buckets;
+        if (rollupService.covers(daysBack)) {
+            buckets = rollupService.find(fishName, null, fromDay(daysBack));
+        } else {
+            Instant fromDate = Instant.now().minus(daysBack, ChronoUnit.DAYS);
+            buckets = toBuckets(auctionRepository.findRecentAuctions(fishName, fromDate), daysBack);
+        }
 
-        if (auctions.isEmpty()) {
+        if (buckets.isEmpty()) {
             log.info("RAG_NO_DATA: No historical auctions found for {}", fishName);
             return RagDataDTO.empty();
         }
 
-        return buildRagData(auctions, daysBack);
+        return buildRagData(buckets, daysBack);
     }
 
     /**
@@ -56,55 +121,252 @@ public class RagService {
         log.info("RAG_FETCH_BY_LOCATION: fishName={}, location={}, daysBack={}",
                 fishName, location, daysBack);
 
-        Instant fromDate = Instant.now().minus(daysBack, ChronoUnit.DAYS);
-        List<Auction> auctions = auctionRepository.findRecentAuctionsByLocation(
-                fishName, location, fromDate);
+        long start = System.nanoTime();
+        try {
+            return rollupService.covers(daysBack)
+                    ? fetchHistoricalDataByLocationFromRollups(fishName, location, daysBack)
+                    : fetchHistoricalDataByLocationFromAuctions(fishName, location, daysBack);
+        } finally {
+            locationFetches.record(System.nanoTime() - start);
+        }
+    }
+
+    private RagDataDTO fetchHistoricalDataByLocationFromRollups(String fishName, String location, int daysBack) {
+        long fromDay = fromDay(daysBack);
+        List<PriceRollupService.DailyRollup> buckets = new ArrayList<>(rollupService.find(fishName, location, fromDay));
 
         // Check if we have any government data for this specific fish type
-        long govtCount = auctions.stream()
-                .filter(a -> a.getDataSource() == Auction.AuctionDataSource.GOVT_INSTITUTIONAL_API)
-                .count();
+        boolean hasGovtData = buckets.stream().anyMatch(RagService::isGovt);
 
         // If no government data for specific fish at this location, try generic "Fish" at same location
-        if (govtCount == 0 && !"Fish".equals(fishName)) {
+        if (!hasGovtData && !"Fish".equals(fishName)) {
             log.info("RAG_NO_GOVT_DATA_FOR_SPECIFIC_FISH: Querying generic Fish govt data at location='{}'", location);
-            List<Auction> genericGovtData = auctionRepository.findGenericFishGovtData(location, fromDate);
-            
+            List<PriceRollupService.DailyRollup> genericGovtData = rollupService.find("Fish", location, fromDay).stream()
+                    .filter(RagService::isGovt)
+                    .toList();
+
             if (!genericGovtData.isEmpty()) {
-                log.info("RAG_GENERIC_GOVT_DATA_FOUND: Found {} generic Fish govt records at location='{}'", 
+                log.info("RAG_GENERIC_GOVT_DATA_FOUND: Found {} generic Fish govt day buckets at location='{}'",
                         genericGovtData.size(), location);
-                auctions.addAll(genericGovtData);
+                buckets.addAll(genericGovtData);
             } else {
-                // If no local govt data, use nationwide generic Fish data as baseline reference
+                // If no local govt data, use the most recent nationwide generic Fish days as baseline
+                // reference, capped at the same record count as the raw path (the last day scaled down)
                 log.info("RAG_NO_LOCAL_GOVT_DATA: Querying nationwide generic Fish govt data as baseline");
-                List<Auction> nationwideGovtData = auctionRepository.findRecentAuctions("Fish", fromDate);
-                List<Auction> govtOnly = nationwideGovtData.stream()
-                        .filter(a -> a.getDataSource() == Auction.AuctionDataSource.GOVT_INSTITUTIONAL_API)
-                        .limit(20) // Limit to 20 records for performance
-                        .toList();
-                if (!govtOnly.isEmpty()) {
-                    log.info("RAG_NATIONWIDE_GOVT_DATA_FOUND: Using {} nationwide Fish govt records as baseline", 
-                            govtOnly.size());
-                    auctions.addAll(govtOnly);
+                int records = 0;
+                for (PriceRollupService.DailyRollup bucket : rollupService.find("Fish", null, fromDay)) {
+                    if (records >= NATIONWIDE_BASELINE_RECORDS) {
+                        break;
+                    }
+                    if (isGovt(bucket)) {
+                        PriceRollupService.DailyRollup capped = bucket.limit(NATIONWIDE_BASELINE_RECORDS - records);
+                        buckets.add(capped);
+                        records += capped.count();
+                    }
+                }
+                if (records > 0) {
+                    log.info("RAG_NATIONWIDE_GOVT_DATA_FOUND: Using {} nationwide Fish govt records as baseline", records);
                 }
             }
         }
 
-        if (auctions.isEmpty()) {
+        if (buckets.isEmpty()) {
             log.info("RAG_NO_LOCAL_DATA: No auctions found for fish='{}' at location='{}'. Falling back to global.", fishName, location);
             return fetchHistoricalData(fishName, daysBack);
         }
 
-        log.info("RAG_LOCAL_DATA_FOUND: Found {} total auctions (including fallback) for fish='{}' at location='{}'", 
-                auctions.size(), fishName, location);
-        return buildRagData(auctions, daysBack);
+        log.info("RAG_LOCAL_DATA_FOUND: Found {} day buckets (including fallback) for fish='{}' at location='{}'",
+                buckets.size(), fishName, location);
+        return buildRagData(buckets, daysBack);
+    }
+
+    /**
+     * Raw-row version of fetchHistoricalDataByLocation, for lookbacks the rollups do
+     * not cover (or rollups disabled).
+     *
+     * Each tier runs on the calling thread. With rag.fallback.concurrent on, the tier
+     * the chain would consult next is started speculatively on a virtual thread
+     * while the current one runs, so a fall-through costs the slower of the two
+     * rather than their sum. A call thus holds at most two pooled connections, and
+     * the speculative ones are capped across requests by rag.fallback.speculative-permits.
+     */
+    private RagDataDTO fetchHistoricalDataByLocationFromAuctions(String fishName, String location, int daysBack) {
+        Instant fromDate = Instant.now().minus(daysBack, ChronoUnit.DAYS);
+        boolean specificFish = !"Fish".equals(fishName);
+
+        FutureTask<List<Auction>> localTier = tier(Tier.LOCAL,
+                () -> auctionRepository.findRecentAuctionsByLocation(fishName, location, fromDate));
+        FutureTask<List<Auction>> genericTier = specificFish
+                ? tier(Tier.GENERIC_LOCAL, () -> auctionRepository.findGenericFishGovtData(location, fromDate))
+                : null;
+        FutureTask<List<Auction>> nationwideTier = specificFish
+                ? tier(Tier.NATIONWIDE, () -> auctionRepository.findRecentAuctions("Fish", fromDate))
+                : null;
+        FutureTask<List<Auction>> globalTier = tier(Tier.GLOBAL,
+                () -> auctionRepository.findRecentAuctions(fishName, fromDate));
+
+        try {
+            speculate(specificFish ? genericTier : globalTier);
+            List<Auction> auctions = new ArrayList<>(awaitTier(Tier.LOCAL, localTier));
+
+            // Check if we have any government data for this specific fish type
+            long govtCount = auctions.stream()
+                    .filter(a -> a.getDataSource() == Auction.AuctionDataSource.GOVT_INSTITUTIONAL_API)
+                    .count();
+
+            // If no government data for specific fish at this location, try generic "Fish" at same location
+            if (govtCount == 0 && specificFish) {
+                log.info("RAG_NO_GOVT_DATA_FOR_SPECIFIC_FISH: Querying generic Fish govt data at location='{}'", location);
+                speculate(nationwideTier);
+                List<Auction> genericGovtData = awaitTier(Tier.GENERIC_LOCAL, genericTier);
+
+                if (!genericGovtData.isEmpty()) {
+                    log.info("RAG_GENERIC_GOVT_DATA_FOUND: Found {} generic Fish govt records at location='{}'",
+                            genericGovtData.size(), location);
+                    auctions.addAll(genericGovtData);
+                } else {
+                    // If no local govt data, use nationwide generic Fish data as baseline reference
+                    log.info("RAG_NO_LOCAL_GOVT_DATA: Querying nationwide generic Fish govt data as baseline");
+                    if (auctions.isEmpty()) {
+                        speculate(globalTier);
+                    }
+                    List<Auction> nationwideGovtData = awaitTier(Tier.NATIONWIDE, nationwideTier);
+                    List<Auction> govtOnly = nationwideGovtData.stream()
+                            .filter(a -> a.getDataSource() == Auction.AuctionDataSource.GOVT_INSTITUTIONAL_API)
+                            .limit(NATIONWIDE_BASELINE_RECORDS) // Limit to 20 records for performance
+                            .toList();
+                    if (!govtOnly.isEmpty()) {
+                        log.info("RAG_NATIONWIDE_GOVT_DATA_FOUND: Using {} nationwide Fish govt records as baseline",
+                                govtOnly.size());
+                        auctions.addAll(govtOnly);
+                    }
+                }
+            }
+
+            if (auctions.isEmpty()) {
+                log.info("RAG_NO_LOCAL_DATA: No auctions found for fish='{}' at location='{}'. Falling back to global.", fishName, location);
+                List<Auction> global = awaitTier(Tier.GLOBAL, globalTier);
+                if (global.isEmpty()) {
+                    log.info("RAG_NO_DATA: No historical auctions found for {}", fishName);
+                    return RagDataDTO.empty();
+                }
+                return buildRagData(toBuckets(global, daysBack), daysBack);
+            }
+
+            log.info("RAG_LOCAL_DATA_FOUND: Found {} total auctions (including fallback) for fish='{}' at location='{}'",
+                    auctions.size(), fishName, location);
+            return buildRagData(toBuckets(auctions, daysBack), daysBack);
+        } finally {
+            // Drop tiers we did not need. No interrupt: interrupting a virtual thread in a
+            // socket read closes the pooled JDBC connection, so running queries just finish
+            for (FutureTask<List<Auction>> tier : Arrays.asList(localTier, genericTier, nationwideTier, globalTier)) {
+                if (tier != null) {
+                    tier.cancel(false);
+                }
+            }
+        }
+    }
+
+    /**
+     * Wrap a tier query with latency accounting; it runs when speculated or awaited
+     */
+    private FutureTask<List<Auction>> tier(Tier tier, Callable<List<Auction>> query) {
+        return new FutureTask<>(() -> {
+            long start = System.nanoTime();
+            try {
+                return query.call();
+            } finally {
+                tierStats.get(tier).record(System.nanoTime() - start);
+            }
+        });
     }
 
     /**
-     * Core RAG aggregation with Dynamic Trust Formula.
-     * TrustScore = BaseWeight × RecencyDecay × DataVolumeFactor
+     * Start a tier on a virtual thread ahead of need, if concurrency is on and a
+     * speculative permit is free; otherwise it runs on demand in awaitTier
      */
-    private RagDataDTO buildRagData(List<Auction> auctions, int daysBack) {
+    private void speculate(FutureTask<List<Auction>> task) {
+        if (!concurrentFallback || task == null) {
+            return;
+        }
+        if (!speculativeSlots.tryAcquire()) {
+            speculationsSkipped.increment();
+            return;
+        }
+        tierExecutor.execute(() -> {
+            try {
+                task.run();
+            } finally {
+                speculativeSlots.release();
+            }
+        });
+    }
+
+    private List<Auction> awaitTier(Tier tier, FutureTask<List<Auction>> task) {
+        // No-op when the speculative run already started or finished; otherwise runs here
+        task.run();
+        try {
+            List<Auction> result = task.get();
+            tierStats.get(tier).used.increment();
+            return result;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted waiting for RAG tier " + tier, e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            throw new IllegalStateException("RAG tier " + tier + " failed", e.getCause());
+        }
+    }
+
+    /**
+     * Per-tier query latency (started vs actually used) plus end-to-end location
+     * fetch latency
+     */
+    public Map<String, Object> getFallbackStats() {
+        Map<String, Object> tiers = new LinkedHashMap<>();
+        tierStats.forEach((tier, stats) -> tiers.put(tier.name(), stats.toMap()));
+        return Map.of(
+                "concurrent", concurrentFallback,
+                "speculativePermits", speculativePermits,
+                "speculativeInFlight", speculativePermits - speculativeSlots.availablePermits(),
+                "speculationsSkipped", speculationsSkipped.sum(),
+                "locationFetches", locationFetches.toMap(),
+                "tiers", tiers
+        );
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        tierExecutor.shutdownNow();
+    }
+
+    /**
+     * One single-row bucket per raw auction, dated by its start time as before
+     */
+    private List<PriceRollupService.DailyRollup> toBuckets(List<Auction> auctions, int daysBack) {
+        long fallbackDay = fromDay(daysBack);
+        return auctions.stream()
+                .map(a -> PriceRollupService.DailyRollup.of(a,
+                        a.getStartTime() != null ? PriceRollupService.epochDay(a.getStartTime()) : fallbackDay))
+                .toList();
+    }
+
+    private static long fromDay(int daysBack) {
+        return PriceRollupService.epochDay(Instant.now().minus(daysBack, ChronoUnit.DAYS));
+    }
+
+    private static boolean isGovt(PriceRollupService.DailyRollup bucket) {
+        return bucket.dataSource() == Auction.AuctionDataSource.GOVT_INSTITUTIONAL_API;
+    }
+
+    /**
+     * Core RAG aggregation with Dynamic Trust Formula, over day buckets in one pass.
+     * TrustScore = BaseWeight × RecencyDecay × DataVolumeFactor, applied to every
+     * record in a bucket (they share source and day).
+     */
+    private RagDataDTO buildRagData(List<PriceRollupService.DailyRollup> buckets, int daysBack) {
         double totalWeightedPrice = 0;
         double totalWeight = 0;
 
@@ -114,61 +376,64 @@ public class RagService {
         int histCount = 0;
         double histTotal = 0;
 
-        Instant now = Instant.now();
-        int totalRecords = auctions.size();
+        int totalRecords = 0;
+        double minPrice = Double.MAX_VALUE;
+        double maxPrice = -Double.MAX_VALUE;
+        double totalQuantity = 0;
+        for (PriceRollupService.DailyRollup b : buckets) {
+            totalRecords += b.count();
+        }
         double dataVolumeFactor = Math.min(1.0, totalRecords / DATA_VOLUME_THRESHOLD);
+        long today = PriceRollupService.epochDay(Instant.now());
+
+        // First location in list order: local buckets come before the fallback tiers
+        String location = null;
 
-        for (Auction a : auctions) {
+        for (PriceRollupService.DailyRollup b : buckets) {
             // 1. Base Weight by source
             double baseWeight;
-            boolean isGovt = (a.getDataSource() == Auction.AuctionDataSource.GOVT_INSTITUTIONAL_API);
+            boolean isGovt = (b.dataSource() == Auction.AuctionDataSource.GOVT_INSTITUTIONAL_API);
             if (isGovt) {
                 baseWeight = 1.5;
-            } else if (a.getDataSource() == Auction.AuctionDataSource.SIMULATED_DEMO) {
+            } else if (b.dataSource() == Auction.AuctionDataSource.SIMULATED_DEMO) {
                 baseWeight = 0.5;
             } else {
                 baseWeight = 1.0;
             }
 
             // 2. Recency Decay: e^(-λ × daysOld)
-            double daysOld = a.getStartTime() != null
-                    ? ChronoUnit.DAYS.between(a.getStartTime(), now)
-                    : daysBack;
+            double daysOld = today - b.epochDay();
             double recencyDecay = Math.exp(-RECENCY_DECAY_LAMBDA * Math.max(0, daysOld));
 
             // 3. Dynamic Trust = Base × Recency × DataVolume
             double dynamicWeight = baseWeight * recencyDecay * dataVolumeFactor;
 
-            totalWeightedPrice += a.getCurrentPrice() * dynamicWeight;
-            totalWeight += dynamicWeight;
+            totalWeightedPrice += b.sumPrice() * dynamicWeight;
+            totalWeight += b.count() * dynamicWeight;
 
             // Track source breakdown
             if (isGovt) {
-                govtCount++;
-                govtTotal += a.getCurrentPrice();
+                govtCount += b.count();
+                govtTotal += b.sumPrice();
             } else {
-                histCount++;
-                histTotal += a.getCurrentPrice();
+                histCount += b.count();
+                histTotal += b.sumPrice();
+            }
+
+            minPrice = Math.min(minPrice, b.minPrice());
+            maxPrice = Math.max(maxPrice, b.maxPrice());
+            totalQuantity += b.sumQuantityKg();
+            if (location == null) {
+                location = b.location();
             }
         }
 
         double avgPrice = totalWeight > 0 ? totalWeightedPrice / totalWeight : 0;
-
-        double minPrice = auctions.stream()
-                .mapToDouble(Auction::getCurrentPrice)
-                .min().orElse(0);
-        double maxPrice = auctions.stream()
-                .mapToDouble(Auction::getCurrentPrice)
-                .max().orElse(0);
-        double avgQuantity = auctions.stream()
-                .mapToDouble(a -> a.getQuantityKg() != null ? a.getQuantityKg() : 0)
-                .average().orElse(0);
-
-        String location = auctions.stream()
-                .filter(a -> a.getLocation() != null)
-                .findFirst()
-                .map(Auction::getLocation)
-                .orElse(null);
+        double avgQuantity = totalRecords > 0 ? totalQuantity / totalRecords : 0;
+        if (totalRecords == 0) {
+            minPrice = 0;
+            maxPrice = 0;
+        }
 
         // Build date range string
         LocalDate fromLocal = Instant.now().minus(daysBack, ChronoUnit.DAYS)
@@ -194,4 +459,30 @@ public class RagService {
 
         return result;
     }
+
+    /**
+     * Call count, total and max latency; `used` counts results the caller consumed
+     */
+    private static final class LatencyStats {
+        private final LongAdder calls = new LongAdder();
+        private final LongAdder nanos = new LongAdder();
+        private final LongAdder used = new LongAdder();
+        private final LongAccumulator maxNanos = new LongAccumulator(Math::max, 0);
+
+        void record(long elapsed) {
+            calls.increment();
+            nanos.add(elapsed);
+            maxNanos.accumulate(elapsed);
+        }
+
+        Map<String, Object> toMap() {
+            long count = calls.sum();
+            return Map.of(
+                    "calls", count,
+                    "used", used.sum(),
+                    "avgMicros", count > 0 ? nanos.sum() / count / 1000 : 0,
+                    "maxMicros", maxNanos.get() / 1000
+            );
+        }
+    }
 }
@@ -3,6 +3,14 @@ package com.FishOnBid.FishOnBid_Backend.config;
 import com.FishOnBid.FishOnBid_Backend.ai.rag.RagVectorStore;
 import com.FishOnBid.FishOnBid_Backend.ai.vision.VisionAnalysisService;
 import com.FishOnBid.FishOnBid_Backend.events.InMemoryEventBus;
+import com.FishOnBid.FishOnBid_Backend.websocket.AuctionLiveStateRegistry;
+import com.FishOnBid.FishOnBid_Backend.websocket.AuctionPresenceTracker;
+import com.FishOnBid.FishOnBid_Backend.websocket.AuctionSnapshotInterceptor;
+import com.FishOnBid.FishOnBid_Backend.websocket.BidUpdateCoalescer;
+import com.FishOnBid.FishOnBid_Backend.websocket.FirehoseSubscriptionInterceptor;
+import com.FishOnBid.FishOnBid_Backend.websocket.OutbidNotifier;
+import com.FishOnBid.FishOnBid_Backend.websocket.SessionQueueDepthInterceptor;
+import com.FishOnBid.FishOnBid_Backend.websocket.StompBroadcaster;
 import lombok.RequiredArgsConstructor;
 import org.springframework.boot.actuate.health.Health;
 import org.springframework.boot.actuate.health.HealthIndicator;
@@ -22,6 +30,14 @@ public class AppConfig {
     private final VisionAnalysisService visionService;
     private final RagVectorStore ragVectorStore;
     private final InMemoryEventBus eventBus;
+    private final BidUpdateCoalescer bidUpdateCoalescer;
+    private final StompBroadcaster stompBroadcaster;
+    private final SessionQueueDepthInterceptor queueDepthInterceptor;
+    private final AuctionLiveStateRegistry liveStateRegistry;
+    private final AuctionSnapshotInterceptor snapshotInterceptor;
+    private final AuctionPresenceTracker presenceTracker;
+    private final OutbidNotifier outbidNotifier;
+    private final FirehoseSubscriptionInterceptor firehoseInterceptor;
 
     /**
      * Custom health indicator for AI services
@@ -40,4 +56,21 @@ public class AppConfig {
                     .build();
         };
     }
+
+    /**
+     * Health indicator for real-time WebSocket fan-out
+     */
+    @Bean
+    public HealthIndicator realtimeHealthIndicator() {
+        return () -> Health.up()
+                .withDetail("coalescer", bidUpdateCoalescer.getStats())
+                .withDetail("broadcast", stompBroadcaster.getStats())
+                .withDetail("sessionQueues", queueDepthInterceptor.getStats())
+                .withDetail("liveAuctionStates", liveStateRegistry.size())
+                .withDetail("snapshotsSent", snapshotInterceptor.getSnapshotsSent())
+                .withDetail("presence", presenceTracker.getStats())
+                .withDetail("notifications", outbidNotifier.getStats())
+                .withDetail("firehose", firehoseInterceptor.getStats())
+                .build();
+    }
 }
@@ -53,7 +53,7 @@ public class SecurityConfig {
                 )
                 .authorizeHttpRequests(auth -> auth
                         // Public endpoints
-                        .requestMatchers("/api/auth/**", "/actuator/**", "/api/ai/health", "/ws/**").permitAll()
+                        .requestMatchers("/api/auth/**", "/actuator/**", "/api/ai/health", "/ws/**", "/ws-native/**").permitAll()
                         
                         // Auction endpoints
                         .requestMatchers(HttpMethod.GET, "/api/auctions/**").permitAll()
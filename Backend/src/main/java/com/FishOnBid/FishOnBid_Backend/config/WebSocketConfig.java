@@ -1,30 +1,103 @@
 package com.FishOnBid.FishOnBid_Backend.config;
 
+import com.FishOnBid.FishOnBid_Backend.websocket.AuctionSnapshotInterceptor;
+import com.FishOnBid.FishOnBid_Backend.websocket.FirehoseSubscriptionInterceptor;
+import com.FishOnBid.FishOnBid_Backend.websocket.SessionQueueDepthInterceptor;
+import com.FishOnBid.FishOnBid_Backend.websocket.StompAuthChannelInterceptor;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.core.task.VirtualThreadTaskExecutor;
+import org.springframework.messaging.simp.config.ChannelRegistration;
 import org.springframework.messaging.simp.config.MessageBrokerRegistry;
+import org.springframework.scheduling.TaskScheduler;
 import org.springframework.web.socket.config.annotation.EnableWebSocketMessageBroker;
 import org.springframework.web.socket.config.annotation.StompEndpointRegistry;
 import org.springframework.web.socket.config.annotation.WebSocketMessageBrokerConfigurer;
+import org.springframework.web.socket.config.annotation.WebSocketTransportRegistration;
 
 /**
  * WebSocket Configuration for Real-Time Updates.
- * 
+ *
  * Endpoints:
- * - /ws: WebSocket connection endpoint (SockJS fallback)
+ * - /ws: WebSocket connection endpoint (SockJS fallback, legacy clients)
+ * - /ws-native: Plain WebSocket endpoint, no SockJS transports; the container
+ *   negotiates permessage-deflate when the client offers it
  * - /topic/auction/{id}: Subscribe for auction-specific updates
- * - /topic/bids: Subscribe for all bid updates
+ *   (answered with a SNAPSHOT frame, then seq-stamped deltas)
+ * - /topic/bids: All bid updates, opt-in with a "firehose: true" SUBSCRIBE header
+ * - /topic/bin/...: Same topics in compact binary form (see BinaryFrameCodec)
+ * - /app/auction/{id}/bid: Place a bid over STOMP (JWT sent once on CONNECT)
+ * - /user/queue/bids: Per-user bid acks and rejections
+ * - /user/queue/notifications: Per-user LEADING / OUTBID notices
+ *
+ * Slow-consumer protection:
+ * - Inbound/outbound channels run on sized pools (or virtual threads); broker
+ *   frames keep their publish order per session (preservePublishOrder), which
+ *   bid ordering and the seq/baseSeq gap detection rely on
+ * - Sessions that exceed the send time or buffer limit are closed by the transport
+ * - Broker heartbeats detect dead connections on flaky mobile links
  */
 @Configuration
 @EnableWebSocketMessageBroker
+@RequiredArgsConstructor
 public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
 
+    private final SessionQueueDepthInterceptor queueDepthInterceptor;
+    private final AuctionSnapshotInterceptor snapshotInterceptor;
+    private final StompAuthChannelInterceptor authInterceptor;
+    private final FirehoseSubscriptionInterceptor firehoseInterceptor;
+
+    private TaskScheduler messageBrokerTaskScheduler;
+
+    @Value("${websocket.channel.virtual-threads:false}")
+    private boolean virtualThreads;
+
+    @Value("${websocket.channel.inbound.pool-size:8}")
+    private int inboundPoolSize;
+
+    @Value("${websocket.channel.outbound.pool-size:16}")
+    private int outboundPoolSize;
+
+    @Value("${websocket.channel.queue-capacity:10000}")
+    private int queueCapacity;
+
+    @Value("${websocket.transport.send-time-limit-ms:5000}")
+    private int sendTimeLimitMs;
+
+    @Value("${websocket.transport.send-buffer-size-limit:262144}")
+    private int sendBufferSizeLimit;
+
+    @Value("${websocket.transport.message-size-limit:65536}")
+    private int messageSizeLimit;
+
+    @Value("${websocket.broker.heartbeat-ms:10000}")
+    private long heartbeatMs;
+
+    @Autowired
+    public void setMessageBrokerTaskScheduler(
+            @Lazy @Qualifier("messageBrokerTaskScheduler") TaskScheduler taskScheduler) {
+        this.messageBrokerTaskScheduler = taskScheduler;
+    }
+
     @Override
     public void configureMessageBroker(MessageBrokerRegistry config) {
-        // Enable simple broker for subscriptions
-        config.enableSimpleBroker("/topic");
-        
+        // Enable simple broker for subscriptions, with heartbeats to drop dead clients
+        config.enableSimpleBroker("/topic", "/queue")
+                .setHeartbeatValue(new long[]{heartbeatMs, heartbeatMs})
+                .setTaskScheduler(messageBrokerTaskScheduler);
+
+        // A multi-threaded outbound channel would otherwise reorder one session's frames
+        config.setPreservePublishOrder(true);
+
         // Prefix for messages bound for @MessageMapping methods
         config.setApplicationDestinationPrefixes("/app");
+
+        // Prefix for per-user destinations (acks land on /user/queue/bids)
+        config.setUserDestinationPrefix("/user");
     }
 
     @Override
@@ -33,5 +106,41 @@ public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
         registry.addEndpoint("/ws")
                 .setAllowedOriginPatterns("*")
                 .withSockJS();
+
+        // Native WebSocket endpoint for modern clients (no XHR streaming/polling fallback)
+        registry.addEndpoint("/ws-native")
+                .setAllowedOriginPatterns("*");
+    }
+
+    @Override
+    public void configureClientInboundChannel(ChannelRegistration registration) {
+        configureChannel(registration, "ws-inbound-", inboundPoolSize);
+        // Authentication must run first so the CONNECT principal is set for the session
+        registration.interceptors(authInterceptor, firehoseInterceptor, snapshotInterceptor);
+    }
+
+    @Override
+    public void configureClientOutboundChannel(ChannelRegistration registration) {
+        configureChannel(registration, "ws-outbound-", outboundPoolSize);
+        registration.interceptors(queueDepthInterceptor);
+    }
+
+    @Override
+    public void configureWebSocketTransport(WebSocketTransportRegistration registration) {
+        // A session that cannot drain its buffer within these limits is closed
+        registration.setSendTimeLimit(sendTimeLimitMs)
+                .setSendBufferSizeLimit(sendBufferSizeLimit)
+                .setMessageSizeLimit(messageSizeLimit);
+    }
+
+    private void configureChannel(ChannelRegistration registration, String threadPrefix, int poolSize) {
+        if (virtualThreads) {
+            registration.executor(new VirtualThreadTaskExecutor(threadPrefix));
+        } else {
+            registration.taskExecutor()
+                    .corePoolSize(poolSize)
+                    .maxPoolSize(poolSize)
+                    .queueCapacity(queueCapacity);
+        }
     }
 }
@@ -5,6 +5,9 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Component;
 
+import java.util.List;
+import java.util.Set;
+
 /**
  * Event Publisher - Facade for publishing domain events.
  * 
@@ -50,4 +53,11 @@ public class EventPublisher {
                                       String winnerEmail, int totalBids) {
         publish(new AuctionClosedEvent(auctionId, fishName, finalPrice, winnerEmail, totalBids));
     }
+
+    /**
+     * Publish market data imported event
+     */
+    public void publishMarketDataImported(String source, List<Long> auctionIds, Set<String> fishNames) {
+        publish(new MarketDataImportedEvent(source, auctionIds, fishNames));
+    }
 }
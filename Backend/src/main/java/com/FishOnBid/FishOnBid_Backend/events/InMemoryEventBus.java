@@ -48,6 +48,12 @@ public class InMemoryEventBus {
         // TODO: Forward to WebSocket for auction closure notification
     }
 
+    @EventListener
+    public void handleMarketDataImported(MarketDataImportedEvent event) {
+        recordEvent(event);
+        log.info("📥 {}", event);
+    }
+
     /**
      * Record event to history
      */
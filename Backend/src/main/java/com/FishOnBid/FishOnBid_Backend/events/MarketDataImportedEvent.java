@@ -0,0 +1,31 @@
+package com.FishOnBid.FishOnBid_Backend.events;
+
+import lombok.Getter;
+
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Event published when a batch of government market records has been saved as
+ * closed auctions by the external data sync. Carries the fish names touched so
+ * caches can invalidate without loading the records back.
+ */
+@Getter
+public class MarketDataImportedEvent extends DomainEvent {
+
+    private final String source;
+    private final List<Long> auctionIds;
+    private final Set<String> fishNames;
+
+    public MarketDataImportedEvent(String source, List<Long> auctionIds, Set<String> fishNames) {
+        super("MarketDataImported");
+        this.source = source;
+        this.auctionIds = List.copyOf(auctionIds);
+        this.fishNames = Set.copyOf(fishNames);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("EVENT → MarketDataImported → Source=%s → Records=%d", source, auctionIds.size());
+    }
+}
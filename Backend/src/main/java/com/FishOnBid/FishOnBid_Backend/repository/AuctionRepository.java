@@ -3,15 +3,20 @@ package com.FishOnBid.FishOnBid_Backend.repository;
 import java.time.Instant;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 
+import com.FishOnBid.FishOnBid_Backend.ai.dto.RagIndexRowDTO;
 import com.FishOnBid.FishOnBid_Backend.entity.Auction;
 
 import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
 
 
 public interface AuctionRepository extends JpaRepository<Auction, Long> {
@@ -41,6 +46,23 @@ public interface AuctionRepository extends JpaRepository<Auction, Long> {
             @Param("fromDate") Instant fromDate
     );
 
+    /**
+     * Completed auctions (any fish) that ended on or after a date, as a narrow
+     * projection streamed from a cursor. Used to rebuild the RAG vector index
+     * without hydrating entities or holding the result set in memory.
+     * Must be consumed inside a transaction and closed; MySQL only honours the
+     * fetch size with useCursorFetch=true on the JDBC URL.
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query("""
+        SELECT new com.FishOnBid.FishOnBid_Backend.ai.dto.RagIndexRowDTO(
+            a.id, a.fishName, a.location, a.currentPrice, a.quantityKg, a.endTime, a.dataSource)
+        FROM Auction a
+        WHERE a.active = false
+        AND a.endTime >= :fromDate
+    """)
+    Stream<RagIndexRowDTO> streamCompletedSince(@Param("fromDate") Instant fromDate);
+
     /**
      * Find completed auctions filtered by location for more accurate local pricing.
      */
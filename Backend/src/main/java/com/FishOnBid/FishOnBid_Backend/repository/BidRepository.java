@@ -12,6 +12,10 @@ public interface BidRepository extends JpaRepository<Bid, Long> {
 
     List<Bid> findByAuctionIdOrderByAmountDesc(Long auctionId);
 
+    List<Bid> findTop5ByAuctionIdOrderByAmountDesc(Long auctionId);
+
+    long countByAuctionId(Long auctionId);
+
     List<Bid> findByBidderEmail(String bidderEmail);
 
     long countByBidderEmail(String bidderEmail);
@@ -0,0 +1,220 @@
+package com.FishOnBid.FishOnBid_Backend.websocket;
+
+import com.FishOnBid.FishOnBid_Backend.entity.Auction;
+import com.FishOnBid.FishOnBid_Backend.entity.Bid;
+import com.FishOnBid.FishOnBid_Backend.events.AuctionClosedEvent;
+import com.FishOnBid.FishOnBid_Backend.events.BidPlacedEvent;
+import com.FishOnBid.FishOnBid_Backend.repository.AuctionRepository;
+import com.FishOnBid.FishOnBid_Backend.repository.BidRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-memory live state per auction, used to answer topic subscriptions with a
+ * snapshot and to stamp every delta frame with a sequence number.
+ *
+ * Versioning:
+ * - seq: bumped on every state change (bid, close)
+ * - baseSeq: the seq of the previous frame broadcast on the auction topic
+ *
+ * A client applies a frame when seq > its last seen seq, and has missed data when
+ * baseSeq > its last seen seq. Coalesced frames skip intermediate seq values by
+ * design, which is why gaps are detected on baseSeq rather than seq + 1.
+ *
+ * State is hydrated from the database once per auction (on first subscribe or bid)
+ * and maintained from domain events afterwards.
+ */
+@Component
+@Slf4j
+@RequiredArgsConstructor
+public class AuctionLiveStateRegistry {
+
+    private static final int TOP_BIDS = 5;
+    private static final Duration CLOSED_RETENTION = Duration.ofHours(1);
+
+    private final AuctionRepository auctionRepository;
+    private final BidRepository bidRepository;
+
+    private final Map<Long, LiveState> states = new ConcurrentHashMap<>();
+
+    /**
+     * Apply a placed bid and return the new sequence number
+     */
+    public long applyBid(BidPlacedEvent event) {
+        LiveState state = getOrLoad(event.getAuctionId());
+        if (state == null) {
+            return 0;
+        }
+        return state.applyBid(event);
+    }
+
+    /**
+     * Apply an auction close and return the new sequence number
+     */
+    public long applyClose(AuctionClosedEvent event) {
+        LiveState state = getOrLoad(event.getAuctionId());
+        if (state == null) {
+            return 0;
+        }
+        return state.applyClose(event);
+    }
+
+    /**
+     * Record that a frame with the given seq was broadcast.
+     * Returns the seq of the previously broadcast frame (the new frame's baseSeq).
+     */
+    public long markBroadcast(Long auctionId, long seq) {
+        LiveState state = states.get(auctionId);
+        return state != null ? state.markBroadcast(seq) : 0;
+    }
+
+    /**
+     * Build a versioned snapshot payload for a new subscriber, or null if the auction does not exist
+     */
+    public Map<String, Object> snapshot(Long auctionId) {
+        LiveState state = getOrLoad(auctionId);
+        return state != null ? state.toSnapshot() : null;
+    }
+
+    /**
+     * Get cached state, hydrating it from the database on first use
+     */
+    private LiveState getOrLoad(Long auctionId) {
+        LiveState existing = states.get(auctionId);
+        if (existing != null) {
+            return existing;
+        }
+
+        Auction auction = auctionRepository.findById(auctionId).orElse(null);
+        if (auction == null) {
+            return null;
+        }
+        List<Bid> topBids = bidRepository.findTop5ByAuctionIdOrderByAmountDesc(auctionId);
+        long totalBids = bidRepository.countByAuctionId(auctionId);
+
+        LiveState loaded = new LiveState(auction, topBids, totalBids);
+        LiveState raced = states.putIfAbsent(auctionId, loaded);
+        log.debug("Live state hydrated: auctionId={}, bids={}", auctionId, totalBids);
+        return raced != null ? raced : loaded;
+    }
+
+    /**
+     * Drop closed auctions once late joiners no longer need their snapshot
+     */
+    @Scheduled(fixedRate = 600000) // Every 10 minutes
+    public void evictClosed() {
+        Instant cutoff = Instant.now().minus(CLOSED_RETENTION);
+        int before = states.size();
+        states.values().removeIf(state -> state.isClosedBefore(cutoff));
+        if (states.size() < before) {
+            log.info("Evicted {} closed auctions from live state", before - states.size());
+        }
+    }
+
+    /**
+     * Get number of auctions currently held in memory
+     */
+    public int size() {
+        return states.size();
+    }
+
+    /**
+     * Mutable live state of one auction, guarded by its own monitor
+     */
+    private static final class LiveState {
+        private final Long auctionId;
+        private final String fishName;
+        private final Instant endTime;
+        private final List<TopBid> topBids = new ArrayList<>(TOP_BIDS + 1);
+        private double currentPrice;
+        private long totalBids;
+        private boolean closed;
+        private Instant closedAt;
+        private long seq;
+        private long lastBroadcastSeq;
+
+        LiveState(Auction auction, List<Bid> bids, long totalBids) {
+            this.auctionId = auction.getId();
+            this.fishName = auction.getFishName();
+            this.endTime = auction.getEndTime();
+            this.currentPrice = auction.getCurrentPrice();
+            this.totalBids = totalBids;
+            this.closed = !auction.isActive();
+            this.closedAt = closed ? Instant.now() : null;
+            for (Bid bid : bids) {
+                topBids.add(new TopBid(bid.getId(), bid.getAmount(), bid.getBidderEmail(), bid.getBidTime()));
+            }
+        }
+
+        synchronized long applyBid(BidPlacedEvent event) {
+            // Hydration inside the bid transaction may already contain this bid
+            boolean known = topBids.stream().anyMatch(b -> b.bidId() != null && b.bidId().equals(event.getBidId()));
+            if (!known) {
+                totalBids++;
+                topBids.add(new TopBid(event.getBidId(), event.getAmount(), event.getBidderEmail(), event.getTimestamp()));
+                topBids.sort((a, b) -> Double.compare(b.amount(), a.amount()));
+                if (topBids.size() > TOP_BIDS) {
+                    topBids.remove(topBids.size() - 1);
+                }
+            }
+            currentPrice = Math.max(currentPrice, event.getAmount());
+            return ++seq;
+        }
+
+        synchronized long applyClose(AuctionClosedEvent event) {
+            closed = true;
+            closedAt = Instant.now();
+            if (event.getFinalPrice() != null) {
+                currentPrice = event.getFinalPrice();
+            }
+            return ++seq;
+        }
+
+        synchronized long markBroadcast(long frameSeq) {
+            long base = lastBroadcastSeq;
+            lastBroadcastSeq = Math.max(lastBroadcastSeq, frameSeq);
+            return base;
+        }
+
+        synchronized boolean isClosedBefore(Instant cutoff) {
+            return closed && closedAt != null && closedAt.isBefore(cutoff);
+        }
+
+        synchronized Map<String, Object> toSnapshot() {
+            boolean expired = endTime != null && Instant.now().isAfter(endTime);
+
+            List<Map<String, Object>> bids = new ArrayList<>(topBids.size());
+            for (TopBid bid : topBids) {
+                Map<String, Object> entry = new LinkedHashMap<>();
+                entry.put("amount", bid.amount());
+                entry.put("bidder", WebSocketEventHandler.maskEmail(bid.bidderEmail()));
+                entry.put("bidTime", bid.bidTime() != null ? bid.bidTime().toString() : null);
+                bids.add(entry);
+            }
+
+            Map<String, Object> snapshot = new LinkedHashMap<>();
+            snapshot.put("type", "SNAPSHOT");
+            snapshot.put("auctionId", auctionId);
+            snapshot.put("fishName", fishName);
+            snapshot.put("currentPrice", currentPrice);
+            snapshot.put("endTime", endTime != null ? endTime.toString() : null);
+            snapshot.put("status", closed || expired ? "CLOSED" : "ACTIVE");
+            snapshot.put("totalBids", totalBids);
+            snapshot.put("topBids", bids);
+            snapshot.put("seq", seq);
+            return snapshot;
+        }
+    }
+
+    private record TopBid(Long bidId, double amount, String bidderEmail, Instant bidTime) {}
+}
@@ -0,0 +1,218 @@
+package com.FishOnBid.FishOnBid_Backend.websocket;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.messaging.SessionDisconnectEvent;
+import org.springframework.web.socket.messaging.SessionSubscribeEvent;
+import org.springframework.web.socket.messaging.SessionUnsubscribeEvent;
+
+import java.security.Principal;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Live viewer presence per auction.
+ *
+ * Driven only by STOMP SUBSCRIBE / UNSUBSCRIBE / DISCONNECT session events, so the
+ * broker does no extra work per message. Current viewers are kept in striped
+ * counters (LongAdder); unique viewers per time window are estimated with a
+ * HyperLogLog sketch keyed by user (or session for anonymous viewers).
+ *
+ * Auctions whose counts changed are marked dirty and picked up by
+ * BidUpdateCoalescer, which piggy-backs the counts on its next flush.
+ *
+ * Feature Flags:
+ * - websocket.presence.window-minutes=15 (default): unique-viewer window length
+ */
+@Component
+@Slf4j
+public class AuctionPresenceTracker {
+
+    private static final String AUCTION_TOPIC_PREFIX = "/topic/auction/";
+    private static final String BINARY_AUCTION_TOPIC_PREFIX = "/topic/bin/auction/";
+
+    @Value("${websocket.presence.window-minutes:15}")
+    private long windowMinutes;
+
+    private final Map<Long, AuctionPresence> presenceByAuction = new ConcurrentHashMap<>();
+
+    // sessionId -> (subscriptionId -> auctionId), needed to resolve unsubscribe/disconnect
+    private final Map<String, Map<String, Long>> subscriptionsBySession = new ConcurrentHashMap<>();
+
+    private final Set<Long> dirtyAuctions = ConcurrentHashMap.newKeySet();
+
+    @EventListener
+    public void handleSubscribe(SessionSubscribeEvent event) {
+        SimpMessageHeaderAccessor accessor = SimpMessageHeaderAccessor.wrap(event.getMessage());
+        Long auctionId = auctionIdOf(accessor.getDestination());
+        String sessionId = accessor.getSessionId();
+        if (auctionId == null || sessionId == null || accessor.getSubscriptionId() == null) {
+            return;
+        }
+
+        subscriptionsBySession
+                .computeIfAbsent(sessionId, id -> new ConcurrentHashMap<>())
+                .put(accessor.getSubscriptionId(), auctionId);
+
+        Principal user = event.getUser();
+        AuctionPresence presence = presenceByAuction.computeIfAbsent(auctionId, id -> new AuctionPresence());
+        presence.live.increment();
+        presence.offerViewer(user != null ? user.getName() : sessionId, windowMillis());
+        dirtyAuctions.add(auctionId);
+    }
+
+    @EventListener
+    public void handleUnsubscribe(SessionUnsubscribeEvent event) {
+        SimpMessageHeaderAccessor accessor = SimpMessageHeaderAccessor.wrap(event.getMessage());
+        Map<String, Long> subscriptions = subscriptionsBySession.get(accessor.getSessionId());
+        if (subscriptions == null || accessor.getSubscriptionId() == null) {
+            return;
+        }
+        Long auctionId = subscriptions.remove(accessor.getSubscriptionId());
+        if (auctionId != null) {
+            leave(auctionId);
+        }
+    }
+
+    @EventListener
+    public void handleDisconnect(SessionDisconnectEvent event) {
+        Map<String, Long> subscriptions = subscriptionsBySession.remove(event.getSessionId());
+        if (subscriptions != null) {
+            subscriptions.values().forEach(this::leave);
+        }
+    }
+
+    private void leave(Long auctionId) {
+        AuctionPresence presence = presenceByAuction.get(auctionId);
+        if (presence != null) {
+            presence.live.decrement();
+            dirtyAuctions.add(auctionId);
+        }
+    }
+
+    /**
+     * Current subscriber count for an auction
+     */
+    public long getViewers(Long auctionId) {
+        AuctionPresence presence = presenceByAuction.get(auctionId);
+        return presence != null ? Math.max(0, presence.live.sum()) : 0;
+    }
+
+    /**
+     * Estimated unique viewers in the current window.
+     * Never below the live count, since viewers who joined before the window rolled
+     * over are still watching.
+     */
+    public long getUniqueViewers(Long auctionId) {
+        AuctionPresence presence = presenceByAuction.get(auctionId);
+        if (presence == null) {
+            return 0;
+        }
+        return Math.max(presence.uniqueViewers(windowMillis()), Math.max(0, presence.live.sum()));
+    }
+
+    /**
+     * Take and clear the set of auctions whose presence changed since the last call
+     */
+    public Set<Long> drainDirty() {
+        Set<Long> drained = new HashSet<>();
+        for (Long auctionId : dirtyAuctions) {
+            if (dirtyAuctions.remove(auctionId)) {
+                drained.add(auctionId);
+            }
+        }
+        return drained;
+    }
+
+    /**
+     * Clear the dirty mark for an auction whose counts were just sent with a bid frame
+     */
+    public void markSent(Long auctionId) {
+        dirtyAuctions.remove(auctionId);
+    }
+
+    /**
+     * Drop presence for auctions nobody has watched during the last window
+     */
+    @Scheduled(fixedRate = 300000) // Every 5 minutes
+    public void evictIdle() {
+        long window = windowMillis();
+        presenceByAuction.entrySet().removeIf(e -> e.getValue().isIdle(window));
+    }
+
+    /**
+     * Get presence statistics
+     */
+    public Map<String, Object> getStats() {
+        long viewers = presenceByAuction.values().stream().mapToLong(p -> Math.max(0, p.live.sum())).sum();
+        return Map.of(
+                "trackedAuctions", presenceByAuction.size(),
+                "trackedSessions", subscriptionsBySession.size(),
+                "totalViewers", viewers,
+                "windowMinutes", windowMinutes
+        );
+    }
+
+    private long windowMillis() {
+        return windowMinutes * 60_000L;
+    }
+
+    private static Long auctionIdOf(String destination) {
+        if (destination == null) {
+            return null;
+        }
+        String id;
+        if (destination.startsWith(AUCTION_TOPIC_PREFIX)) {
+            id = destination.substring(AUCTION_TOPIC_PREFIX.length());
+        } else if (destination.startsWith(BINARY_AUCTION_TOPIC_PREFIX)) {
+            id = destination.substring(BINARY_AUCTION_TOPIC_PREFIX.length());
+        } else {
+            return null;
+        }
+        try {
+            return Long.valueOf(id);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Presence of one auction: live counter plus a windowed unique-viewer sketch
+     */
+    private static final class AuctionPresence {
+        private final LongAdder live = new LongAdder();
+        private HyperLogLogSketch current = new HyperLogLogSketch();
+        private long windowStart = System.currentTimeMillis();
+        private long lastActivity = windowStart;
+
+        synchronized void offerViewer(String viewer, long windowMs) {
+            rotateIfExpired(windowMs);
+            current.offer(viewer);
+            lastActivity = System.currentTimeMillis();
+        }
+
+        synchronized long uniqueViewers(long windowMs) {
+            rotateIfExpired(windowMs);
+            return current.estimate();
+        }
+
+        synchronized boolean isIdle(long windowMs) {
+            return live.sum() <= 0 && System.currentTimeMillis() - lastActivity > windowMs;
+        }
+
+        private void rotateIfExpired(long windowMs) {
+            long now = System.currentTimeMillis();
+            if (now - windowStart >= windowMs) {
+                current = new HyperLogLogSketch();
+                windowStart = now;
+            }
+        }
+    }
+}
@@ -0,0 +1,131 @@
+package com.FishOnBid.FishOnBid_Backend.websocket;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.MessageHandler;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.simp.broker.SimpleBrokerMessageHandler;
+import org.springframework.messaging.support.ExecutorChannelInterceptor;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.stereotype.Component;
+import org.springframework.util.MimeTypeUtils;
+
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Answers a SUBSCRIBE to /topic/auction/{id} with a versioned snapshot.
+ *
+ * The snapshot is sent only after the simple broker has registered the
+ * subscription, so every delta broadcast after the snapshot is guaranteed to reach
+ * the client. Viewers no longer need GET /api/auctions/{id} and /summary on join.
+ * The snapshot goes straight onto the outbound channel, outside the broker's
+ * per-session publish order, so it can interleave with deltas published right
+ * after the subscription; its seq tells the client which of those it already covers.
+ *
+ * Messaging beans are injected lazily because this interceptor is itself part of
+ * the broker channel configuration.
+ */
+@Component
+@Slf4j
+public class AuctionSnapshotInterceptor implements ExecutorChannelInterceptor {
+
+    private static final String AUCTION_TOPIC_PREFIX = "/topic/auction/";
+    private static final String BINARY_AUCTION_TOPIC_PREFIX = "/topic/bin/auction/";
+
+    private final AuctionLiveStateRegistry liveStateRegistry;
+    private final AuctionPresenceTracker presenceTracker;
+    private final StompBroadcaster broadcaster;
+    private final MessageChannel clientOutboundChannel;
+
+    private final AtomicLong snapshotsSent = new AtomicLong();
+
+    public AuctionSnapshotInterceptor(
+            AuctionLiveStateRegistry liveStateRegistry,
+            AuctionPresenceTracker presenceTracker,
+            @Lazy StompBroadcaster broadcaster,
+            @Lazy @Qualifier("clientOutboundChannel") MessageChannel clientOutboundChannel
+    ) {
+        this.liveStateRegistry = liveStateRegistry;
+        this.presenceTracker = presenceTracker;
+        this.broadcaster = broadcaster;
+        this.clientOutboundChannel = clientOutboundChannel;
+    }
+
+    @Override
+    public void afterMessageHandled(Message<?> message, MessageChannel channel, MessageHandler handler, Exception ex) {
+        if (ex != null || !(handler instanceof SimpleBrokerMessageHandler)) {
+            return;
+        }
+        if (SimpMessageHeaderAccessor.getMessageType(message.getHeaders()) != SimpMessageType.SUBSCRIBE) {
+            return;
+        }
+
+        String destination = SimpMessageHeaderAccessor.getDestination(message.getHeaders());
+        if (destination == null) {
+            return;
+        }
+
+        // Binary subscribers get the same (JSON) snapshot; only deltas are binary
+        Long auctionId = null;
+        if (destination.startsWith(AUCTION_TOPIC_PREFIX)) {
+            auctionId = parseAuctionId(destination, AUCTION_TOPIC_PREFIX);
+        } else if (destination.startsWith(BINARY_AUCTION_TOPIC_PREFIX)) {
+            auctionId = parseAuctionId(destination, BINARY_AUCTION_TOPIC_PREFIX);
+        }
+        if (auctionId == null) {
+            return;
+        }
+
+        try {
+            sendSnapshot(message, destination, auctionId);
+        } catch (Exception e) {
+            log.warn("Snapshot for auction {} failed: {}", auctionId, e.getMessage());
+        }
+    }
+
+    private void sendSnapshot(Message<?> subscribe, String destination, Long auctionId) {
+        Map<String, Object> snapshot = liveStateRegistry.snapshot(auctionId);
+        if (snapshot == null) {
+            return;
+        }
+        snapshot.put("viewers", presenceTracker.getViewers(auctionId));
+        snapshot.put("uniqueViewers", presenceTracker.getUniqueViewers(auctionId));
+
+        Message<byte[]> encoded = broadcaster.encode(snapshot);
+        if (encoded == null) {
+            return;
+        }
+
+        SimpMessageHeaderAccessor accessor = SimpMessageHeaderAccessor.create(SimpMessageType.MESSAGE);
+        accessor.setSessionId(SimpMessageHeaderAccessor.getSessionId(subscribe.getHeaders()));
+        accessor.setSubscriptionId(SimpMessageHeaderAccessor.getSubscriptionId(subscribe.getHeaders()));
+        accessor.setDestination(destination);
+        accessor.setContentType(MimeTypeUtils.APPLICATION_JSON);
+        accessor.setLeaveMutable(true);
+
+        clientOutboundChannel.send(MessageBuilder.createMessage(encoded.getPayload(), accessor.getMessageHeaders()));
+        snapshotsSent.incrementAndGet();
+
+        log.debug("WS SNAPSHOT → {} → seq={}", destination, snapshot.get("seq"));
+    }
+
+    private Long parseAuctionId(String destination, String prefix) {
+        try {
+            return Long.valueOf(destination.substring(prefix.length()));
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Get number of snapshots sent to new subscribers
+     */
+    public long getSnapshotsSent() {
+        return snapshotsSent.get();
+    }
+}
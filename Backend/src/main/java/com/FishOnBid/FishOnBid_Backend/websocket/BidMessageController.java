@@ -0,0 +1,73 @@
+package com.FishOnBid.FishOnBid_Backend.websocket;
+
+import com.FishOnBid.FishOnBid_Backend.entity.Bid;
+import com.FishOnBid.FishOnBid_Backend.service.AuctionService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.messaging.handler.annotation.DestinationVariable;
+import org.springframework.messaging.handler.annotation.MessageMapping;
+import org.springframework.messaging.handler.annotation.Payload;
+import org.springframework.messaging.simp.annotation.SendToUser;
+import org.springframework.stereotype.Controller;
+
+import java.security.Principal;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * STOMP bid placement for high-frequency bidders.
+ *
+ * SEND /app/auction/{id}/bid  { "amount": 1250.0, "requestId": "optional-client-id" }
+ * Reply on /user/queue/bids   { "type": "BID_ACK" | "BID_REJECTED", ... }
+ *
+ * The bidder is the principal authenticated once at STOMP CONNECT
+ * (see StompAuthChannelInterceptor), so no HTTP request or JWT parse per bid.
+ */
+@Controller
+@RequiredArgsConstructor
+@Slf4j
+public class BidMessageController {
+
+    private final AuctionService auctionService;
+
+    @MessageMapping("/auction/{id}/bid")
+    @SendToUser(destinations = "/queue/bids", broadcast = false)
+    public Map<String, Object> placeBid(
+            @DestinationVariable Long id,
+            @Payload Map<String, Object> request,
+            Principal principal
+    ) {
+        Object requestId = request.get("requestId");
+
+        if (principal == null) {
+            return rejection(id, requestId, "Authentication required: send a Bearer token on CONNECT");
+        }
+        if (!(request.get("amount") instanceof Number amount)) {
+            return rejection(id, requestId, "Bid amount is required");
+        }
+
+        try {
+            Bid bid = auctionService.placeBid(id, amount.doubleValue(), principal.getName());
+
+            Map<String, Object> ack = new LinkedHashMap<>();
+            ack.put("type", "BID_ACK");
+            ack.put("auctionId", id);
+            ack.put("bidId", bid.getId());
+            ack.put("amount", bid.getAmount());
+            ack.put("requestId", requestId);
+            return ack;
+        } catch (RuntimeException e) {
+            log.info("WS BID REJECTED → auctionId={} → bidder={} → {}", id, principal.getName(), e.getMessage());
+            return rejection(id, requestId, e.getMessage());
+        }
+    }
+
+    private Map<String, Object> rejection(Long auctionId, Object requestId, String reason) {
+        Map<String, Object> rejection = new LinkedHashMap<>();
+        rejection.put("type", "BID_REJECTED");
+        rejection.put("auctionId", auctionId);
+        rejection.put("reason", reason);
+        rejection.put("requestId", requestId);
+        return rejection;
+    }
+}
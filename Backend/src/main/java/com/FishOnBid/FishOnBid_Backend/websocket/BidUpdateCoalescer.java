@@ -0,0 +1,254 @@
+package com.FishOnBid.FishOnBid_Backend.websocket;
+
+import com.FishOnBid.FishOnBid_Backend.events.BidPlacedEvent;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Conflating broadcaster for bid updates.
+ *
+ * During a bidding war every bid would produce one frame on /topic/auction/{id},
+ * plus one on /topic/bids while a firehose subscriber exists. The coalescer keeps
+ * only the latest bid per auction and flushes once per window, so viewers see the
+ * newest price without every intermediate step.
+ *
+ * Feature Flags:
+ * - websocket.coalesce.window-ms=75 (default): flush period; the latest price is
+ *   never held back longer than one window
+ * - websocket.coalesce.window-ms=0: disables coalescing, every bid is sent directly
+ *
+ * Viewer counts from AuctionPresenceTracker ride along on bid frames; auctions whose
+ * audience changed without a bid get a small VIEWERS frame on the same flush.
+ *
+ * Taking an auction's pending update and sending it happen under a per-auction
+ * (striped) lock, so flushThen can send a close frame strictly after a final bid
+ * the flusher thread is still sending.
+ */
+@Component
+@Slf4j
+@RequiredArgsConstructor
+public class BidUpdateCoalescer {
+
+    private final StompBroadcaster broadcaster;
+    private final AuctionLiveStateRegistry liveStateRegistry;
+    private final AuctionPresenceTracker presenceTracker;
+    private final FirehoseSubscriptionInterceptor firehose;
+
+    @Value("${websocket.coalesce.window-ms:75}")
+    private long windowMs;
+
+    // Latest pending update per auction, replaced on every bid inside a window
+    private final Map<Long, PendingUpdate> pending = new ConcurrentHashMap<>();
+
+    private static final int LOCK_STRIPES = 64;
+    private final Object[] flushLocks = new Object[LOCK_STRIPES];
+
+    {
+        for (int i = 0; i < LOCK_STRIPES; i++) {
+            flushLocks[i] = new Object();
+        }
+    }
+
+    private final AtomicLong framesIn = new AtomicLong();
+    private final AtomicLong framesOut = new AtomicLong();
+    private final AtomicLong flushes = new AtomicLong();
+    private final AtomicLong presenceFrames = new AtomicLong();
+
+    private ScheduledExecutorService flusher;
+
+    @PostConstruct
+    public void init() {
+        if (windowMs > 0) {
+            flusher = Executors.newSingleThreadScheduledExecutor(r -> {
+                Thread t = new Thread(r, "ws-coalescer");
+                t.setDaemon(true);
+                return t;
+            });
+            flusher.scheduleAtFixedRate(this::flushAll, windowMs, windowMs, TimeUnit.MILLISECONDS);
+        }
+        log.info("Bid update coalescer initialized: windowMs={}, mode={}",
+                windowMs, windowMs > 0 ? "COALESCING" : "DIRECT");
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (flusher != null) {
+            flusher.shutdown();
+        }
+        flushAll();
+    }
+
+    /**
+     * Queue a bid for broadcast. Bids on the same auction within one window
+     * collapse into a single frame carrying the latest price.
+     *
+     * @param seq live-state sequence number assigned to this bid
+     */
+    public void submit(BidPlacedEvent event, long seq) {
+        framesIn.incrementAndGet();
+
+        if (flusher == null) {
+            synchronized (lockFor(event.getAuctionId())) {
+                send(new PendingUpdate(event, seq));
+            }
+            return;
+        }
+
+        pending.merge(event.getAuctionId(), new PendingUpdate(event, seq), PendingUpdate::mergeWith);
+    }
+
+    /**
+     * Flush the pending update for one auction immediately
+     */
+    public void flush(Long auctionId) {
+        flushThen(auctionId, () -> { });
+    }
+
+    /**
+     * Flush the pending update for one auction, then run the follow-up while still
+     * holding the auction's lock. Used for the auction-closed frame: if the flusher
+     * thread is mid-send of the final bid, this waits for it, so the final price is
+     * always delivered before the close.
+     */
+    public void flushThen(Long auctionId, Runnable followUp) {
+        synchronized (lockFor(auctionId)) {
+            PendingUpdate update = pending.remove(auctionId);
+            if (update != null) {
+                send(update);
+            }
+            followUp.run();
+        }
+    }
+
+    private Object lockFor(Long auctionId) {
+        return flushLocks[Math.floorMod(auctionId.hashCode(), LOCK_STRIPES)];
+    }
+
+    /**
+     * Flush every pending auction update (runs once per window)
+     */
+    private void flushAll() {
+        try {
+            for (Long auctionId : pending.keySet()) {
+                flush(auctionId);
+            }
+            for (Long auctionId : presenceTracker.drainDirty()) {
+                sendPresence(auctionId);
+            }
+            flushes.incrementAndGet();
+        } catch (Exception e) {
+            log.error("Coalesced flush failed: {}", e.getMessage(), e);
+        }
+    }
+
+    private void send(PendingUpdate update) {
+        BidPlacedEvent latest = update.latest;
+        String destination = "/topic/auction/" + latest.getAuctionId();
+        long baseSeq = liveStateRegistry.markBroadcast(latest.getAuctionId(), update.seq);
+
+        Map<String, Object> payload = new LinkedHashMap<>();
+        payload.put("type", "BID_PLACED");
+        payload.put("auctionId", latest.getAuctionId());
+        payload.put("currentPrice", latest.getAmount());
+        payload.put("previousPrice", update.firstPreviousPrice);
+        payload.put("bidder", WebSocketEventHandler.maskEmail(latest.getBidderEmail()));
+        payload.put("coalescedBids", update.bidCount);
+        payload.put("timestamp", latest.getTimestamp().toString());
+        payload.put("status", "ACTIVE");
+        payload.put("seq", update.seq);
+        payload.put("baseSeq", baseSeq);
+        payload.put("viewers", presenceTracker.getViewers(latest.getAuctionId()));
+        payload.put("uniqueViewers", presenceTracker.getUniqueViewers(latest.getAuctionId()));
+        presenceTracker.markSent(latest.getAuctionId());
+
+        if (firehose.hasSubscribers()) {
+            broadcaster.broadcast(payload, destination, FirehoseSubscriptionInterceptor.FIREHOSE_TOPIC);
+            framesOut.addAndGet(2);
+        } else {
+            broadcaster.broadcast(payload, destination);
+            framesOut.incrementAndGet();
+        }
+
+        log.debug("WS PUSH → {} → BidPlaced → ₹{} ({} bids coalesced)",
+                destination, latest.getAmount(), update.bidCount);
+    }
+
+    /**
+     * Send a viewer-count-only frame to the auction topic (no seq: auction state is unchanged)
+     */
+    private void sendPresence(Long auctionId) {
+        Map<String, Object> payload = new LinkedHashMap<>();
+        payload.put("type", "VIEWERS");
+        payload.put("auctionId", auctionId);
+        payload.put("viewers", presenceTracker.getViewers(auctionId));
+        payload.put("uniqueViewers", presenceTracker.getUniqueViewers(auctionId));
+        payload.put("timestamp", Instant.now().toString());
+
+        broadcaster.broadcast(payload, "/topic/auction/" + auctionId);
+        framesOut.incrementAndGet();
+        presenceFrames.incrementAndGet();
+    }
+
+    /**
+     * Get coalescing statistics (frames in = bids submitted, frames out = STOMP sends)
+     */
+    public CoalescerStats getStats() {
+        long in = framesIn.get();
+        long out = framesOut.get();
+        // Without coalescing every bid costs two frames (auction topic + global topic)
+        double ratio = in > 0 ? (double) out / (in * 2) : 1.0;
+        return new CoalescerStats(windowMs, in, out, flushes.get(), pending.size(),
+                Math.round(ratio * 1000.0) / 1000.0, presenceFrames.get());
+    }
+
+    public record CoalescerStats(
+            long windowMs,
+            long framesIn,
+            long framesOut,
+            long flushes,
+            int pendingAuctions,
+            double outputRatio,
+            long presenceFrames
+    ) {}
+
+    /**
+     * Latest bid for an auction plus what was collapsed into it
+     */
+    private static final class PendingUpdate {
+        private final BidPlacedEvent latest;
+        private final Double firstPreviousPrice;
+        private final int bidCount;
+        private final long seq;
+
+        PendingUpdate(BidPlacedEvent event, long seq) {
+            this(event, event.getPreviousPrice(), 1, seq);
+        }
+
+        private PendingUpdate(BidPlacedEvent latest, Double firstPreviousPrice, int bidCount, long seq) {
+            this.latest = latest;
+            this.firstPreviousPrice = firstPreviousPrice;
+            this.bidCount = bidCount;
+            this.seq = seq;
+        }
+
+        PendingUpdate mergeWith(PendingUpdate newer) {
+            // Bids are committed under a row lock, so amounts only grow; keep the highest
+            BidPlacedEvent winner = newer.latest.getAmount() >= latest.getAmount() ? newer.latest : latest;
+            return new PendingUpdate(winner, firstPreviousPrice, bidCount + newer.bidCount,
+                    Math.max(seq, newer.seq));
+        }
+    }
+}
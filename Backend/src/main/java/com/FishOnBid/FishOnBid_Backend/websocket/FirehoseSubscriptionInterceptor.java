@@ -0,0 +1,104 @@
+package com.FishOnBid.FishOnBid_Backend.websocket;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.simp.stomp.StompCommand;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.messaging.support.ChannelInterceptor;
+import org.springframework.messaging.support.MessageHeaderAccessor;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.messaging.SessionDisconnectEvent;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Gate for the platform-wide /topic/bids firehose.
+ *
+ * Dashboards used to subscribe to /topic/bids by default and filter every bid on the
+ * platform client-side. Bidders now get their own outbid/leading notices on
+ * /user/queue/notifications (see OutbidNotifier), so the firehose is opt-in: a
+ * SUBSCRIBE to /topic/bids (or /topic/bin/bids) must carry the header
+ * "firehose: true", otherwise it is dropped. While nobody holds a firehose
+ * subscription, BidUpdateCoalescer skips the /topic/bids send entirely.
+ *
+ * Feature Flags:
+ * - websocket.firehose.require-opt-in=true (default): drop SUBSCRIBEs without the header
+ * - websocket.firehose.require-opt-in=false: legacy behaviour, any client may subscribe
+ */
+@Component
+@Slf4j
+public class FirehoseSubscriptionInterceptor implements ChannelInterceptor {
+
+    static final String FIREHOSE_TOPIC = "/topic/bids";
+    private static final String BINARY_FIREHOSE_TOPIC = "/topic/bin/bids";
+    private static final String OPT_IN_HEADER = "firehose";
+
+    @Value("${websocket.firehose.require-opt-in:true}")
+    private boolean requireOptIn;
+
+    // sessionId -> firehose subscription ids
+    private final Map<String, Set<String>> subscriptionsBySession = new ConcurrentHashMap<>();
+
+    private final AtomicLong rejectedSubscriptions = new AtomicLong();
+
+    @Override
+    public Message<?> preSend(Message<?> message, MessageChannel channel) {
+        StompHeaderAccessor accessor = MessageHeaderAccessor.getAccessor(message, StompHeaderAccessor.class);
+        if (accessor == null || accessor.getSessionId() == null) {
+            return message;
+        }
+
+        if (accessor.getCommand() == StompCommand.SUBSCRIBE && isFirehose(accessor.getDestination())) {
+            if (requireOptIn && !"true".equalsIgnoreCase(accessor.getFirstNativeHeader(OPT_IN_HEADER))) {
+                rejectedSubscriptions.incrementAndGet();
+                log.debug("WS FIREHOSE → dropped SUBSCRIBE without opt-in → session={}", accessor.getSessionId());
+                return null;
+            }
+            subscriptionsBySession
+                    .computeIfAbsent(accessor.getSessionId(), id -> ConcurrentHashMap.newKeySet())
+                    .add(accessor.getSubscriptionId());
+        } else if (accessor.getCommand() == StompCommand.UNSUBSCRIBE) {
+            Set<String> subscriptions = subscriptionsBySession.get(accessor.getSessionId());
+            if (subscriptions != null) {
+                subscriptions.remove(accessor.getSubscriptionId());
+                if (subscriptions.isEmpty()) {
+                    subscriptionsBySession.remove(accessor.getSessionId(), subscriptions);
+                }
+            }
+        }
+        return message;
+    }
+
+    @EventListener
+    public void handleDisconnect(SessionDisconnectEvent event) {
+        subscriptionsBySession.remove(event.getSessionId());
+    }
+
+    /**
+     * Whether any session currently holds a firehose subscription
+     */
+    public boolean hasSubscribers() {
+        return !requireOptIn || !subscriptionsBySession.isEmpty();
+    }
+
+    /**
+     * Get firehose statistics
+     */
+    public Map<String, Object> getStats() {
+        return Map.of(
+                "requireOptIn", requireOptIn,
+                "firehoseSessions", subscriptionsBySession.size(),
+                "rejectedSubscriptions", rejectedSubscriptions.get()
+        );
+    }
+
+    private static boolean isFirehose(String destination) {
+        return FIREHOSE_TOPIC.equals(destination) || BINARY_FIREHOSE_TOPIC.equals(destination);
+    }
+}
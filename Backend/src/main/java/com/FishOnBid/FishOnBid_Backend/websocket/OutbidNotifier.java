@@ -0,0 +1,108 @@
+package com.FishOnBid.FishOnBid_Backend.websocket;
+
+import com.FishOnBid.FishOnBid_Backend.events.BidPlacedEvent;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * User-targeted bid notices.
+ *
+ * Keeps the current leader of every live auction in memory and, on each bid, sends
+ * at most two frames: LEADING to the new leader and OUTBID to the bidder who just
+ * lost the lead. Both go to /user/queue/notifications, so a bidder hears about
+ * their own auctions without watching the /topic/bids firehose.
+ */
+@Component
+@Slf4j
+@RequiredArgsConstructor
+public class OutbidNotifier {
+
+    static final String NOTIFICATIONS_QUEUE = "/queue/notifications";
+
+    private final StompBroadcaster broadcaster;
+
+    private final Map<Long, Leader> leaders = new ConcurrentHashMap<>();
+
+    private final AtomicLong leadingSent = new AtomicLong();
+    private final AtomicLong outbidSent = new AtomicLong();
+
+    /**
+     * Update the leader for the bid's auction and notify the affected bidders
+     */
+    public void onBid(BidPlacedEvent event) {
+        if (event.getBidderEmail() == null || event.getAmount() == null) {
+            return;
+        }
+        Leader next = new Leader(event.getBidderEmail(), event.getAmount());
+        Leader[] previous = new Leader[1];
+        boolean[] accepted = new boolean[1];
+
+        leaders.compute(event.getAuctionId(), (id, current) -> {
+            // Ignore stale or replayed bids that do not beat the known leader
+            if (current != null && current.amount() >= next.amount()) {
+                return current;
+            }
+            previous[0] = current;
+            accepted[0] = true;
+            return next;
+        });
+        if (!accepted[0]) {
+            return;
+        }
+
+        send(next.bidder(), notice("LEADING", event, next.amount()));
+        leadingSent.incrementAndGet();
+
+        if (previous[0] != null && !previous[0].bidder().equals(next.bidder())) {
+            Map<String, Object> outbid = notice("OUTBID", event, next.amount());
+            outbid.put("yourBid", previous[0].amount());
+            send(previous[0].bidder(), outbid);
+            outbidSent.incrementAndGet();
+        }
+    }
+
+    /**
+     * Forget the leader once an auction has closed
+     */
+    public void onClose(Long auctionId) {
+        leaders.remove(auctionId);
+    }
+
+    /**
+     * Get notification statistics
+     */
+    public Map<String, Object> getStats() {
+        return Map.of(
+                "trackedAuctions", leaders.size(),
+                "leadingSent", leadingSent.get(),
+                "outbidSent", outbidSent.get()
+        );
+    }
+
+    private Map<String, Object> notice(String type, BidPlacedEvent event, double currentPrice) {
+        Map<String, Object> payload = new LinkedHashMap<>();
+        payload.put("type", type);
+        payload.put("auctionId", event.getAuctionId());
+        payload.put("fishName", event.getFishName());
+        payload.put("currentPrice", currentPrice);
+        payload.put("timestamp", Instant.now().toString());
+        return payload;
+    }
+
+    private void send(String user, Map<String, Object> payload) {
+        try {
+            broadcaster.sendToUser(user, NOTIFICATIONS_QUEUE, payload);
+        } catch (Exception e) {
+            log.warn("WS NOTICE FAILED → {} → {}", payload.get("type"), e.getMessage());
+        }
+    }
+
+    private record Leader(String bidder, double amount) {}
+}
@@ -0,0 +1,117 @@
+package com.FishOnBid.FishOnBid_Backend.websocket;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.event.EventListener;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.MessageHandler;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.support.ExecutorChannelInterceptor;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.messaging.SessionDisconnectEvent;
+
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Tracks per-session queue depth on the client outbound channel.
+ *
+ * A frame counts as queued from the moment it enters the outbound channel until the
+ * channel executor has handed it to the session. A consistently deep queue points at
+ * a slow consumer; the transport send limits in WebSocketConfig evict such sessions,
+ * and those evictions are counted here.
+ */
+@Component
+@Slf4j
+public class SessionQueueDepthInterceptor implements ExecutorChannelInterceptor {
+
+    private final Map<String, AtomicInteger> depthBySession = new ConcurrentHashMap<>();
+    private final AtomicInteger peakDepth = new AtomicInteger();
+    private final AtomicLong slowSessionsEvicted = new AtomicLong();
+
+    // Sessions closed within the last minute -> close time; the disconnect event can
+    // fire twice per session and frames already in flight can still arrive
+    private static final long CLOSED_RETENTION_NANOS = TimeUnit.MINUTES.toNanos(1);
+    private final Map<String, Long> recentlyClosed = new ConcurrentHashMap<>();
+
+    @Override
+    public Message<?> preSend(Message<?> message, MessageChannel channel) {
+        String sessionId = SimpMessageHeaderAccessor.getSessionId(message.getHeaders());
+        if (sessionId != null && !recentlyClosed.containsKey(sessionId)) {
+            int depth = depthBySession.computeIfAbsent(sessionId, id -> new AtomicInteger()).incrementAndGet();
+            peakDepth.accumulateAndGet(depth, Math::max);
+        }
+        return message;
+    }
+
+    @Override
+    public void afterSendCompletion(Message<?> message, MessageChannel channel, boolean sent, Exception ex) {
+        // Rejected by the executor: the frame never got queued
+        if (!sent || ex != null) {
+            decrement(message);
+        }
+    }
+
+    @Override
+    public void afterMessageHandled(Message<?> message, MessageChannel channel, MessageHandler handler, Exception ex) {
+        decrement(message);
+    }
+
+    private void decrement(Message<?> message) {
+        String sessionId = SimpMessageHeaderAccessor.getSessionId(message.getHeaders());
+        if (sessionId == null) {
+            return;
+        }
+        AtomicInteger depth = depthBySession.get(sessionId);
+        if (depth != null) {
+            depth.updateAndGet(d -> Math.max(0, d - 1));
+        }
+    }
+
+    /**
+     * Drop counters for closed sessions and record slow-consumer evictions
+     */
+    @EventListener
+    public void handleDisconnect(SessionDisconnectEvent event) {
+        long now = System.nanoTime();
+        recentlyClosed.values().removeIf(closedAt -> now - closedAt > CLOSED_RETENTION_NANOS);
+        boolean firstClose = recentlyClosed.putIfAbsent(event.getSessionId(), now) == null;
+        depthBySession.remove(event.getSessionId());
+        if (firstClose && CloseStatus.SESSION_NOT_RELIABLE.equals(event.getCloseStatus())) {
+            slowSessionsEvicted.incrementAndGet();
+            log.warn("WS EVICT → session={} → slow consumer exceeded send limits", event.getSessionId());
+        }
+    }
+
+    /**
+     * Get queue-depth statistics (deepest five sessions included)
+     */
+    public QueueDepthStats getStats() {
+        List<Map.Entry<String, AtomicInteger>> snapshot = List.copyOf(depthBySession.entrySet());
+
+        long totalDepth = snapshot.stream().mapToLong(e -> e.getValue().get()).sum();
+        Map<String, Integer> deepest = new LinkedHashMap<>();
+        snapshot.stream()
+                .sorted(Comparator.comparingInt((Map.Entry<String, AtomicInteger> e) -> e.getValue().get()).reversed())
+                .limit(5)
+                .forEach(e -> deepest.put(e.getKey(), e.getValue().get()));
+
+        return new QueueDepthStats(snapshot.size(), totalDepth, peakDepth.get(),
+                slowSessionsEvicted.get(), deepest);
+    }
+
+    public record QueueDepthStats(
+            int trackedSessions,
+            long totalQueuedFrames,
+            int peakSessionDepth,
+            long slowSessionsEvicted,
+            Map<String, Integer> deepestSessions
+    ) {}
+}
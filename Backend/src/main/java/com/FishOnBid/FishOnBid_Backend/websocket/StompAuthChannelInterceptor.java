@@ -0,0 +1,72 @@
+package com.FishOnBid.FishOnBid_Backend.websocket;
+
+import com.FishOnBid.FishOnBid_Backend.util.JwtUtil;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.simp.stomp.StompCommand;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.messaging.support.ChannelInterceptor;
+import org.springframework.messaging.support.MessageHeaderAccessor;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Authenticates a STOMP session once, at CONNECT.
+ *
+ * The client sends "Authorization: Bearer <jwt>" as a CONNECT header. The parsed
+ * principal is attached to the session by the STOMP protocol handler and reused for
+ * every later frame, so bids over /app/auction/{id}/bid skip per-request JWT parsing.
+ * Connecting without a token is still allowed for read-only viewers. An expired or
+ * invalid token also connects as an anonymous viewer rather than failing CONNECT:
+ * the browser resends whatever token it has stored, and rejecting it would cut a
+ * logged-out user off from public auction updates. Anonymous sessions get no
+ * per-user notices and cannot bid over STOMP.
+ */
+@Component
+@Slf4j
+@RequiredArgsConstructor
+public class StompAuthChannelInterceptor implements ChannelInterceptor {
+
+    private final JwtUtil jwtUtil;
+
+    @Override
+    public Message<?> preSend(Message<?> message, MessageChannel channel) {
+        StompHeaderAccessor accessor = MessageHeaderAccessor.getAccessor(message, StompHeaderAccessor.class);
+        if (accessor == null || accessor.getCommand() != StompCommand.CONNECT) {
+            return message;
+        }
+
+        String authHeader = accessor.getFirstNativeHeader("Authorization");
+        if (authHeader == null || !authHeader.startsWith("Bearer ")) {
+            return message;
+        }
+
+        String token = authHeader.substring(7);
+        try {
+            if (!jwtUtil.isTokenValid(token)) {
+                log.debug("WS CONNECT → expired or invalid token, session={} continues anonymously",
+                        accessor.getSessionId());
+                return message;
+            }
+            String email = jwtUtil.extractEmail(token);
+            String role = jwtUtil.extractRole(token);
+            String springRole = "ROLE_" + (role != null ? role.toUpperCase() : "USER");
+
+            accessor.setUser(new UsernamePasswordAuthenticationToken(
+                    email,
+                    null,
+                    List.of(new SimpleGrantedAuthority(springRole))
+            ));
+            log.debug("WS CONNECT → authenticated session={} → {}", accessor.getSessionId(), email);
+        } catch (Exception e) {
+            log.debug("WS CONNECT → unreadable token ({}), session={} continues anonymously",
+                    e.getMessage(), accessor.getSessionId());
+        }
+        return message;
+    }
+}
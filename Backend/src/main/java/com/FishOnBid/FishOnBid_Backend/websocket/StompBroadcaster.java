@@ -0,0 +1,142 @@
+package com.FishOnBid.FishOnBid_Backend.websocket;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageHeaders;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.stereotype.Component;
+import org.springframework.util.MimeTypeUtils;
+import org.springframework.util.StringUtils;
+
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Serialize-once broadcaster for STOMP fan-out.
+ *
+ * convertAndSend runs Jackson once per destination. Here each payload is encoded
+ * a single time (Jackson reuses its internal recycled buffers) and the resulting
+ * Message<byte[]> is handed to every destination, so the broker only copies
+ * headers per subscriber while the payload bytes are shared.
+ *
+ * Feature Flags:
+ * - websocket.binary.enabled=true (default): bid/close/create events are also
+ *   published in the compact BinaryFrameCodec form under /topic/bin/...
+ */
+@Component
+@Slf4j
+@RequiredArgsConstructor
+public class StompBroadcaster {
+
+    private static final String TOPIC_PREFIX = "/topic/";
+    private static final String BINARY_TOPIC_PREFIX = "/topic/bin/";
+
+    private final SimpMessagingTemplate messagingTemplate;
+    private final ObjectMapper objectMapper;
+
+    @Value("${websocket.binary.enabled:true}")
+    private boolean binaryEnabled;
+
+    private final AtomicLong eventsEncoded = new AtomicLong();
+    private final AtomicLong bytesEncoded = new AtomicLong();
+    private final AtomicLong framesSent = new AtomicLong();
+    private final AtomicLong binaryEventsEncoded = new AtomicLong();
+    private final AtomicLong binaryBytesEncoded = new AtomicLong();
+
+    /**
+     * Encode the payload once and send it to every destination.
+     * Topic destinations also get the binary form under /topic/bin/.
+     */
+    public void broadcast(Map<String, Object> payload, String... destinations) {
+        Message<byte[]> message = encode(payload);
+        if (message == null) {
+            return;
+        }
+        for (String destination : destinations) {
+            messagingTemplate.send(destination, message);
+        }
+        framesSent.addAndGet(destinations.length);
+
+        if (binaryEnabled) {
+            broadcastBinary(payload, destinations);
+        }
+    }
+
+    /**
+     * Encode the payload and send it to one user's destination (e.g. /queue/notifications).
+     * User destinations carry JSON only.
+     */
+    public void sendToUser(String user, String destination, Map<String, Object> payload) {
+        Message<byte[]> message = encode(payload);
+        if (message == null) {
+            return;
+        }
+        String userDestination = messagingTemplate.getUserDestinationPrefix()
+                + StringUtils.replace(user, "/", "%2F") + destination;
+        messagingTemplate.send(userDestination, message);
+        framesSent.incrementAndGet();
+    }
+
+    private void broadcastBinary(Map<String, Object> payload, String... destinations) {
+        byte[] bytes = BinaryFrameCodec.encode(payload);
+        if (bytes == null) {
+            return;
+        }
+        binaryEventsEncoded.incrementAndGet();
+        binaryBytesEncoded.addAndGet(bytes.length);
+
+        SimpMessageHeaderAccessor headers = SimpMessageHeaderAccessor.create();
+        headers.setContentType(BinaryFrameCodec.CONTENT_TYPE);
+        headers.setNativeHeader(BinaryFrameCodec.VERSION_HEADER, String.valueOf(BinaryFrameCodec.VERSION));
+        Message<byte[]> message = MessageBuilder.createMessage(bytes, headers.getMessageHeaders());
+        for (String destination : destinations) {
+            if (destination.startsWith(TOPIC_PREFIX)) {
+                messagingTemplate.send(BINARY_TOPIC_PREFIX + destination.substring(TOPIC_PREFIX.length()), message);
+                framesSent.incrementAndGet();
+            }
+        }
+    }
+
+    /**
+     * Encode a payload into a reusable JSON message
+     */
+    public Message<byte[]> encode(Map<String, Object> payload) {
+        try {
+            byte[] bytes = objectMapper.writeValueAsBytes(payload);
+            eventsEncoded.incrementAndGet();
+            bytesEncoded.addAndGet(bytes.length);
+            return MessageBuilder.withPayload(bytes)
+                    .setHeader(MessageHeaders.CONTENT_TYPE, MimeTypeUtils.APPLICATION_JSON)
+                    .build();
+        } catch (JsonProcessingException e) {
+            log.error("Failed to encode WebSocket payload: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Get broadcast statistics
+     */
+    public BroadcastStats getStats() {
+        long events = eventsEncoded.get();
+        long binaryEvents = binaryEventsEncoded.get();
+        return new BroadcastStats(events, framesSent.get(), bytesEncoded.get(),
+                events > 0 ? bytesEncoded.get() / events : 0,
+                binaryEvents, binaryEvents > 0 ? binaryBytesEncoded.get() / binaryEvents : 0);
+    }
+
+    public record BroadcastStats(
+            long eventsEncoded,
+            long framesSent,
+            long bytesEncoded,
+            long avgPayloadBytes,
+            long binaryEventsEncoded,
+            long avgBinaryPayloadBytes
+    ) {}
+}
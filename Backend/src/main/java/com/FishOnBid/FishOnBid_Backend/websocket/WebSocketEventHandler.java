@@ -6,9 +6,9 @@ import com.FishOnBid.FishOnBid_Backend.events.AuctionCreatedEvent;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.context.event.EventListener;
-import org.springframework.messaging.simp.SimpMessagingTemplate;
 import org.springframework.stereotype.Component;
 
+import java.util.LinkedHashMap;
 import java.util.Map;
 
 /**
@@ -17,37 +17,33 @@ import java.util.Map;
  * 
  * Topics:
  * - /topic/auction/{id}: Auction-specific updates (bids, close)
- * - /topic/bids: All bid activity (for dashboard)
+ * - /topic/bids: All bid activity, opt-in firehose (see FirehoseSubscriptionInterceptor)
+ * - /user/queue/notifications: Per-user LEADING / OUTBID notices (see OutbidNotifier)
  * - /topic/auctions: New auction notifications
+ *
+ * Auction topic frames carry seq/baseSeq from AuctionLiveStateRegistry so that
+ * clients joining via the subscribe snapshot can detect missed updates.
  */
 @Component
 @Slf4j
 @RequiredArgsConstructor
 public class WebSocketEventHandler {
 
-    private final SimpMessagingTemplate messagingTemplate;
+    private final StompBroadcaster broadcaster;
+    private final BidUpdateCoalescer bidUpdateCoalescer;
+    private final AuctionLiveStateRegistry liveStateRegistry;
+    private final OutbidNotifier outbidNotifier;
 
     /**
-     * Handle bid placed events - push to auction subscribers
+     * Handle bid placed events - push to auction subscribers.
+     * Bids are coalesced per auction so a bidding war sends one frame per window.
      */
     @EventListener
     public void handleBidPlaced(BidPlacedEvent event) {
-        String destination = "/topic/auction/" + event.getAuctionId();
-        
-        Map<String, Object> payload = Map.of(
-                "type", "BID_PLACED",
-                "auctionId", event.getAuctionId(),
-                "currentPrice", event.getAmount(),
-                "previousPrice", event.getPreviousPrice(),
-                "bidder", maskEmail(event.getBidderEmail()),
-                "timestamp", event.getTimestamp().toString(),
-                "status", "ACTIVE"
-        );
-
-        messagingTemplate.convertAndSend(destination, payload);
-        messagingTemplate.convertAndSend("/topic/bids", payload);
-        
-        log.info("WS PUSH → {} → BidPlaced → ₹{}", destination, event.getAmount());
+        long seq = liveStateRegistry.applyBid(event);
+        bidUpdateCoalescer.submit(event, seq);
+        outbidNotifier.onBid(event);
+        log.info("WS QUEUE → /topic/auction/{} → BidPlaced → ₹{}", event.getAuctionId(), event.getAmount());
     }
 
     /**
@@ -55,20 +51,28 @@ public class WebSocketEventHandler {
      */
     @EventListener
     public void handleAuctionClosed(AuctionClosedEvent event) {
+        outbidNotifier.onClose(event.getAuctionId());
+        // Deliver any pending (or in-flight) final bid before the close frame
+        bidUpdateCoalescer.flushThen(event.getAuctionId(), () -> broadcastClose(event));
+    }
+
+    private void broadcastClose(AuctionClosedEvent event) {
         String destination = "/topic/auction/" + event.getAuctionId();
-        
-        Map<String, Object> payload = Map.of(
-                "type", "AUCTION_CLOSED",
-                "auctionId", event.getAuctionId(),
-                "finalPrice", event.getFinalPrice(),
-                "winner", event.isHasWinner() ? maskEmail(event.getWinnerEmail()) : "None",
-                "totalBids", event.getTotalBids(),
-                "timestamp", event.getTimestamp().toString(),
-                "status", "CLOSED"
-        );
+        long seq = liveStateRegistry.applyClose(event);
+        long baseSeq = liveStateRegistry.markBroadcast(event.getAuctionId(), seq);
+
+        Map<String, Object> payload = new LinkedHashMap<>();
+        payload.put("type", "AUCTION_CLOSED");
+        payload.put("auctionId", event.getAuctionId());
+        payload.put("finalPrice", event.getFinalPrice());
+        payload.put("winner", event.isHasWinner() ? maskEmail(event.getWinnerEmail()) : "None");
+        payload.put("totalBids", event.getTotalBids());
+        payload.put("timestamp", event.getTimestamp().toString());
+        payload.put("status", "CLOSED");
+        payload.put("seq", seq);
+        payload.put("baseSeq", baseSeq);
 
-        messagingTemplate.convertAndSend(destination, payload);
-        messagingTemplate.convertAndSend("/topic/auctions", payload);
+        broadcaster.broadcast(payload, destination, "/topic/auctions");
         
         log.info("WS PUSH → {} → AuctionClosed → ₹{}", destination, event.getFinalPrice());
     }
@@ -88,23 +92,20 @@ public class WebSocketEventHandler {
                 "status", "ACTIVE"
         );
 
-        messagingTemplate.convertAndSend("/topic/auctions", payload);
+        broadcaster.broadcast(payload, "/topic/auctions");
         
         log.info("WS PUSH → /topic/auctions → AuctionCreated → {}", event.getFishName());
     }
 
     /**
-     * Mask email for privacy
+     * Mask email for privacy (single indexOf scan, no split allocation)
      */
-    private String maskEmail(String email) {
-        if (email == null || !email.contains("@")) {
+    static String maskEmail(String email) {
+        int at = email != null ? email.indexOf('@') : -1;
+        if (at < 0) {
             return "anonymous";
         }
-        String[] parts = email.split("@");
-        String name = parts[0];
-        String masked = name.length() > 2 
-                ? name.substring(0, 2) + "***" 
-                : name + "***";
-        return masked + "@" + parts[1];
+        String prefix = at > 2 ? email.substring(0, 2) : email.substring(0, at);
+        return prefix + "***" + email.substring(at);
     }
 }
@@ -0,0 +1,109 @@
+package com.FishOnBid.FishOnBid_Backend.ai.rag;
+
+import jdk.incubator.vector.FloatVector;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * SIMD kernel on the JDK Vector API (jdk.incubator.vector).
+ *
+ * Compiled only with the simd Maven profile, and only ever loaded through
+ * DotProductKernels.select, after the module has been found in the boot layer.
+ *
+ * - Short vectors (dim below the lane count, e.g. the 5-dim price embeddings):
+ *   one candidate per lane, gathering dimension d of LANES consecutive rows.
+ * - Long vectors: lanes run along the dimension and four candidates share each
+ *   query load.
+ */
+final class SimdDotProductKernel implements DotProductKernel {
+
+    private static final VectorSpecies<Float> SPECIES = FloatVector.SPECIES_PREFERRED;
+    private static final int LANES = SPECIES.length();
+
+    @Override
+    public void scores(float[] query, float[] vectors, int dim, int fromSlot, int toSlot, float[] out) {
+        if (dim < LANES) {
+            candidatesPerLane(query, vectors, dim, fromSlot, toSlot, out);
+        } else {
+            dimensionPerLane(query, vectors, dim, fromSlot, toSlot, out);
+        }
+    }
+
+    private static void candidatesPerLane(float[] query, float[] vectors, int dim,
+                                          int fromSlot, int toSlot, float[] out) {
+        int[] rowOffsets = new int[LANES];
+        for (int i = 0; i < LANES; i++) {
+            rowOffsets[i] = i * dim;
+        }
+
+        int slot = fromSlot;
+        for (; slot + LANES <= toSlot; slot += LANES) {
+            int base = slot * dim;
+            FloatVector acc = FloatVector.zero(SPECIES);
+            for (int d = 0; d < dim; d++) {
+                FloatVector column = FloatVector.fromArray(SPECIES, vectors, base + d, rowOffsets, 0);
+                acc = column.fma(FloatVector.broadcast(SPECIES, query[d]), acc);
+            }
+            acc.intoArray(out, slot - fromSlot);
+        }
+        scalarTail(query, vectors, dim, slot, toSlot, fromSlot, out);
+    }
+
+    private static void dimensionPerLane(float[] query, float[] vectors, int dim,
+                                         int fromSlot, int toSlot, float[] out) {
+        int upper = SPECIES.loopBound(dim);
+        int slot = fromSlot;
+        for (; slot + 4 <= toSlot; slot += 4) {
+            int b0 = slot * dim;
+            int b1 = b0 + dim;
+            int b2 = b1 + dim;
+            int b3 = b2 + dim;
+            FloatVector a0 = FloatVector.zero(SPECIES);
+            FloatVector a1 = FloatVector.zero(SPECIES);
+            FloatVector a2 = FloatVector.zero(SPECIES);
+            FloatVector a3 = FloatVector.zero(SPECIES);
+            int d = 0;
+            for (; d < upper; d += LANES) {
+                FloatVector q = FloatVector.fromArray(SPECIES, query, d);
+                a0 = q.fma(FloatVector.fromArray(SPECIES, vectors, b0 + d), a0);
+                a1 = q.fma(FloatVector.fromArray(SPECIES, vectors, b1 + d), a1);
+                a2 = q.fma(FloatVector.fromArray(SPECIES, vectors, b2 + d), a2);
+                a3 = q.fma(FloatVector.fromArray(SPECIES, vectors, b3 + d), a3);
+            }
+            float s0 = a0.reduceLanes(VectorOperators.ADD);
+            float s1 = a1.reduceLanes(VectorOperators.ADD);
+            float s2 = a2.reduceLanes(VectorOperators.ADD);
+            float s3 = a3.reduceLanes(VectorOperators.ADD);
+            for (; d < dim; d++) {
+                float q = query[d];
+                s0 += q * vectors[b0 + d];
+                s1 += q * vectors[b1 + d];
+                s2 += q * vectors[b2 + d];
+                s3 += q * vectors[b3 + d];
+            }
+            int o = slot - fromSlot;
+            out[o] = s0;
+            out[o + 1] = s1;
+            out[o + 2] = s2;
+            out[o + 3] = s3;
+        }
+        scalarTail(query, vectors, dim, slot, toSlot, fromSlot, out);
+    }
+
+    private static void scalarTail(float[] query, float[] vectors, int dim,
+                                   int slot, int toSlot, int fromSlot, float[] out) {
+        for (; slot < toSlot; slot++) {
+            int base = slot * dim;
+            float s = 0f;
+            for (int d = 0; d < dim; d++) {
+                s += query[d] * vectors[base + d];
+            }
+            out[slot - fromSlot] = s;
+        }
+    }
+
+    @Override
+    public String name() {
+        return "SIMD_" + SPECIES.vectorBitSize();
+    }
+}
@@ -0,0 +1,157 @@
+package com.FishOnBid.FishOnBid_Backend.ai.rag;
+
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Proxy;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ContiguousVectorStoreTest {
+
+    private final ContiguousVectorStore store = new ContiguousVectorStore(new ScalarDotProductKernel());
+
+    @Test
+    void topKReturnsNearestByCosine() {
+        store.upsert(doc("east", 1, 0));
+        store.upsert(doc("north", 0, 1));
+        store.upsert(doc("north-east", 1, 1));
+
+        List<RagDocument> results = store.topK(new double[]{2, 0.1}, 2);
+
+        assertEquals(List.of("east", "north-east"), ids(results));
+        assertTrue(results.get(0).getSimilarityScore() > results.get(1).getSimilarityScore());
+    }
+
+    @Test
+    void rejectsMismatchedDimension() {
+        assertTrue(store.upsert(doc("a", 1, 0)));
+        assertFalse(store.upsert(doc("b", 1, 0, 0)));
+        assertTrue(store.topK(new double[]{1, 0, 0}, 1).isEmpty());
+    }
+
+    @Test
+    void tombstonedDocumentsAreNeverReturned() {
+        store.upsert(doc("a", 1, 0));
+        store.upsert(doc("b", 0.9, 0.1));
+        store.upsert(doc("c", 0, 1));
+
+        assertTrue(store.remove("a"));
+        assertFalse(store.remove("a"));
+
+        assertEquals(2, store.size());
+        assertEquals(List.of("b", "c"), ids(store.topK(new double[]{1, 0}, 5)));
+        assertEquals(1, stat("tombstones"));
+    }
+
+    @Test
+    void upsertReplacesThePreviousVersion() {
+        store.upsert(doc("a", 1, 0));
+        store.upsert(doc("a", 0, 1));
+
+        List<RagDocument> results = store.topK(new double[]{0, 1}, 5);
+
+        assertEquals(1, store.size());
+        assertEquals(List.of("a"), ids(results));
+        assertEquals(1.0, results.get(0).getSimilarityScore(), 1e-6);
+    }
+
+    @Test
+    void compactionRemovesTombstonesAndKeepsLiveDocuments() {
+        for (int i = 0; i < 100; i++) {
+            store.upsert(doc("d" + i, Math.cos(i * 0.01), Math.sin(i * 0.01)));
+        }
+        for (int i = 0; i < 100; i += 2) {
+            store.remove("d" + i);
+        }
+        List<String> before = ids(store.topK(new double[]{1, 0.3}, 10));
+
+        assertTrue(store.compactIfFragmented());
+
+        assertEquals(0, stat("tombstones"));
+        assertEquals(50, stat("usedSlots"));
+        assertEquals(1L, ((Number) store.getStats().get("compactions")).longValue());
+        assertEquals(before, ids(store.topK(new double[]{1, 0.3}, 10)));
+        // Moved documents are still addressable by id
+        assertTrue(store.remove("d99"));
+        assertEquals(49, store.size());
+        assertFalse(store.compactIfFragmented());
+    }
+
+    @Test
+    void compactionWaitsForTheThreshold() {
+        for (int i = 0; i < 10; i++) {
+            store.upsert(doc("d" + i, 1, i));
+        }
+        store.remove("d0");
+        store.remove("d1");
+
+        assertFalse(store.compactIfFragmented());
+        assertEquals(2, stat("tombstones"));
+    }
+
+    @Test
+    void exportSkipsTombstones() {
+        store.upsert(doc("a", 1, 0));
+        store.upsert(doc("b", 0, 1));
+        store.remove("a");
+
+        assertEquals(List.of("b"), ids(store.exportDocuments()));
+    }
+
+    @Test
+    void recallSamplesOnlyLiveSlots() {
+        Set<Integer> read = new HashSet<>();
+        HeapVectorColumns heap = new HeapVectorColumns();
+        VectorColumns recording = (VectorColumns) Proxy.newProxyInstance(getClass().getClassLoader(),
+                new Class<?>[]{VectorColumns.class}, (proxy, method, args) -> {
+                    if (method.getName().equals("readVector")) {
+                        read.add((Integer) args[0]);
+                    }
+                    return method.invoke(heap, args);
+                });
+        ContiguousVectorStore quantized = new ContiguousVectorStore(new ScalarDotProductKernel(), recording,
+                new Int8Quantizer(), 4);
+        Random random = new Random(3);
+        for (int i = 0; i < 400; i++) {
+            quantized.upsert(doc("d" + i, random.nextGaussian(), random.nextGaussian(), random.nextGaussian()));
+        }
+        // Slots are assigned in insertion order; tombstone every slot from 40 on
+        for (int i = 40; i < 400; i++) {
+            quantized.remove("d" + i);
+        }
+        read.clear();
+
+        quantized.measureRecall(10, 200);
+
+        assertTrue(read.stream().allMatch(slot -> slot < 40), "read tombstoned slots: " + read);
+    }
+
+    private int stat(String name) {
+        Map<String, Object> stats = store.getStats();
+        return ((Number) stats.get(name)).intValue();
+    }
+
+    private static List<String> ids(List<RagDocument> docs) {
+        return docs.stream().map(RagDocument::getId).collect(Collectors.toList());
+    }
+
+    static RagDocument doc(String id, double... embedding) {
+        return RagDocument.builder()
+                .id(id)
+                .fishName("Seer Fish")
+                .location("Kochi")
+                .avgPrice(500)
+                .quantityKg(10)
+                .timestamp(1_700_000_000_000L)
+                .embedding(embedding)
+                .build();
+    }
+}
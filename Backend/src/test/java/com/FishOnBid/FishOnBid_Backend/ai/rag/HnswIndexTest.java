@@ -0,0 +1,106 @@
+package com.FishOnBid.FishOnBid_Backend.ai.rag;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Collectors;
+
+import static com.FishOnBid.FishOnBid_Backend.ai.rag.ContiguousVectorStoreTest.doc;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class HnswIndexTest {
+
+    private final HnswIndex index = new HnswIndex(8, 64, 64);
+
+    @Test
+    void findsNearestAndSkipsTombstones() {
+        index.upsert(doc("east", 1, 0));
+        index.upsert(doc("north", 0, 1));
+        index.upsert(doc("north-east", 1, 1));
+
+        assertEquals(List.of("east", "north-east"), ids(index.topK(new double[]{2, 0.1}, 2)));
+
+        assertTrue(index.remove("east"));
+        assertFalse(index.remove("east"));
+        assertEquals(List.of("north-east", "north"), ids(index.topK(new double[]{2, 0.1}, 5)));
+    }
+
+    @Test
+    void compactionKeepsEveryLiveDocument() {
+        Random random = new Random(7);
+        for (int i = 0; i < 2000; i++) {
+            index.upsert(doc("doc-" + i, random.nextGaussian(), random.nextGaussian(), random.nextGaussian()));
+        }
+        for (int i = 0; i < 2000; i += 2) {
+            index.remove("doc-" + i);
+        }
+
+        assertTrue(index.compactIfFragmented());
+        assertFalse(index.compactIfFragmented());
+
+        assertEquals(1000, index.size());
+        assertEquals(0, ((Number) index.getStats().get("tombstones")).intValue());
+        Set<String> exported = index.exportDocuments().stream().map(RagDocument::getId).collect(Collectors.toSet());
+        assertEquals(1000, exported.size());
+        assertTrue(exported.stream().allMatch(id -> Integer.parseInt(id.substring(4)) % 2 == 1));
+        assertTrue(index.measureRecall(10, 50) > 0.9);
+    }
+
+    @Test
+    void writesDuringCompactionSurviveTheSwap() throws Exception {
+        Random random = new Random(11);
+        for (int i = 0; i < 5000; i++) {
+            index.upsert(doc("doc-" + i, random.nextGaussian(), random.nextGaussian(), random.nextGaussian()));
+        }
+        for (int i = 0; i < 2500; i++) {
+            index.remove("doc-" + i);
+        }
+
+        // Add new documents and delete old ones while the graph is being rebuilt
+        AtomicBoolean done = new AtomicBoolean();
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        Set<String> added = new HashSet<>();
+        Set<String> removed = new HashSet<>();
+        Thread writer = new Thread(() -> {
+            try {
+                for (int i = 0; !done.get() || i < 200; i++) {
+                    String id = "new-" + i;
+                    index.upsert(doc(id, 1, i, -i));
+                    added.add(id);
+                    String old = "doc-" + (2500 + i);
+                    if (i < 2500 && index.remove(old)) {
+                        removed.add(old);
+                    }
+                }
+            } catch (Throwable e) {
+                failure.set(e);
+            }
+        });
+        writer.start();
+        assertTrue(index.compactIfFragmented());
+        done.set(true);
+        writer.join();
+        assertNull(failure.get());
+
+        Set<String> expected = new HashSet<>(added);
+        for (int i = 2500; i < 5000; i++) {
+            expected.add("doc-" + i);
+        }
+        expected.removeAll(removed);
+        Set<String> exported = index.exportDocuments().stream().map(RagDocument::getId).collect(Collectors.toSet());
+        assertEquals(expected, exported);
+        assertEquals(expected.size(), index.size());
+    }
+
+    private static List<String> ids(List<RagDocument> docs) {
+        return docs.stream().map(RagDocument::getId).collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,89 @@
+package com.FishOnBid.FishOnBid_Backend.ai.rag;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class Int8QuantizerTest {
+
+    private static final int SLOTS = 3 * Int8Quantizer.BLOCK + 17;
+
+    @Test
+    void approximatesDotProductsAcrossBlocks() {
+        for (int dimension : new int[]{3, 5, 8, 67}) {
+            Random random = new Random(dimension);
+            HeapVectorColumns columns = new HeapVectorColumns();
+            columns.allocate(dimension, SLOTS);
+            Int8Quantizer quantizer = new Int8Quantizer();
+            quantizer.allocate(dimension, SLOTS);
+            float[][] rows = new float[SLOTS][];
+            for (int slot = 0; slot < SLOTS; slot++) {
+                rows[slot] = unit(random, dimension);
+                columns.writeVector(slot, rows[slot]);
+            }
+            quantizer.train(columns, SLOTS, new boolean[SLOTS]);
+
+            float[] query = unit(random, dimension);
+            Int8Quantizer.Query prepared = quantizer.prepare(query);
+            int[] sums = new int[Int8Quantizer.BLOCK];
+            float[] out = new float[Int8Quantizer.BLOCK];
+            for (int from = 0; from < SLOTS; from += Int8Quantizer.BLOCK) {
+                int to = Math.min(SLOTS, from + Int8Quantizer.BLOCK);
+                quantizer.scores(prepared, from, to, sums, out);
+                for (int slot = from; slot < to; slot++) {
+                    assertEquals(dot(query, rows[slot]), out[slot - from], 0.02, "dim " + dimension + " slot " + slot);
+                }
+            }
+        }
+    }
+
+    @Test
+    void moveAndGrowKeepCodesInPlace() {
+        int dimension = 5;
+        Random random = new Random(1);
+        Int8Quantizer quantizer = new Int8Quantizer();
+        quantizer.allocate(dimension, Int8Quantizer.BLOCK);
+        float[] first = unit(random, dimension);
+        float[] last = unit(random, dimension);
+        quantizer.encode(0, first);
+        quantizer.encode(Int8Quantizer.BLOCK - 1, last);
+
+        quantizer.grow(4 * Int8Quantizer.BLOCK);
+        // Compaction moves slots down, possibly across a block boundary
+        quantizer.encode(2 * Int8Quantizer.BLOCK + 3, last);
+        quantizer.move(2 * Int8Quantizer.BLOCK + 3, Int8Quantizer.BLOCK + 1);
+
+        float[] query = unit(random, dimension);
+        Int8Quantizer.Query prepared = quantizer.prepare(query);
+        int[] sums = new int[Int8Quantizer.BLOCK];
+        float[] out = new float[Int8Quantizer.BLOCK];
+        quantizer.scores(prepared, 0, Int8Quantizer.BLOCK, sums, out);
+        assertEquals(dot(query, first), out[0], 0.05);
+        assertEquals(dot(query, last), out[Int8Quantizer.BLOCK - 1], 0.05);
+        quantizer.scores(prepared, Int8Quantizer.BLOCK, 2 * Int8Quantizer.BLOCK, sums, out);
+        assertEquals(dot(query, last), out[1], 0.05);
+    }
+
+    private static float[] unit(Random random, int dimension) {
+        float[] vector = new float[dimension];
+        double norm = 0;
+        for (int d = 0; d < dimension; d++) {
+            vector[d] = (float) random.nextGaussian();
+            norm += vector[d] * vector[d];
+        }
+        for (int d = 0; d < dimension; d++) {
+            vector[d] /= (float) Math.sqrt(norm);
+        }
+        return vector;
+    }
+
+    private static float dot(float[] a, float[] b) {
+        float sum = 0f;
+        for (int d = 0; d < a.length; d++) {
+            sum += a[d] * b[d];
+        }
+        return sum;
+    }
+}
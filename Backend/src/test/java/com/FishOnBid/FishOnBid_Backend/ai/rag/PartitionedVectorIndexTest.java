@@ -0,0 +1,135 @@
+package com.FishOnBid.FishOnBid_Backend.ai.rag;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PartitionedVectorIndexTest {
+
+    private static final double[] QUERY = {1, 0};
+
+    @Test
+    void routesToTheExactPartition() {
+        PartitionedVectorIndex index = index(PartitionedVectorIndex.PartitionBy.FISH_LOCATION,
+                PartitionedVectorIndex.Fallback.ALL);
+        index.upsert(doc("seer-kochi", "Seer Fish", "Kochi Harbor"));
+        index.upsert(doc("seer-chennai", "Seer Fish", "Chennai"));
+        index.upsert(doc("pomfret-kochi", "Pomfret", "Kochi"));
+
+        // "Kochi" and "Kochi Harbor" normalize to the same partition
+        assertEquals(List.of("seer-kochi"), ids(index.topK(QUERY, 1, " seer  fish", "kochi")));
+        assertEquals(1L, stat(index, "exactQueries"));
+    }
+
+    @Test
+    void widensToTheSameFishThenEverything() {
+        PartitionedVectorIndex index = index(PartitionedVectorIndex.PartitionBy.FISH_LOCATION,
+                PartitionedVectorIndex.Fallback.ALL);
+        index.upsert(doc("seer-kochi", "Seer Fish", "Kochi"));
+        index.upsert(doc("seer-chennai", "Seer Fish", "Chennai"));
+        index.upsert(doc("pomfret-kochi", "Pomfret", "Kochi"));
+
+        assertEquals(2, index.topK(QUERY, 2, "Seer Fish", "Kochi").size());
+        assertTrue(ids(index.topK(QUERY, 2, "Seer Fish", "Kochi")).contains("seer-chennai"));
+        assertEquals(3, index.topK(QUERY, 3, "Seer Fish", "Kochi").size());
+        assertEquals(3L, stat(index, "fallbackQueries"));
+    }
+
+    @Test
+    void fishFallbackNeverCrossesSpecies() {
+        PartitionedVectorIndex index = index(PartitionedVectorIndex.PartitionBy.FISH_LOCATION,
+                PartitionedVectorIndex.Fallback.FISH);
+        index.upsert(doc("seer-kochi", "Seer Fish", "Kochi"));
+        index.upsert(doc("pomfret-kochi", "Pomfret", "Kochi"));
+
+        assertEquals(List.of("seer-kochi"), ids(index.topK(QUERY, 5, "Seer Fish", "Kochi")));
+    }
+
+    @Test
+    void noFallbackKeepsTheExactScope() {
+        PartitionedVectorIndex index = index(PartitionedVectorIndex.PartitionBy.FISH,
+                PartitionedVectorIndex.Fallback.NONE);
+        index.upsert(doc("seer", "Seer Fish", "Kochi"));
+        index.upsert(doc("pomfret", "Pomfret", "Kochi"));
+
+        assertEquals(List.of("seer"), ids(index.topK(QUERY, 5, "Seer Fish", null)));
+        assertTrue(index.topK(QUERY, 5, "Tuna", null).isEmpty());
+    }
+
+    @Test
+    void emptyPartitionsAreDropped() {
+        PartitionedVectorIndex index = index(PartitionedVectorIndex.PartitionBy.FISH,
+                PartitionedVectorIndex.Fallback.ALL);
+        index.upsert(doc("a", "Seer Fish", "Kochi"));
+        index.upsert(doc("b", "Seer Fish", "Kochi"));
+        index.upsert(doc("c", "Pomfret", "Kochi"));
+        assertEquals(2L, stat(index, "partitions"));
+
+        index.remove("a");
+        assertEquals(2L, stat(index, "partitions"));
+        index.remove("b");
+        assertEquals(1L, stat(index, "partitions"));
+        assertFalse(index.remove("b"));
+
+        // Moving the last document out of a partition drops it too
+        index.upsert(doc("c", "Tuna", "Kochi"));
+        assertEquals(1L, stat(index, "partitions"));
+        assertEquals(List.of("c"), ids(index.topK(QUERY, 5, "Tuna", null)));
+        assertEquals(1, index.size());
+    }
+
+    @Test
+    void concurrentChurnNeverLosesADocument() throws Exception {
+        PartitionedVectorIndex index = index(PartitionedVectorIndex.PartitionBy.FISH,
+                PartitionedVectorIndex.Fallback.NONE);
+        ExecutorService pool = Executors.newFixedThreadPool(4);
+        for (int t = 0; t < 4; t++) {
+            int thread = t;
+            pool.submit(() -> {
+                // Each thread keeps its own document alive in a partition the others empty
+                for (int i = 0; i < 2000; i++) {
+                    String id = "t" + thread + "-" + i;
+                    index.upsert(doc(id, "Seer Fish", "Kochi"));
+                    if (i > 0) {
+                        index.remove("t" + thread + "-" + (i - 1));
+                    }
+                }
+            });
+        }
+        pool.shutdown();
+        assertTrue(pool.awaitTermination(30, TimeUnit.SECONDS));
+
+        assertEquals(4, index.size());
+        assertEquals(4, index.topK(QUERY, 10, "Seer Fish", null).size());
+    }
+
+    private static PartitionedVectorIndex index(PartitionedVectorIndex.PartitionBy by,
+                                                PartitionedVectorIndex.Fallback fallback) {
+        return new PartitionedVectorIndex(() -> new ContiguousVectorStore(new ScalarDotProductKernel()), by, fallback);
+    }
+
+    private static long stat(PartitionedVectorIndex index, String name) {
+        return ((Number) index.getStats().get(name)).longValue();
+    }
+
+    private static List<String> ids(List<RagDocument> docs) {
+        return docs.stream().map(RagDocument::getId).collect(Collectors.toList());
+    }
+
+    private static RagDocument doc(String id, String fish, String location) {
+        return RagDocument.builder()
+                .id(id)
+                .fishName(fish)
+                .location(location)
+                .embedding(new double[]{1, id.length() * 0.01})
+                .build();
+    }
+}
@@ -0,0 +1,74 @@
+package com.FishOnBid.FishOnBid_Backend.ai.rag;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.FishOnBid.FishOnBid_Backend.ai.rag.ContiguousVectorStoreTest.doc;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class RagQueryCacheTest {
+
+    private final RagQueryCache cache = new RagQueryCache(2, 50);
+
+    @Test
+    void keysNormalizeNamesAndBucketPrices() {
+        RagQueryCache.Key key = cache.keyFor("Seer Fish", "Kochi", 510, 5);
+
+        assertEquals(key, cache.keyFor("  seer   FISH ", "kochi", 490, 5));
+        assertNotEquals(key, cache.keyFor("Seer Fish", "Kochi", 530, 5));
+        assertNotEquals(key, cache.keyFor("Seer Fish", "Kochi", 510, 10));
+        assertEquals(500.0, cache.bucketPrice(key));
+    }
+
+    @Test
+    void entriesFromAnOlderEpochAreMisses() {
+        RagQueryCache.Key key = cache.keyFor("Seer Fish", "Kochi", 500, 5);
+        List<RagDocument> results = cache.put(key, 1, List.of(doc("a", 1, 0)));
+
+        assertSame(results, cache.get(key, 1));
+        assertNull(cache.get(key, 2));
+        assertEquals(1L, cache.getStats().get("hits"));
+        assertEquals(1L, cache.getStats().get("staleMisses"));
+    }
+
+    @Test
+    void olderResultNeverOverwritesANewerOne() {
+        RagQueryCache.Key key = cache.keyFor("Seer Fish", "Kochi", 500, 5);
+        List<RagDocument> newer = cache.put(key, 3, List.of(doc("new", 1, 0)));
+        cache.put(key, 2, List.of(doc("old", 0, 1)));
+
+        assertSame(newer, cache.get(key, 3));
+    }
+
+    @Test
+    void evictsTheLeastRecentlyUsed() {
+        RagQueryCache.Key seer = cache.keyFor("Seer Fish", "Kochi", 500, 5);
+        RagQueryCache.Key tuna = cache.keyFor("Tuna", "Kochi", 500, 5);
+        RagQueryCache.Key pomfret = cache.keyFor("Pomfret", "Kochi", 500, 5);
+        cache.put(seer, 1, List.of());
+        cache.put(tuna, 1, List.of());
+        cache.get(seer, 1);
+        cache.put(pomfret, 1, List.of());
+
+        assertEquals(List.of(), cache.get(seer, 1));
+        assertNull(cache.get(tuna, 1));
+        assertEquals(1L, cache.getStats().get("evictions"));
+    }
+
+    @Test
+    void cachedResultsAreAnUnmodifiableCopy() {
+        RagQueryCache.Key key = cache.keyFor("Seer Fish", "Kochi", 500, 5);
+        List<RagDocument> source = new ArrayList<>(List.of(doc("a", 1, 0)));
+        List<RagDocument> cached = cache.put(key, 1, source);
+        source.clear();
+
+        assertEquals(1, cache.get(key, 1).size());
+        assertThrows(UnsupportedOperationException.class, () -> cached.add(doc("b", 0, 1)));
+    }
+}
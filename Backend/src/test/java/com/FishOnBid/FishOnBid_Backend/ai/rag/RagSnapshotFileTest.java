@@ -0,0 +1,127 @@
+package com.FishOnBid.FishOnBid_Backend.ai.rag;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RagSnapshotFileTest {
+
+    private static final String MODEL = "deterministic-5d-v1";
+    private static final Instant WATERMARK = Instant.ofEpochMilli(1_760_000_000_000L);
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void roundTripsInChunks() throws IOException {
+        List<RagDocument> written = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            written.add(RagDocument.builder()
+                    .id("auction-" + i)
+                    .fishName(i % 3 == 0 ? null : "Seer Fish")
+                    .location("Kōchi " + i)
+                    .avgPrice(500 + i)
+                    .quantityKg(i)
+                    .timestamp(1_700_000_000_000L + i)
+                    .embedding(new double[]{0.5, i * 0.25, -1})
+                    .build());
+        }
+        Path path = dir.resolve("rag.snapshot");
+        assertEquals(10, RagSnapshotFile.write(path, MODEL, WATERMARK, index(written)));
+        // Side column files are gone once the snapshot is in place
+        try (Stream<Path> files = Files.list(dir)) {
+            assertEquals(List.of(path), files.toList());
+        }
+
+        List<Integer> chunkSizes = new ArrayList<>();
+        List<RagDocument> read = new ArrayList<>();
+        Instant watermark = RagSnapshotFile.read(path, MODEL, 4, chunk -> {
+            chunkSizes.add(chunk.size());
+            read.addAll(chunk);
+        });
+
+        assertEquals(WATERMARK, watermark);
+        assertEquals(List.of(4, 4, 2), chunkSizes);
+        for (int i = 0; i < written.size(); i++) {
+            RagDocument expected = written.get(i);
+            RagDocument actual = read.get(i);
+            assertEquals(expected.getId(), actual.getId());
+            assertEquals(expected.getFishName(), actual.getFishName());
+            assertEquals(expected.getLocation(), actual.getLocation());
+            assertEquals(expected.getAvgPrice(), actual.getAvgPrice());
+            assertEquals(expected.getQuantityKg(), actual.getQuantityKg());
+            assertEquals(expected.getTimestamp(), actual.getTimestamp());
+            assertArrayEquals(unit(expected.getEmbedding()), actual.getEmbedding(), 1e-6);
+        }
+        assertNull(read.get(0).getFishName());
+    }
+
+    @Test
+    void writesStraightFromAnHnswGraph() throws IOException {
+        HnswIndex graph = new HnswIndex(8, 32, 16);
+        for (int i = 0; i < 50; i++) {
+            graph.upsert(ContiguousVectorStoreTest.doc("doc-" + i, 1, i, -i));
+        }
+        graph.remove("doc-7");
+        Path path = dir.resolve("rag.snapshot");
+
+        assertEquals(49, RagSnapshotFile.write(path, MODEL, WATERMARK, graph));
+
+        List<RagDocument> read = new ArrayList<>();
+        RagSnapshotFile.read(path, MODEL, 16, read::addAll);
+        assertEquals(49, read.size());
+        assertTrue(read.stream().noneMatch(doc -> doc.getId().equals("doc-7")));
+        RagDocument doc3 = read.stream().filter(doc -> doc.getId().equals("doc-3")).findFirst().orElseThrow();
+        assertArrayEquals(unit(new double[]{1, 3, -3}), doc3.getEmbedding(), 1e-6);
+    }
+
+    @Test
+    void truncatedFileIsRejectedBeforeAnyChunk() throws IOException {
+        Path path = dir.resolve("rag.snapshot");
+        RagSnapshotFile.write(path, MODEL, WATERMARK, index(List.of(
+                ContiguousVectorStoreTest.doc("a", 1, 0),
+                ContiguousVectorStoreTest.doc("b", 0, 1))));
+        byte[] bytes = Files.readAllBytes(path);
+        Files.write(path, Arrays.copyOf(bytes, bytes.length - 3));
+
+        List<RagDocument> read = new ArrayList<>();
+        IOException e = assertThrows(IOException.class, () -> RagSnapshotFile.read(path, MODEL, 1, read::addAll));
+        assertTrue(e.getMessage().startsWith("Corrupt RAG snapshot"));
+        assertTrue(read.isEmpty());
+    }
+
+    @Test
+    void otherEmbeddingModelIsRejected() throws IOException {
+        Path path = dir.resolve("rag.snapshot");
+        RagSnapshotFile.write(path, MODEL, WATERMARK, index(List.of(ContiguousVectorStoreTest.doc("a", 1, 0))));
+
+        IOException e = assertThrows(IOException.class,
+                () -> RagSnapshotFile.read(path, "hashed-ngram-64d-v1", 16, chunk -> {}));
+        assertTrue(e.getMessage().contains("embedding model"));
+    }
+
+    private static VectorIndex index(List<RagDocument> documents) {
+        ContiguousVectorStore store = new ContiguousVectorStore(new ScalarDotProductKernel());
+        documents.forEach(store::upsert);
+        return store;
+    }
+
+    private static double[] unit(double[] vector) {
+        double norm = Math.sqrt(Arrays.stream(vector).map(v -> v * v).sum());
+        return Arrays.stream(vector).map(v -> v / norm).toArray();
+    }
+}
@@ -0,0 +1,91 @@
+package com.FishOnBid.FishOnBid_Backend.ai.rag;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Random;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class TopKHeapTest {
+
+    @Test
+    void keepsTheKHighestScoresInDescendingOrder() {
+        Random random = new Random(7);
+        float[] all = new float[10_000];
+        TopKHeap heap = new TopKHeap(10);
+        for (int i = 0; i < all.length; i++) {
+            all[i] = random.nextFloat();
+            heap.offer(i, all[i]);
+        }
+
+        int[] indices = new int[10];
+        float[] scores = new float[10];
+        assertEquals(10, heap.drainDescending(indices, scores));
+
+        int[] expected = IntStream.range(0, all.length).boxed()
+                .sorted(Comparator.comparingDouble((Integer i) -> all[i]).reversed())
+                .limit(10)
+                .mapToInt(Integer::intValue)
+                .toArray();
+        assertArrayEquals(expected, indices);
+        for (int i = 0; i < 10; i++) {
+            assertEquals(all[indices[i]], scores[i]);
+        }
+        assertEquals(0, heap.size());
+    }
+
+    @Test
+    void partiallyFilledHeapDrainsWhatItHas() {
+        TopKHeap heap = new TopKHeap(5);
+        heap.offer(3, 0.3f);
+        heap.offer(1, 0.9f);
+
+        assertEquals(Float.NEGATIVE_INFINITY, heap.threshold());
+        int[] indices = new int[5];
+        float[] scores = new float[5];
+        assertEquals(2, heap.drainDescending(indices, scores));
+        assertArrayEquals(new int[]{1, 3}, Arrays.copyOf(indices, 2));
+    }
+
+    @Test
+    void thresholdIsTheWeakestWinnerOnceFull() {
+        TopKHeap heap = new TopKHeap(3);
+        heap.offer(0, 0.5f);
+        heap.offer(1, 0.1f);
+        heap.offer(2, 0.7f);
+        assertEquals(0.1f, heap.threshold());
+
+        heap.offer(3, 0.05f);
+        assertEquals(0.1f, heap.threshold());
+        heap.offer(4, 0.6f);
+        assertEquals(0.5f, heap.threshold());
+    }
+
+    @Test
+    void offerAllMergesHeapsOverDisjointRanges() {
+        TopKHeap left = new TopKHeap(2);
+        TopKHeap right = new TopKHeap(2);
+        left.offer(0, 0.2f);
+        left.offer(1, 0.8f);
+        right.offer(2, 0.9f);
+        right.offer(3, 0.1f);
+
+        left.offerAll(right);
+
+        int[] indices = new int[2];
+        float[] scores = new float[2];
+        left.drainDescending(indices, scores);
+        assertArrayEquals(new int[]{2, 1}, indices);
+    }
+
+    @Test
+    void zeroCapacityKeepsNothing() {
+        TopKHeap heap = new TopKHeap(0);
+        heap.offer(0, 1f);
+        assertEquals(0, heap.size());
+    }
+}
@@ -0,0 +1,85 @@
+package com.FishOnBid.FishOnBid_Backend.ai.service;
+
+import com.FishOnBid.FishOnBid_Backend.ai.dto.AiPriceRequestDTO;
+import com.FishOnBid.FishOnBid_Backend.ai.dto.AiPriceResponseDTO;
+import com.FishOnBid.FishOnBid_Backend.ai.dto.RagDataDTO;
+import com.FishOnBid.FishOnBid_Backend.events.AuctionClosedEvent;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class AiPricingServiceCacheTest {
+
+    // Average lot of 14 kg: the 1.5x bulk discount starts above 21 kg
+    private static final RagDataDTO KOCHI_SEER = new RagDataDTO(12, 640.0, 500.0, 800.0, 14.0,
+            "Kochi", 3, 600.0, 0, 0, "2026-07-01 to 2026-09-30");
+
+    private final RagService ragService = mock(RagService.class);
+    private final ExternalDataService externalDataService = mock(ExternalDataService.class);
+    private final ExternalFisheriesService externalFisheriesService = mock(ExternalFisheriesService.class);
+
+    @Test
+    void cachedSuggestionsMatchUncachedForEveryQuantityAndFreshness() {
+        when(ragService.fetchHistoricalDataByLocation("Seer Fish", "Kochi", 90)).thenReturn(KOCHI_SEER);
+        when(externalDataService.getExternalMarketPrice("Seer Fish")).thenReturn(700.0);
+        AiPricingService cached = service(true);
+        AiPricingService uncached = service(false);
+
+        for (double quantity : new double[]{5, 14, 20, 21, 22, 40}) {
+            for (Integer freshness : new Integer[]{null, 40, 75, 95}) {
+                AiPriceRequestDTO request = new AiPriceRequestDTO("Seer Fish", quantity, "Kochi", freshness);
+                AiPriceResponseDTO expected = uncached.generatePriceSuggestion(request);
+                AiPriceResponseDTO actual = cached.generatePriceSuggestion(request);
+                assertEquals(expected.suggestedPrice(), actual.suggestedPrice(), "qty=" + quantity + " fresh=" + freshness);
+                assertEquals(expected.minPrice(), actual.minPrice());
+                assertEquals(expected.maxPrice(), actual.maxPrice());
+            }
+        }
+        // One retrieval for the cached service, one per request for the uncached one
+        verify(ragService, times(1 + 24)).fetchHistoricalDataByLocation("Seer Fish", "Kochi", 90);
+    }
+
+    @Test
+    void externalPriceIsReadPerRequest() {
+        when(ragService.fetchHistoricalDataByLocation("Seer Fish", "Kochi", 90)).thenReturn(KOCHI_SEER);
+        when(externalDataService.getExternalMarketPrice("Seer Fish")).thenReturn(700.0, 900.0);
+        AiPricingService service = service(true);
+        AiPriceRequestDTO request = new AiPriceRequestDTO("Seer Fish", 10, "Kochi");
+
+        double before = service.generatePriceSuggestion(request).suggestedPrice();
+        double after = service.generatePriceSuggestion(request).suggestedPrice();
+
+        assertEquals(Math.round((640.0 * 0.7 + 700.0 * 0.3) * 100.0) / 100.0, before);
+        assertEquals(Math.round((640.0 * 0.7 + 900.0 * 0.3) * 100.0) / 100.0, after);
+    }
+
+    @Test
+    void closedAuctionRefetchesItsFish() {
+        when(ragService.fetchHistoricalDataByLocation("Seer Fish", "Kochi", 90)).thenReturn(KOCHI_SEER);
+        AiPricingService service = service(true);
+        AiPriceRequestDTO request = new AiPriceRequestDTO("Seer Fish", 10, "Kochi");
+
+        service.generatePriceSuggestion(request);
+        service.generatePriceSuggestion(request);
+        AuctionClosedEvent closed = mock(AuctionClosedEvent.class);
+        when(closed.getFishName()).thenReturn("Seer Fish");
+        service.handleAuctionClosed(closed);
+        service.generatePriceSuggestion(request);
+
+        verify(ragService, times(2)).fetchHistoricalDataByLocation("Seer Fish", "Kochi", 90);
+    }
+
+    private AiPricingService service(boolean cacheEnabled) {
+        AiPricingService service = new AiPricingService(ragService, externalDataService, externalFisheriesService);
+        ReflectionTestUtils.setField(service, "cacheEnabled", cacheEnabled);
+        ReflectionTestUtils.setField(service, "cacheTtlSeconds", 300L);
+        ReflectionTestUtils.setField(service, "cacheMaxEntries", 64);
+        service.init();
+        return service;
+    }
+}
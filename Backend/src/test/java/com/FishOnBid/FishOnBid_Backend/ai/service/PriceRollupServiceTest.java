@@ -0,0 +1,171 @@
+package com.FishOnBid.FishOnBid_Backend.ai.service;
+
+import com.FishOnBid.FishOnBid_Backend.ai.dto.RagIndexRowDTO;
+import com.FishOnBid.FishOnBid_Backend.entity.Auction;
+import com.FishOnBid.FishOnBid_Backend.events.AuctionClosedEvent;
+import com.FishOnBid.FishOnBid_Backend.events.MarketDataImportedEvent;
+import com.FishOnBid.FishOnBid_Backend.repository.AuctionRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class PriceRollupServiceTest {
+
+    private static final Instant TODAY = Instant.now().truncatedTo(ChronoUnit.DAYS).plus(12, ChronoUnit.HOURS);
+    private static final Instant YESTERDAY = TODAY.minus(1, ChronoUnit.DAYS);
+
+    private final AuctionRepository auctionRepository = mock(AuctionRepository.class);
+
+    @Test
+    void rollsUpRowsPerFishLocationDayAndSource() {
+        PriceRollupService service = start(
+                row(1L, "Seer Fish", "Kochi", 600, 10.0, TODAY, Auction.AuctionDataSource.USER_MANUAL),
+                row(2L, "seer fish ", "KOCHI", 700, null, TODAY, Auction.AuctionDataSource.USER_MANUAL),
+                row(3L, "Seer Fish", "Kochi", 650, 5.0, YESTERDAY, Auction.AuctionDataSource.USER_MANUAL),
+                row(4L, "Seer Fish", "Kochi", 640, 5.0, TODAY, Auction.AuctionDataSource.GOVT_INSTITUTIONAL_API),
+                row(5L, "Seer Fish", "Chennai", 500, 5.0, TODAY, Auction.AuctionDataSource.USER_MANUAL));
+
+        List<PriceRollupService.DailyRollup> kochi = service.find("SEER FISH", "kochi", 0);
+
+        assertEquals(3, kochi.size());
+        PriceRollupService.DailyRollup today = kochi.stream()
+                .filter(b -> b.epochDay() == PriceRollupService.epochDay(TODAY))
+                .filter(b -> b.dataSource() == Auction.AuctionDataSource.USER_MANUAL)
+                .findFirst().orElseThrow();
+        assertEquals(2, today.count());
+        assertEquals(1300.0, today.sumPrice());
+        assertEquals(600.0, today.minPrice());
+        assertEquals(700.0, today.maxPrice());
+        assertEquals(10.0, today.sumQuantityKg());
+        // Newest day first
+        assertEquals(PriceRollupService.epochDay(YESTERDAY), kochi.get(kochi.size() - 1).epochDay());
+        assertEquals(4, service.find("Seer Fish", null, 0).size());
+        assertEquals(3, service.find("Seer Fish", null, PriceRollupService.epochDay(TODAY)).size());
+        assertTrue(service.find("Tuna", null, 0).isEmpty());
+    }
+
+    @Test
+    void closedAuctionIsCountedOnce() {
+        PriceRollupService service = start();
+        Auction auction = auction(7L, "Pomfret", 900);
+        when(auctionRepository.findById(7L)).thenReturn(Optional.of(auction));
+        AuctionClosedEvent closed = new AuctionClosedEvent(7L, "Pomfret", 900.0, null, 3);
+
+        service.handleAuctionClosed(closed);
+        service.handleAuctionClosed(closed);
+
+        List<PriceRollupService.DailyRollup> buckets = service.find("Pomfret", "Kochi", 0);
+        assertEquals(1, buckets.size());
+        assertEquals(1, buckets.get(0).count());
+    }
+
+    @Test
+    void importedRecordsAreRolledUpButActiveAuctionsAreNot() {
+        PriceRollupService service = start();
+        Auction govt = auction(8L, "Fish", 300);
+        govt.setDataSource(Auction.AuctionDataSource.GOVT_INSTITUTIONAL_API);
+        Auction live = auction(9L, "Fish", 999);
+        live.setActive(true);
+        when(auctionRepository.findAllById(List.of(8L, 9L))).thenReturn(List.of(govt, live));
+
+        service.handleMarketDataImported(new MarketDataImportedEvent("govt-api", List.of(8L, 9L), Set.of("Fish")));
+
+        List<PriceRollupService.DailyRollup> buckets = service.find("Fish", null, 0);
+        assertEquals(1, buckets.size());
+        assertEquals(300.0, buckets.get(0).sumPrice());
+    }
+
+    @Test
+    void coversOnlyTheRetentionWindowOnceLoaded() {
+        PriceRollupService service = start();
+
+        assertTrue(service.covers(90));
+        assertFalse(service.covers(91));
+
+        ReflectionTestUtils.setField(service, "enabled", false);
+        assertFalse(service.covers(30));
+    }
+
+    @Test
+    void firstLoadRunsInTheBackgroundOnceTheAppIsReady() throws Exception {
+        CountDownLatch scanning = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(auctionRepository.streamCompletedSince(any())).thenAnswer(invocation -> {
+            scanning.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            return Stream.of(row(1L, "Tuna", "Kochi", 400, 1.0, TODAY, Auction.AuctionDataSource.USER_MANUAL));
+        });
+        PriceRollupService service = create();
+
+        service.loadOnStartup();
+        assertTrue(scanning.await(5, TimeUnit.SECONDS));
+        // Still scanning: RagService stays on the raw path
+        assertFalse(service.covers(30));
+
+        release.countDown();
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!service.covers(30) && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertTrue(service.covers(30));
+        assertEquals(1, service.find("Tuna", null, 0).size());
+    }
+
+    @Test
+    void failedRebuildKeepsThePreviousState() {
+        PriceRollupService service = start(row(1L, "Tuna", "Kochi", 400, 1.0, TODAY, Auction.AuctionDataSource.USER_MANUAL));
+        when(auctionRepository.streamCompletedSince(any())).thenThrow(new IllegalStateException("db down"));
+
+        service.rebuild();
+
+        assertEquals(1, service.find("Tuna", null, 0).size());
+    }
+
+    private PriceRollupService start(RagIndexRowDTO... rows) {
+        when(auctionRepository.streamCompletedSince(any())).thenReturn(Stream.of(rows));
+        PriceRollupService service = create();
+        service.rebuild();
+        return service;
+    }
+
+    private PriceRollupService create() {
+        PriceRollupService service = new PriceRollupService(auctionRepository, mock(PlatformTransactionManager.class));
+        ReflectionTestUtils.setField(service, "enabled", true);
+        ReflectionTestUtils.setField(service, "retentionDays", 90);
+        service.init();
+        return service;
+    }
+
+    private static RagIndexRowDTO row(Long id, String fish, String location, double price, Double quantityKg,
+                                      Instant endTime, Auction.AuctionDataSource source) {
+        return new RagIndexRowDTO(id, fish, location, price, quantityKg, endTime, source);
+    }
+
+    private static Auction auction(Long id, String fish, double price) {
+        Auction auction = new Auction();
+        auction.setId(id);
+        auction.setFishName(fish);
+        auction.setLocation("Kochi");
+        auction.setCurrentPrice(price);
+        auction.setQuantityKg(10.0);
+        auction.setEndTime(TODAY);
+        auction.setActive(false);
+        return auction;
+    }
+}
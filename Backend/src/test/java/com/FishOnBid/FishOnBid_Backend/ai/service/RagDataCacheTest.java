@@ -0,0 +1,90 @@
+package com.FishOnBid.FishOnBid_Backend.ai.service;
+
+import com.FishOnBid.FishOnBid_Backend.ai.dto.RagDataDTO;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+class RagDataCacheTest {
+
+    private static final RagDataDTO DATA = new RagDataDTO(12, 640.0, 500.0, 800.0, 14.0,
+            "Kochi", 3, 600.0, 0, 0, "2026-07-01 to 2026-09-30");
+
+    @Test
+    void keysOnExactFishAndLocation() {
+        RagDataCache cache = new RagDataCache(16, 300);
+        put(cache, "Seer Fish", "Kochi", DATA);
+
+        assertSame(DATA, cache.get(cache.keyFor("Seer Fish", "Kochi")));
+        assertNull(cache.get(cache.keyFor("Seer Fish", "Chennai")));
+        assertNull(cache.get(cache.keyFor("Seer Fish", null)));
+        assertEquals(cache.keyFor("Seer Fish", null), cache.keyFor("Seer Fish", "  "));
+    }
+
+    @Test
+    void expiresAfterTtl() {
+        RagDataCache cache = new RagDataCache(16, 0);
+        put(cache, "Seer Fish", "Kochi", DATA);
+
+        assertNull(cache.get(cache.keyFor("Seer Fish", "Kochi")));
+        assertEquals(1L, cache.getStats().get("expired"));
+    }
+
+    @Test
+    void invalidateFishDropsEveryLocationAndSpelling() {
+        RagDataCache cache = new RagDataCache(16, 300);
+        put(cache, "Seer Fish", "Kochi", DATA);
+        put(cache, "seer fish", "", DATA);
+        put(cache, "Pomfret", "Kochi", DATA);
+
+        cache.invalidateFish("SEER FISH");
+
+        assertNull(cache.get(cache.keyFor("Seer Fish", "Kochi")));
+        assertNull(cache.get(cache.keyFor("seer fish", "")));
+        assertSame(DATA, cache.get(cache.keyFor("Pomfret", "Kochi")));
+    }
+
+    @Test
+    void fetchStartedBeforeInvalidationIsNotStored() {
+        RagDataCache cache = new RagDataCache(16, 300);
+        RagDataCache.Key seer = cache.keyFor("Seer Fish", "Kochi");
+        RagDataCache.Key pomfret = cache.keyFor("Pomfret", "Kochi");
+        RagDataCache.Stamp seerStamp = cache.stamp(seer);
+        RagDataCache.Stamp pomfretStamp = cache.stamp(pomfret);
+
+        // An auction for this fish closes while both retrievals are in flight
+        cache.invalidateFish("Seer Fish");
+        cache.put(seer, seerStamp, DATA);
+        cache.put(pomfret, pomfretStamp, DATA);
+
+        assertNull(cache.get(seer));
+        assertSame(DATA, cache.get(pomfret));
+
+        cache.invalidateAll();
+        cache.put(pomfret, pomfretStamp, DATA);
+        assertNull(cache.get(pomfret));
+        assertNotEquals(pomfretStamp, cache.stamp(pomfret));
+    }
+
+    @Test
+    void evictsLeastRecentlyUsed() {
+        RagDataCache cache = new RagDataCache(2, 300);
+        put(cache, "A", "", DATA);
+        put(cache, "B", "", DATA);
+        cache.get(cache.keyFor("A", ""));
+        put(cache, "C", "", DATA);
+
+        assertSame(DATA, cache.get(cache.keyFor("A", "")));
+        assertNull(cache.get(cache.keyFor("B", "")));
+        assertSame(DATA, cache.get(cache.keyFor("C", "")));
+        assertEquals(1L, cache.getStats().get("evictions"));
+    }
+
+    private static void put(RagDataCache cache, String fish, String location, RagDataDTO data) {
+        RagDataCache.Key key = cache.keyFor(fish, location);
+        cache.put(key, cache.stamp(key), data);
+    }
+}
@@ -0,0 +1,180 @@
+package com.FishOnBid.FishOnBid_Backend.ai.service;
+
+import com.FishOnBid.FishOnBid_Backend.ai.dto.RagDataDTO;
+import com.FishOnBid.FishOnBid_Backend.entity.Auction;
+import com.FishOnBid.FishOnBid_Backend.repository.AuctionRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.stubbing.Answer;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAccumulator;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class RagServiceFallbackTest {
+
+    // Beyond the rollup window, so the raw-row tiers run
+    private static final int DAYS_BACK = 400;
+
+    private final AuctionRepository auctionRepository = mock(AuctionRepository.class);
+    private final PriceRollupService rollupService = mock(PriceRollupService.class);
+    private RagService service;
+
+    @AfterEach
+    void tearDown() {
+        if (service != null) {
+            service.shutdown();
+        }
+    }
+
+    @Test
+    void localGovtDataNeverStartsTheWiderTiers() {
+        when(auctionRepository.findRecentAuctionsByLocation(eq("Seer Fish"), eq("Kochi"), any()))
+                .thenReturn(List.of(auction("Seer Fish", 640, Auction.AuctionDataSource.GOVT_INSTITUTIONAL_API)));
+        service = service(true, 4);
+
+        RagDataDTO data = service.fetchHistoricalDataByLocation("Seer Fish", "Kochi", DAYS_BACK);
+
+        assertEquals(1, data.auctionCount());
+        verify(auctionRepository, never()).findRecentAuctions(anyString(), any());
+    }
+
+    @Test
+    void fallThroughMatchesTheSequentialChain() {
+        when(auctionRepository.findRecentAuctions(eq("Seer Fish"), any()))
+                .thenReturn(List.of(auction("Seer Fish", 610, Auction.AuctionDataSource.USER_MANUAL),
+                        auction("Seer Fish", 650, Auction.AuctionDataSource.USER_MANUAL)));
+
+        RagDataDTO sequential = service(false, 4).fetchHistoricalDataByLocation("Seer Fish", "Kochi", DAYS_BACK);
+        service = service(true, 4);
+        RagDataDTO concurrent = service.fetchHistoricalDataByLocation("Seer Fish", "Kochi", DAYS_BACK);
+
+        assertEquals(2, concurrent.auctionCount());
+        assertEquals(sequential.averagePrice(), concurrent.averagePrice());
+    }
+
+    @Test
+    void speculativeQueriesStayWithinThePermits() throws Exception {
+        // Every tier is empty and slow, so each call walks the whole chain
+        AtomicInteger speculative = new AtomicInteger();
+        LongAccumulator peak = new LongAccumulator(Math::max, 0);
+        Answer<List<Auction>> slowEmpty = invocation -> {
+            boolean virtual = Thread.currentThread().isVirtual();
+            if (virtual) {
+                peak.accumulate(speculative.incrementAndGet());
+            }
+            try {
+                Thread.sleep(20);
+                return List.of();
+            } finally {
+                if (virtual) {
+                    speculative.decrementAndGet();
+                }
+            }
+        };
+        when(auctionRepository.findRecentAuctionsByLocation(anyString(), anyString(), any())).thenAnswer(slowEmpty);
+        when(auctionRepository.findGenericFishGovtData(anyString(), any())).thenAnswer(slowEmpty);
+        when(auctionRepository.findRecentAuctions(anyString(), any())).thenAnswer(slowEmpty);
+        service = service(true, 2);
+
+        ExecutorService callers = Executors.newFixedThreadPool(8);
+        List<Future<RagDataDTO>> results = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            results.add(callers.submit(() -> service.fetchHistoricalDataByLocation("Seer Fish", "Kochi", DAYS_BACK)));
+        }
+        for (Future<RagDataDTO> result : results) {
+            assertEquals(0, result.get(10, TimeUnit.SECONDS).auctionCount());
+        }
+        callers.shutdown();
+
+        assertTrue(peak.get() <= 2, "speculative queries in flight: " + peak.get());
+        Map<String, Object> stats = service.getFallbackStats();
+        assertTrue(((Number) stats.get("speculationsSkipped")).longValue() > 0);
+    }
+
+    @Test
+    void nationwideRollupBaselineIsCappedLikeTheRawPath() {
+        long today = PriceRollupService.epochDay(Instant.now());
+        when(rollupService.find(eq("Seer Fish"), eq("Kochi"), anyLong())).thenReturn(List.of(
+                bucket("Kochi", today, Auction.AuctionDataSource.USER_MANUAL, 2, 600)));
+        when(rollupService.find(eq("Fish"), eq("Kochi"), anyLong())).thenReturn(List.of());
+        // One busy nationwide day holds more govt records than the whole baseline allows
+        when(rollupService.find(eq("Fish"), isNull(), anyLong())).thenReturn(List.of(
+                bucket("Mumbai", today, Auction.AuctionDataSource.GOVT_INSTITUTIONAL_API, 50, 300),
+                bucket("Chennai", today - 1, Auction.AuctionDataSource.GOVT_INSTITUTIONAL_API, 5, 400)));
+        service = service(true, 4);
+        when(rollupService.covers(anyInt())).thenReturn(true);
+
+        RagDataDTO data = service.fetchHistoricalDataByLocation("Seer Fish", "Kochi", 30);
+
+        assertEquals(22, data.auctionCount());
+        assertEquals(20, data.govtRecordCount());
+        assertEquals(300.0, data.govtAveragePrice());
+        assertEquals(2, data.historicalRecordCount());
+    }
+
+    @Test
+    void locationComesFromLocalBucketsBeforeFallbackTiers() {
+        long today = PriceRollupService.epochDay(Instant.now());
+        when(rollupService.find(eq("Seer Fish"), eq("Kochi"), anyLong())).thenReturn(List.of(
+                bucket("Kochi", today - 3, Auction.AuctionDataSource.USER_MANUAL, 1, 600)));
+        when(rollupService.find(eq("Fish"), eq("Kochi"), anyLong())).thenReturn(List.of());
+        // The nationwide baseline is newer than the local data
+        when(rollupService.find(eq("Fish"), isNull(), anyLong())).thenReturn(List.of(
+                bucket("Mumbai", today, Auction.AuctionDataSource.GOVT_INSTITUTIONAL_API, 3, 300)));
+        service = service(true, 4);
+        when(rollupService.covers(anyInt())).thenReturn(true);
+
+        RagDataDTO data = service.fetchHistoricalDataByLocation("Seer Fish", "Kochi", 30);
+
+        assertEquals(4, data.auctionCount());
+        assertEquals("Kochi", data.mostRecentLocation());
+    }
+
+    private RagService service(boolean concurrent, int permits) {
+        when(rollupService.covers(anyInt())).thenReturn(false);
+        RagService created = new RagService(auctionRepository, rollupService);
+        ReflectionTestUtils.setField(created, "concurrentFallback", concurrent);
+        ReflectionTestUtils.setField(created, "speculativePermits", permits);
+        created.init();
+        return created;
+    }
+
+    private static PriceRollupService.DailyRollup bucket(String location, long epochDay,
+                                                        Auction.AuctionDataSource source, int count, double price) {
+        return new PriceRollupService.DailyRollup("Fish", location, epochDay, source,
+                count, count * price, price, price, count * 10.0);
+    }
+
+    private static Auction auction(String fish, double price, Auction.AuctionDataSource source) {
+        Auction auction = new Auction();
+        auction.setFishName(fish);
+        auction.setLocation("Kochi");
+        auction.setCurrentPrice(price);
+        auction.setQuantityKg(10.0);
+        auction.setStartTime(Instant.now().minusSeconds(86400));
+        auction.setDataSource(source);
+        return auction;
+    }
+}
@@ -0,0 +1,125 @@
+package com.FishOnBid.FishOnBid_Backend.websocket;
+
+import com.FishOnBid.FishOnBid_Backend.events.BidPlacedEvent;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class BidUpdateCoalescerTest {
+
+    private static final long AUCTION_ID = 42L;
+
+    // Frame types in the order they were handed to the broker
+    private final List<String> sent = new CopyOnWriteArrayList<>();
+    private volatile CountDownLatch bidSending = new CountDownLatch(1);
+    private volatile long bidSendMillis;
+
+    private final StompBroadcaster broadcaster = new StompBroadcaster(null, null) {
+        @Override
+        public void broadcast(Map<String, Object> payload, String... destinations) {
+            if ("BID_PLACED".equals(payload.get("type"))) {
+                bidSending.countDown();
+                sleep(bidSendMillis);
+            }
+            sent.add((String) payload.get("type"));
+        }
+    };
+
+    private final FirehoseSubscriptionInterceptor firehose = mock(FirehoseSubscriptionInterceptor.class);
+
+    private BidUpdateCoalescer coalescer;
+
+    @AfterEach
+    void tearDown() {
+        if (coalescer != null) {
+            coalescer.shutdown();
+        }
+    }
+
+    @Test
+    void pendingBidIsSentBeforeClose() {
+        coalescer = start(60_000);
+
+        coalescer.submit(bid(510.0), 1);
+        coalescer.flushThen(AUCTION_ID, () -> sent.add("AUCTION_CLOSED"));
+
+        assertEquals(List.of("BID_PLACED", "AUCTION_CLOSED"), sent);
+    }
+
+    @Test
+    void closeWaitsForBidTheFlusherIsSending() throws Exception {
+        bidSendMillis = 300;
+        coalescer = start(5);
+
+        coalescer.submit(bid(510.0), 1);
+        // The flusher thread has taken the entry and is inside send()
+        assertTrue(bidSending.await(5, TimeUnit.SECONDS));
+        coalescer.flushThen(AUCTION_ID, () -> sent.add("AUCTION_CLOSED"));
+
+        assertEquals(List.of("BID_PLACED", "AUCTION_CLOSED"), sent);
+    }
+
+    @Test
+    void closeIsNeverOvertakenUnderContention() {
+        bidSendMillis = 1;
+        coalescer = start(1);
+
+        for (int round = 0; round < 200; round++) {
+            sent.clear();
+            bidSending = new CountDownLatch(1);
+            coalescer.submit(bid(500.0 + round), round);
+            // Randomly lands before, during or after the flusher's own flush
+            sleep(round % 3);
+            coalescer.flushThen(AUCTION_ID, () -> sent.add("AUCTION_CLOSED"));
+
+            assertEquals(List.of("BID_PLACED", "AUCTION_CLOSED"), sent, "round " + round);
+        }
+    }
+
+    @Test
+    void framesOutCountsOnlyFramesSent() {
+        coalescer = start(60_000);
+
+        coalescer.submit(bid(510.0), 1);
+        coalescer.flush(AUCTION_ID);
+        assertEquals(1, coalescer.getStats().framesOut());
+
+        when(firehose.hasSubscribers()).thenReturn(true);
+        coalescer.submit(bid(520.0), 2);
+        coalescer.flush(AUCTION_ID);
+        assertEquals(3, coalescer.getStats().framesOut());
+    }
+
+    private BidUpdateCoalescer start(long windowMs) {
+        BidUpdateCoalescer started = new BidUpdateCoalescer(broadcaster,
+                mock(AuctionLiveStateRegistry.class),
+                mock(AuctionPresenceTracker.class),
+                firehose);
+        ReflectionTestUtils.setField(started, "windowMs", windowMs);
+        started.init();
+        return started;
+    }
+
+    private static BidPlacedEvent bid(double amount) {
+        return new BidPlacedEvent(AUCTION_ID, 1L, amount, amount - 10, "bidder@fishonbid.in", "Seer Fish");
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,127 @@
+package com.FishOnBid.FishOnBid_Backend.websocket;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.messaging.simp.stomp.StompFrameHandler;
+import org.springframework.messaging.simp.stomp.StompHeaders;
+import org.springframework.messaging.simp.stomp.StompSession;
+import org.springframework.messaging.simp.stomp.StompSessionHandlerAdapter;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.util.MimeTypeUtils;
+import org.springframework.web.socket.client.standard.StandardWebSocketClient;
+import org.springframework.web.socket.messaging.WebSocketStompClient;
+
+import java.lang.reflect.Type;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+
+/**
+ * Sends a binary auction frame through the real broker and /ws-native endpoint and
+ * decodes it on a STOMP client, so a frame written as a text WebSocket message
+ * (UTF-8 mangled) fails the byte comparison.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@ActiveProfiles("loadtest")
+class BinaryFrameRoundTripTest {
+
+    private static final long AUCTION_ID = 987_654L;
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private StompBroadcaster broadcaster;
+
+    @Test
+    void bidFrameSurvivesTheWire() throws Exception {
+        WebSocketStompClient stompClient = new WebSocketStompClient(new StandardWebSocketClient());
+        BlockingQueue<Frame> frames = new LinkedBlockingQueue<>();
+
+        StompSession session = stompClient
+                .connectAsync("ws://localhost:" + port + "/ws-native", new StompSessionHandlerAdapter() {})
+                .get(10, TimeUnit.SECONDS);
+        session.subscribe("/topic/bin/auction/" + AUCTION_ID, new StompFrameHandler() {
+            @Override
+            public Type getPayloadType(StompHeaders headers) {
+                return byte[].class;
+            }
+
+            @Override
+            public void handleFrame(StompHeaders headers, Object payload) {
+                frames.add(new Frame(headers, (byte[]) payload));
+            }
+        });
+        // Let the SUBSCRIBE reach the broker before publishing
+        Thread.sleep(500);
+
+        Map<String, Object> payload = new HashMap<>();
+        payload.put("type", "BID_PLACED");
+        payload.put("auctionId", AUCTION_ID);
+        payload.put("timestamp", Instant.ofEpochMilli(1_700_000_000_123L));
+        payload.put("seq", 300L);
+        payload.put("baseSeq", 299L);
+        // Chosen so the encoded doubles contain bytes that are not valid UTF-8
+        payload.put("currentPrice", 1234.5678);
+        payload.put("previousPrice", -0.0001);
+        payload.put("coalescedBids", 3);
+        payload.put("viewers", 250);
+        payload.put("uniqueViewers", 180);
+        payload.put("bidder", "mä***@fishonbid.in");
+        broadcaster.broadcast(payload, "/topic/auction/" + AUCTION_ID);
+
+        Frame frame = nextBidFrame(frames);
+        assertNotNull(frame, "No binary BID_PLACED frame received");
+        assertEquals(MimeTypeUtils.APPLICATION_OCTET_STREAM, frame.headers().getContentType());
+        assertEquals(String.valueOf(BinaryFrameCodec.VERSION),
+                frame.headers().getFirst(BinaryFrameCodec.VERSION_HEADER));
+        assertArrayEquals(BinaryFrameCodec.encode(payload), frame.payload());
+
+        ByteBuffer buf = ByteBuffer.wrap(frame.payload());
+        assertEquals(BinaryFrameCodec.VERSION, buf.get());
+        assertEquals(1, buf.get());
+        assertEquals(AUCTION_ID, buf.getLong());
+        assertEquals(1_700_000_000_123L, buf.getLong());
+        assertEquals(300L, buf.getLong());
+        assertEquals(299L, buf.getLong());
+        assertEquals(1234.5678, buf.getDouble());
+        assertEquals(-0.0001, buf.getDouble());
+        assertEquals(3, buf.getInt());
+        assertEquals(250, buf.getInt());
+        assertEquals(180, buf.getInt());
+        byte[] bidder = new byte[buf.getShort() & 0xFFFF];
+        buf.get(bidder);
+        assertEquals("mä***@fishonbid.in", new String(bidder, StandardCharsets.UTF_8));
+        assertEquals(0, buf.remaining());
+
+        session.disconnect();
+        stompClient.stop();
+    }
+
+    /**
+     * Skips the VIEWERS frame the subscription itself triggers
+     */
+    private static Frame nextBidFrame(BlockingQueue<Frame> frames) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        Frame frame;
+        while ((frame = frames.poll(deadline - System.nanoTime(), TimeUnit.NANOSECONDS)) != null) {
+            if (frame.payload().length > 1 && frame.payload()[1] == 1) {
+                return frame;
+            }
+        }
+        return null;
+    }
+
+    private record Frame(StompHeaders headers, byte[] payload) {}
+}
@@ -0,0 +1,243 @@
+package com.FishOnBid.FishOnBid_Backend.websocket;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.messaging.simp.stomp.StompFrameHandler;
+import org.springframework.messaging.simp.stomp.StompHeaders;
+import org.springframework.messaging.simp.stomp.StompSession;
+import org.springframework.messaging.simp.stomp.StompSessionHandlerAdapter;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.web.socket.client.standard.StandardWebSocketClient;
+import org.springframework.web.socket.messaging.WebSocketStompClient;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.reflect.Type;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Soak test for the slow-consumer eviction path.
+ *
+ * Raw-socket STOMP clients subscribe and then stop reading, while well-behaved
+ * STOMP clients on the same topic receive a sustained stream of ~4 KB frames. The
+ * transport send limits must evict every stalled session, and the healthy clients
+ * must still receive every frame, in publish order.
+ *
+ * Skipped by default; run with:
+ *   mvn test -Dloadtest=true -Dtest=SlowConsumerSoakTest
+ *     [-Dloadtest.soak.fast-clients=10] [-Dloadtest.soak.slow-clients=5] [-Dloadtest.soak.frames=3000]
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "websocket.transport.send-time-limit-ms=2000",
+        "websocket.transport.send-buffer-size-limit=262144"
+})
+@ActiveProfiles("loadtest")
+@EnabledIfSystemProperty(named = "loadtest", matches = "true")
+@Tag("load")
+class SlowConsumerSoakTest {
+
+    private static final int FAST_CLIENTS = Integer.getInteger("loadtest.soak.fast-clients", 10);
+    private static final int SLOW_CLIENTS = Integer.getInteger("loadtest.soak.slow-clients", 5);
+    private static final int FRAMES = Integer.getInteger("loadtest.soak.frames", 3000);
+    private static final String TOPIC = "/topic/soak";
+    private static final Pattern SEQ = Pattern.compile("\"n\":(\\d+)");
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private StompBroadcaster broadcaster;
+
+    @Autowired
+    private SessionQueueDepthInterceptor queueDepthInterceptor;
+
+    @Test
+    void slowConsumersAreEvictedWithoutStallingOthers() throws Exception {
+        long evictedBefore = queueDepthInterceptor.getStats().slowSessionsEvicted();
+
+        WebSocketStompClient stompClient = new WebSocketStompClient(new StandardWebSocketClient());
+        stompClient.setDefaultHeartbeat(new long[]{0, 0});
+        List<StompSession> sessions = new ArrayList<>();
+        List<List<Integer>> receivedByClient = new ArrayList<>();
+        for (int i = 0; i < FAST_CLIENTS; i++) {
+            List<Integer> received = Collections.synchronizedList(new ArrayList<>());
+            receivedByClient.add(received);
+            StompSession session = stompClient
+                    .connectAsync("ws://localhost:" + port + "/ws-native", new StompSessionHandlerAdapter() {})
+                    .get(10, TimeUnit.SECONDS);
+            session.subscribe(TOPIC, new SequenceRecorder(received));
+            sessions.add(session);
+        }
+
+        List<Socket> stalled = new ArrayList<>();
+        for (int i = 0; i < SLOW_CLIENTS; i++) {
+            stalled.add(openStalledSubscriber());
+        }
+        // Let every SUBSCRIBE reach the broker
+        Thread.sleep(1000);
+
+        String padding = "x".repeat(4000);
+        long start = System.nanoTime();
+        for (int n = 0; n < FRAMES; n++) {
+            Map<String, Object> payload = new LinkedHashMap<>();
+            payload.put("type", "SOAK");
+            payload.put("n", n);
+            payload.put("padding", padding);
+            broadcaster.broadcast(payload, TOPIC);
+            // ~4 MB/s per subscriber: sustained for a healthy client, fatal for a stalled one
+            Thread.sleep(1);
+        }
+        long publishMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(60);
+        while (System.nanoTime() < deadline
+                && (queueDepthInterceptor.getStats().slowSessionsEvicted() - evictedBefore < SLOW_CLIENTS
+                || receivedByClient.stream().anyMatch(r -> r.size() < FRAMES))) {
+            Thread.sleep(200);
+        }
+        long evicted = queueDepthInterceptor.getStats().slowSessionsEvicted() - evictedBefore;
+
+        System.out.printf("%n=== Slow-consumer soak ===%n");
+        System.out.printf("fast=%d slow=%d frames=%d published in %d ms, evicted=%d, peak session depth=%d%n",
+                FAST_CLIENTS, SLOW_CLIENTS, FRAMES, publishMs, evicted,
+                queueDepthInterceptor.getStats().peakSessionDepth());
+
+        for (Socket socket : stalled) {
+            socket.close();
+        }
+        for (StompSession session : sessions) {
+            if (session.isConnected()) {
+                session.disconnect();
+            }
+        }
+        stompClient.stop();
+
+        assertEquals(SLOW_CLIENTS, evicted, "Every stalled session should be evicted");
+        List<Integer> expected = IntStream.range(0, FRAMES).boxed().toList();
+        for (List<Integer> received : receivedByClient) {
+            assertEquals(expected, List.copyOf(received), "Healthy clients get every frame in publish order");
+        }
+    }
+
+    /**
+     * Handshake and subscribe over a raw socket with a tiny receive window, then never read again
+     */
+    private Socket openStalledSubscriber() throws IOException {
+        Socket socket = new Socket();
+        socket.setReceiveBufferSize(4096);
+        socket.connect(new InetSocketAddress("localhost", port), 5000);
+        socket.setSoTimeout(5000);
+        OutputStream out = socket.getOutputStream();
+        InputStream in = socket.getInputStream();
+
+        out.write(("GET /ws-native HTTP/1.1\r\n"
+                + "Host: localhost:" + port + "\r\n"
+                + "Upgrade: websocket\r\n"
+                + "Connection: Upgrade\r\n"
+                + "Sec-WebSocket-Key: dGhlIHNhbXBsZSBub25jZQ==\r\n"
+                + "Sec-WebSocket-Version: 13\r\n"
+                + "Sec-WebSocket-Protocol: v12.stomp\r\n\r\n").getBytes(StandardCharsets.US_ASCII));
+        String response = readHttpHeaders(in);
+        assertTrue(response.startsWith("HTTP/1.1 101"), "Upgrade refused: " + response);
+
+        writeTextFrame(out, "CONNECT\naccept-version:1.2\nhost:localhost\nheart-beat:0,0\n\n\0");
+        String connected = readTextFrame(in);
+        assertTrue(connected.startsWith("CONNECTED"), "Unexpected reply: " + connected);
+        writeTextFrame(out, "SUBSCRIBE\nid:sub-0\ndestination:" + TOPIC + "\n\n\0");
+        return socket;
+    }
+
+    private static String readHttpHeaders(InputStream in) throws IOException {
+        ByteArrayOutputStream headers = new ByteArrayOutputStream();
+        int matched = 0;
+        byte[] terminator = {'\r', '\n', '\r', '\n'};
+        while (matched < terminator.length) {
+            int b = in.read();
+            if (b < 0) {
+                break;
+            }
+            headers.write(b);
+            matched = b == terminator[matched] ? matched + 1 : (b == '\r' ? 1 : 0);
+        }
+        return headers.toString(StandardCharsets.US_ASCII);
+    }
+
+    /**
+     * Client frames must be masked (RFC 6455 5.3)
+     */
+    private static void writeTextFrame(OutputStream out, String text) throws IOException {
+        byte[] payload = text.getBytes(StandardCharsets.UTF_8);
+        byte[] mask = new byte[4];
+        ThreadLocalRandom.current().nextBytes(mask);
+        ByteArrayOutputStream frame = new ByteArrayOutputStream();
+        frame.write(0x81);
+        if (payload.length < 126) {
+            frame.write(0x80 | payload.length);
+        } else {
+            frame.write(0x80 | 126);
+            frame.write(payload.length >>> 8);
+            frame.write(payload.length & 0xFF);
+        }
+        frame.write(mask);
+        for (int i = 0; i < payload.length; i++) {
+            frame.write(payload[i] ^ mask[i & 3]);
+        }
+        out.write(frame.toByteArray());
+        out.flush();
+    }
+
+    /**
+     * Server frames are unmasked; only the short and 16-bit length forms occur here
+     */
+    private static String readTextFrame(InputStream in) throws IOException {
+        in.read();
+        int length = in.read() & 0x7F;
+        if (length == 126) {
+            length = (in.read() << 8) | in.read();
+        }
+        return new String(in.readNBytes(length), StandardCharsets.UTF_8);
+    }
+
+    private static class SequenceRecorder implements StompFrameHandler {
+
+        private final List<Integer> received;
+
+        SequenceRecorder(List<Integer> received) {
+            this.received = received;
+        }
+
+        @Override
+        public Type getPayloadType(StompHeaders headers) {
+            return byte[].class;
+        }
+
+        @Override
+        public void handleFrame(StompHeaders headers, Object payload) {
+            Matcher matcher = SEQ.matcher(new String((byte[]) payload, StandardCharsets.UTF_8));
+            if (matcher.find()) {
+                received.add(Integer.parseInt(matcher.group(1)));
+            }
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package com.FishOnBid.FishOnBid_Backend.websocket;
+
+import com.FishOnBid.FishOnBid_Backend.util.JwtUtil;
+import org.junit.jupiter.api.Test;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.simp.stomp.StompCommand;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.messaging.support.MessageHeaderAccessor;
+
+import java.security.Principal;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class StompAuthChannelInterceptorTest {
+
+    private final JwtUtil jwtUtil = mock(JwtUtil.class);
+    private final StompAuthChannelInterceptor interceptor = new StompAuthChannelInterceptor(jwtUtil);
+
+    @Test
+    void validTokenAuthenticatesTheSession() {
+        when(jwtUtil.isTokenValid("good")).thenReturn(true);
+        when(jwtUtil.extractEmail("good")).thenReturn("seller@fishonbid.in");
+        when(jwtUtil.extractRole("good")).thenReturn("seller");
+
+        Principal user = userAfterConnect("Bearer good");
+
+        assertEquals("seller@fishonbid.in", user.getName());
+    }
+
+    @Test
+    void expiredTokenConnectsAnonymously() {
+        when(jwtUtil.isTokenValid("expired")).thenReturn(false);
+
+        assertNull(userAfterConnect("Bearer expired"));
+    }
+
+    @Test
+    void unreadableTokenConnectsAnonymously() {
+        when(jwtUtil.isTokenValid("garbage")).thenThrow(new IllegalArgumentException("malformed"));
+
+        assertNull(userAfterConnect("Bearer garbage"));
+    }
+
+    @Test
+    void missingTokenConnectsAnonymously() {
+        assertNull(userAfterConnect(null));
+    }
+
+    private Principal userAfterConnect(String authorization) {
+        StompHeaderAccessor accessor = StompHeaderAccessor.create(StompCommand.CONNECT);
+        if (authorization != null) {
+            accessor.addNativeHeader("Authorization", authorization);
+        }
+        accessor.setLeaveMutable(true);
+        Message<byte[]> message = MessageBuilder.createMessage(new byte[0], accessor.getMessageHeaders());
+
+        Message<?> result = interceptor.preSend(message, null);
+
+        return MessageHeaderAccessor.getAccessor(result, StompHeaderAccessor.class).getUser();
+    }
+}
@@ -0,0 +1,67 @@
+package com.FishOnBid.FishOnBid_Backend.websocket;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.util.MimeTypeUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+class StompBroadcasterTest {
+
+    private final List<String> destinations = new ArrayList<>();
+    private final List<Message<?>> messages = new ArrayList<>();
+
+    private final SimpMessagingTemplate template = new SimpMessagingTemplate((message, timeout) -> true) {
+        @Override
+        public void send(String destination, Message<?> message) {
+            destinations.add(destination);
+            messages.add(message);
+        }
+    };
+
+    private final StompBroadcaster broadcaster = new StompBroadcaster(template, new ObjectMapper());
+
+    @Test
+    void encodesOnceAndSharesTheMessageAcrossDestinations() throws Exception {
+        Map<String, Object> payload = Map.of("type", "AUCTION_CREATED", "auctionId", 7);
+
+        broadcaster.broadcast(payload, "/topic/auction/7", "/topic/auctions");
+
+        assertEquals(List.of("/topic/auction/7", "/topic/auctions"), destinations);
+        assertSame(messages.get(0), messages.get(1));
+        assertEquals(MimeTypeUtils.APPLICATION_JSON, messages.get(0).getHeaders().get("contentType"));
+        assertArrayEquals(new ObjectMapper().writeValueAsBytes(payload), (byte[]) messages.get(0).getPayload());
+
+        StompBroadcaster.BroadcastStats stats = broadcaster.getStats();
+        assertEquals(1, stats.eventsEncoded());
+        assertEquals(2, stats.framesSent());
+    }
+
+    @Test
+    void binaryCopyGoesOnlyToTopicDestinations() {
+        ReflectionTestUtils.setField(broadcaster, "binaryEnabled", true);
+        Map<String, Object> payload = Map.of("type", "AUCTION_CLOSED", "auctionId", 7L, "finalPrice", 640.0);
+
+        broadcaster.broadcast(payload, "/topic/auction/7", "/queue/other");
+
+        assertEquals(List.of("/topic/auction/7", "/queue/other", "/topic/bin/auction/7"), destinations);
+        assertEquals(MimeTypeUtils.APPLICATION_OCTET_STREAM, messages.get(2).getHeaders().get("contentType"));
+        assertEquals(3, broadcaster.getStats().framesSent());
+    }
+
+    @Test
+    void userDestinationsEscapeSlashes() {
+        broadcaster.sendToUser("a/b@fishonbid.in", "/queue/notifications", Map.of("type", "OUTBID"));
+
+        assertEquals(List.of("/user/a%2Fb@fishonbid.in/queue/notifications"), destinations);
+    }
+}
@@ -0,0 +1,256 @@
+package com.FishOnBid.FishOnBid_Backend.websocket;
+
+import com.FishOnBid.FishOnBid_Backend.entity.Auction;
+import com.FishOnBid.FishOnBid_Backend.repository.AuctionRepository;
+import com.FishOnBid.FishOnBid_Backend.service.AuctionService;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.HdrHistogram.Histogram;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.messaging.simp.stomp.StompFrameHandler;
+import org.springframework.messaging.simp.stomp.StompHeaders;
+import org.springframework.messaging.simp.stomp.StompSession;
+import org.springframework.messaging.simp.stomp.StompSessionHandlerAdapter;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.web.socket.client.standard.StandardWebSocketClient;
+import org.springframework.web.socket.messaging.WebSocketStompClient;
+
+import java.lang.reflect.Type;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * In-process load-test harness for WebSocket fan-out.
+ *
+ * Boots the app on an embedded H2 database, opens N STOMP clients against
+ * /ws-native on virtual threads, subscribes them to auction topics and drives bids
+ * through AuctionService.placeBid. Reports HdrHistogram percentiles from bid commit
+ * (placeBid returned) to frame receipt, and heap growth per open connection.
+ *
+ * Skipped by default; run with:
+ *   mvn test -Dloadtest=true -Dtest=WebSocketFanoutLoadTest
+ *     [-Dloadtest.clients=1000] [-Dloadtest.auctions=10] [-Dloadtest.bids=200]
+ *     [-Dloadtest.bid-interval-ms=20] [-Dloadtest.p99-target-ms=500]
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@ActiveProfiles("loadtest")
+@EnabledIfSystemProperty(named = "loadtest", matches = "true")
+@Tag("load")
+class WebSocketFanoutLoadTest {
+
+    private static final int CLIENTS = Integer.getInteger("loadtest.clients", 1000);
+    private static final int AUCTIONS = Integer.getInteger("loadtest.auctions", 10);
+    private static final int BIDS_PER_AUCTION = Integer.getInteger("loadtest.bids", 200);
+    private static final long BID_INTERVAL_MS = Long.getLong("loadtest.bid-interval-ms", 20);
+    private static final long P99_TARGET_MS = Long.getLong("loadtest.p99-target-ms", 500);
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private AuctionService auctionService;
+
+    @Autowired
+    private AuctionRepository auctionRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    // "auctionId:price" -> nanoTime at which placeBid returned
+    private final Map<String, Long> commitNanos = new ConcurrentHashMap<>();
+
+    // Raw frames, parsed after the run so JSON decoding does not skew receipt times
+    private final Queue<ReceivedFrame> received = new ConcurrentLinkedQueue<>();
+
+    @Test
+    void fanOutLatencyUnderLoad() throws Exception {
+        List<Long> auctionIds = createAuctions();
+
+        WebSocketStompClient stompClient = new WebSocketStompClient(new StandardWebSocketClient());
+        stompClient.setDefaultHeartbeat(new long[]{0, 0});
+        stompClient.setInboundMessageSizeLimit(256 * 1024);
+
+        long heapBefore = usedHeapAfterGc();
+        List<StompSession> sessions = connectClients(stompClient, auctionIds);
+        long heapAfter = usedHeapAfterGc();
+
+        // Let subscriptions register and snapshots drain before timing anything
+        Thread.sleep(2000);
+        received.clear();
+
+        long bidStart = System.nanoTime();
+        Histogram commitLatency = driveBids(auctionIds);
+        long bidElapsedMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - bidStart);
+
+        awaitQuiescence();
+        Histogram fanOutLatency = fanOutLatency();
+
+        for (StompSession session : sessions) {
+            session.disconnect();
+        }
+        stompClient.stop();
+
+        long totalBids = (long) AUCTIONS * BIDS_PER_AUCTION;
+        System.out.printf("%n=== WebSocket fan-out load test ===%n");
+        System.out.printf("clients=%d auctions=%d bids=%d in %d ms (%.0f bids/s)%n",
+                sessions.size(), AUCTIONS, totalBids, bidElapsedMs, totalBids * 1000.0 / Math.max(1, bidElapsedMs));
+        System.out.printf("heap per connection (client + server side): %.1f KB%n",
+                (heapAfter - heapBefore) / 1024.0 / Math.max(1, sessions.size()));
+        print("placeBid (commit)", commitLatency);
+        print("commit -> frame receipt", fanOutLatency);
+
+        assertTrue(fanOutLatency.getTotalCount() > 0, "No bid frames were received");
+        assertTrue(fanOutLatency.getValueAtPercentile(99.0) <= TimeUnit.MILLISECONDS.toMicros(P99_TARGET_MS),
+                "p99 fan-out latency exceeds " + P99_TARGET_MS + " ms");
+    }
+
+    private List<Long> createAuctions() {
+        List<Long> ids = new ArrayList<>();
+        for (int i = 0; i < AUCTIONS; i++) {
+            Auction auction = new Auction();
+            auction.setFishName("Seer Fish");
+            auction.setLocation("Kochi");
+            auction.setQuantityKg(50.0);
+            auction.setStartPrice(100.0);
+            auction.setCurrentPrice(100.0);
+            auction.setStartTime(Instant.now());
+            auction.setEndTime(Instant.now().plus(1, ChronoUnit.HOURS));
+            auction.setActive(true);
+            ids.add(auctionRepository.save(auction).getId());
+        }
+        return ids;
+    }
+
+    private List<StompSession> connectClients(WebSocketStompClient stompClient, List<Long> auctionIds)
+            throws Exception {
+        String url = "ws://localhost:" + port + "/ws-native";
+        List<Future<StompSession>> pending = new ArrayList<>();
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < CLIENTS; i++) {
+                Long auctionId = auctionIds.get(i % auctionIds.size());
+                pending.add(executor.submit(() -> {
+                    StompSession session = stompClient
+                            .connectAsync(url, new StompSessionHandlerAdapter() {})
+                            .get(30, TimeUnit.SECONDS);
+                    session.subscribe("/topic/auction/" + auctionId, new RecordingHandler());
+                    return session;
+                }));
+            }
+
+            List<StompSession> sessions = new ArrayList<>();
+            for (Future<StompSession> future : pending) {
+                sessions.add(future.get());
+            }
+            return sessions;
+        }
+    }
+
+    /**
+     * One bidder per auction, on its own virtual thread, raising the price each interval
+     */
+    private Histogram driveBids(List<Long> auctionIds) throws Exception {
+        Histogram commitLatency = new Histogram(TimeUnit.SECONDS.toMicros(60), 3);
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            List<Future<Histogram>> bidders = new ArrayList<>();
+            for (Long auctionId : auctionIds) {
+                bidders.add(executor.submit(() -> {
+                    Histogram local = new Histogram(TimeUnit.SECONDS.toMicros(60), 3);
+                    for (int i = 1; i <= BIDS_PER_AUCTION; i++) {
+                        double amount = 100.0 + i;
+                        String bidder = "bidder" + (i % 5) + "@loadtest.local";
+                        long start = System.nanoTime();
+                        auctionService.placeBid(auctionId, amount, bidder);
+                        long committed = System.nanoTime();
+                        commitNanos.put(auctionId + ":" + amount, committed);
+                        local.recordValue(TimeUnit.NANOSECONDS.toMicros(committed - start));
+                        Thread.sleep(BID_INTERVAL_MS);
+                    }
+                    return local;
+                }));
+            }
+            for (Future<Histogram> bidder : bidders) {
+                commitLatency.add(bidder.get());
+            }
+        }
+        return commitLatency;
+    }
+
+    private void awaitQuiescence() throws InterruptedException {
+        int last = -1;
+        while (received.size() != last) {
+            last = received.size();
+            Thread.sleep(1000);
+        }
+    }
+
+    private Histogram fanOutLatency() throws Exception {
+        Histogram histogram = new Histogram(TimeUnit.SECONDS.toMicros(60), 3);
+        for (ReceivedFrame frame : received) {
+            JsonNode json = objectMapper.readTree(frame.payload());
+            if (!"BID_PLACED".equals(json.path("type").asText())) {
+                continue;
+            }
+            Long committed = commitNanos.get(json.path("auctionId").asLong() + ":" + json.path("currentPrice").asDouble());
+            if (committed == null) {
+                continue;
+            }
+            // A frame can beat the bidding thread back from placeBid; count that as zero
+            histogram.recordValue(Math.max(0, TimeUnit.NANOSECONDS.toMicros(frame.receivedNanos() - committed)));
+        }
+        return histogram;
+    }
+
+    private static long usedHeapAfterGc() throws InterruptedException {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+            Thread.sleep(200);
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    private static void print(String label, Histogram histogram) {
+        System.out.printf("%-24s n=%d p50=%.2f ms p90=%.2f ms p99=%.2f ms p99.9=%.2f ms max=%.2f ms%n",
+                label,
+                histogram.getTotalCount(),
+                histogram.getValueAtPercentile(50.0) / 1000.0,
+                histogram.getValueAtPercentile(90.0) / 1000.0,
+                histogram.getValueAtPercentile(99.0) / 1000.0,
+                histogram.getValueAtPercentile(99.9) / 1000.0,
+                histogram.getMaxValue() / 1000.0);
+    }
+
+    private class RecordingHandler implements StompFrameHandler {
+
+        @Override
+        public Type getPayloadType(StompHeaders headers) {
+            return byte[].class;
+        }
+
+        @Override
+        public void handleFrame(StompHeaders headers, Object payload) {
+            received.add(new ReceivedFrame(System.nanoTime(), (byte[]) payload));
+        }
+    }
+
+    private record ReceivedFrame(long receivedNanos, byte[] payload) {}
+}
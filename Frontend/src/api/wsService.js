@@ -43,8 +43,12 @@ class WebSocketService {
             }
         };
 
+        // JWT on CONNECT authenticates the session for per-user queues
+        const token = localStorage.getItem('token');
+        const connectHeaders = token ? { Authorization: `Bearer ${token}` } : {};
+
         this.client.connect(
-            {},
+            connectHeaders,
             (frame) => {
                 console.log('WebSocket connected:', frame);
                 this.connected = true;
@@ -122,7 +126,8 @@ class WebSocketService {
     }
 
     /**
-     * Subscribe to all bid updates (for dashboard)
+     * Subscribe to all bid updates (for dashboard).
+     * The server drops this firehose unless the SUBSCRIBE opts in explicitly.
      */
     subscribeToAllBids(callback) {
         if (!this.client || !this.connected) {
@@ -130,6 +135,32 @@ class WebSocketService {
         }
 
         const topic = '/topic/bids';
+        const subscription = this.client.subscribe(topic, (message) => {
+            try {
+                const data = JSON.parse(message.body);
+                callback(data);
+            } catch (err) {
+                console.error('Failed to parse WS message:', err);
+            }
+        }, { firehose: 'true' });
+
+        this.subscriptions.set(topic, subscription);
+        return subscription.id;
+    }
+
+    /**
+     * Subscribe to LEADING / OUTBID notices for the logged-in user
+     */
+    subscribeToNotifications(callback) {
+        if (!this.client || !this.connected) {
+            return null;
+        }
+
+        const topic = '/user/queue/notifications';
+        if (this.subscriptions.has(topic)) {
+            return this.subscriptions.get(topic).id;
+        }
+
         const subscription = this.client.subscribe(topic, (message) => {
             try {
                 const data = JSON.parse(message.body);